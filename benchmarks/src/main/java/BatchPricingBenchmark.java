@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reports pricing throughput in items per second for the per-item InventoryManager path
+ * and for BatchPricingEngine. Uses (and creates, if missing) ./inventory.dat for prices.
+ * Usage: java BatchPricingBenchmark [designCount] [itemsPerDesign]
+ */
+public class BatchPricingBenchmark {
+
+    public static void main(String[] args) {
+        int designCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int itemsPerDesign = args.length > 1 ? Integer.parseInt(args[1]) : 80;
+
+        String[] types = InventoryManager.getAllFurniturePrices().keySet().toArray(new String[0]);
+        Random random = new Random(7);
+        List<DesignModel> designs = new ArrayList<>(designCount);
+        for (int d = 0; d < designCount; d++) {
+            DesignModel model = new DesignModel();
+            for (int i = 0; i < itemsPerDesign; i++) {
+                model.getFurnitureList().add(new Furniture(types[random.nextInt(types.length)], new Vector3f(0, 0, 0),
+                        0.3f + random.nextFloat(), 0.3f + random.nextFloat(), 0.3f + random.nextFloat()));
+            }
+            designs.add(model);
+        }
+        long totalItems = (long) designCount * itemsPerDesign;
+
+        BatchPricingEngine engine = BatchPricingEngine.fromInventory();
+        List<BatchPricingEngine.EncodedDesign> encoded = new ArrayList<>(designCount);
+        for (DesignModel model : designs) encoded.add(engine.encode(model));
+
+        // Sanity check: both paths must agree
+        double expected = InventoryManager.calculateTotalPrice(designs.get(0));
+        double actual = engine.price(designs.get(0));
+        if (Math.abs(expected - actual) > 1e-6) {
+            throw new IllegalStateException("Batch price " + actual + " differs from " + expected);
+        }
+
+        int rounds = 5;
+        long perItem = Long.MAX_VALUE, batch = Long.MAX_VALUE, batchEncoded = Long.MAX_VALUE;
+        double sink = 0;
+        for (int r = 0; r < rounds + 2; r++) {
+            long start = System.nanoTime();
+            for (DesignModel model : designs) sink += InventoryManager.calculateTotalPrice(model);
+            long t1 = System.nanoTime();
+            for (double total : engine.priceDesigns(designs)) sink += total;
+            long t2 = System.nanoTime();
+            for (double total : engine.priceEncoded(encoded)) sink += total;
+            long t3 = System.nanoTime();
+
+            // The first two rounds are warm-up
+            if (r >= 2) {
+                perItem = Math.min(perItem, t1 - start);
+                batch = Math.min(batch, t2 - t1);
+                batchEncoded = Math.min(batchEncoded, t3 - t2);
+            }
+        }
+
+        System.out.printf("%,d designs x %d items, %d cores%n", designCount, itemsPerDesign,
+                Runtime.getRuntime().availableProcessors());
+        report("InventoryManager (serial)  ", totalItems, perItem);
+        report("BatchPricingEngine (models)", totalItems, batch);
+        report("BatchPricingEngine (encoded)", totalItems, batchEncoded);
+        if (sink == 42) System.out.println(); // Keep the JIT from dropping the work
+    }
+
+    private static void report(String label, long items, long nanos) {
+        System.out.printf("%s: %.1f ms, %,.0f items/s%n", label, nanos / 1e6, items / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Measures project load throughput with and without compression.
+ * Usage: java CompressionBenchmark [projectCount] [itemsPerProject] [targetDir] [dropCaches]
+ *
+ * The files are read back right after they are written, so by default every read is served from
+ * the OS page cache and the numbers measure deserialization and inflating, not I/O. To see what
+ * the smaller files save, point targetDir at the storage under test (e.g. the network share that
+ * holds the designs directory), and/or pass "true" for dropCaches to flush the Linux page cache
+ * before each timed round; that needs root and is skipped with a warning otherwise.
+ */
+public class CompressionBenchmark {
+
+    private static final String[] TYPES = {
+            "Chair", "Sofa", "Dining Table", "Side Table", "Bed", "Bookshelf",
+            "Armchair", "Coffee Table", "Desk", "Wardrobe", "Dresser", "Queen Bed"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int projectCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int itemsPerProject = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        File targetDir = args.length > 2 ? new File(args[2]) : null;
+        boolean dropCaches = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        File workDir = targetDir != null
+                ? Files.createTempDirectory(targetDir.toPath(), "furnishview-bench").toFile()
+                : Files.createTempDirectory("furnishview-bench").toFile();
+        try {
+            File plainDir = new File(workDir, "plain");
+            File compressedDir = new File(workDir, "compressed");
+            plainDir.mkdirs();
+            compressedDir.mkdirs();
+
+            Random random = new Random(42);
+            for (int i = 0; i < projectCount; i++) {
+                DesignModel model = createModel(random, itemsPerProject, "user" + (i % 20));
+                ObjectFileIO.writeObject(new File(plainDir, "p" + i + ".furn"), model, false);
+                ObjectFileIO.writeObject(new File(compressedDir, "p" + i + ".furn"), model, true);
+            }
+
+            // Warm up both paths before measuring
+            loadAll(plainDir);
+            loadAll(compressedDir);
+
+            if (dropCaches && !dropPageCache()) dropCaches = false;
+            System.out.println("Reading from " + workDir + (dropCaches ? " with a cold page cache" : " (page cache warm)"));
+            report("uncompressed", plainDir, projectCount, dropCaches);
+            report("compressed  ", compressedDir, projectCount, dropCaches);
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    private static DesignModel createModel(Random random, int items, String owner) {
+        DesignModel model = new DesignModel();
+        model.setCreatedBy(owner);
+        for (int i = 0; i < items; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            Vector3f position = new Vector3f(random.nextFloat() * 5f, 0, random.nextFloat() * 5f);
+            Furniture furniture = new Furniture(type, position,
+                    0.3f + random.nextFloat(), 0.3f + random.nextFloat(), 0.3f + random.nextFloat());
+            furniture.getRotation().y = random.nextInt(360);
+            model.addFurniture(furniture);
+        }
+        return model;
+    }
+
+    private static void report(String label, File dir, int projectCount, boolean dropCaches) throws Exception {
+        long bytes = 0;
+        File[] files = dir.listFiles();
+        for (File f : files) bytes += f.length();
+
+        int rounds = 5;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < rounds; r++) {
+            if (dropCaches) dropPageCache();
+            long start = System.nanoTime();
+            loadAll(dir);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double seconds = best / 1e9;
+        System.out.printf("%s: %,d bytes on disk, load %.1f ms, %.1f projects/s, %.1f MB/s of file data%n",
+                label, bytes, best / 1e6, projectCount / seconds, bytes / seconds / (1024 * 1024));
+    }
+
+    /**
+     * Write dirty pages back and drop the Linux page cache, so the next reads go to the device
+     * @return false if the cache could not be dropped, e.g. without root or on another OS
+     */
+    private static boolean dropPageCache() {
+        try {
+            new ProcessBuilder("sync").inheritIO().start().waitFor();
+            try (Writer writer = new FileWriter("/proc/sys/vm/drop_caches")) {
+                writer.write("3");
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not drop the page cache, measuring warm reads: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int loadAll(File dir) throws IOException, ClassNotFoundException {
+        int loaded = 0;
+        for (File f : dir.listFiles()) {
+            if (ObjectFileIO.readObject(f) instanceof DesignModel) loaded++;
+        }
+        return loaded;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Finds the PBKDF2 iteration count at which checking one password takes a target time on
+ * this machine. Hashing cost grows linearly with the iteration count, so the count is scaled
+ * from a measurement and then checked with a second one. Does not touch any data files.
+ * Usage: java PasswordHashBenchmark [targetMillis]
+ */
+public class PasswordHashBenchmark {
+
+    // Iteration counts are rounded to this step so they are easy to read and enter
+    private static final int ROUNDING = 10_000;
+
+    public static void main(String[] args) {
+        double targetMillis = args.length > 0 ? Double.parseDouble(args[0]) : 250;
+        String hash = PasswordHasher.hash("benchmark", PasswordHasher.MIN_ITERATIONS);
+
+        // Warm up the JIT on the hash loop
+        for (int i = 0; i < 5; i++) PasswordHasher.verify("benchmark", hash);
+
+        int iterations = PasswordHasher.DEFAULT_ITERATIONS;
+        double millis = measure(iterations);
+        report(iterations, millis);
+
+        // Two rounds of linear scaling, each checked by a fresh measurement
+        for (int round = 0; round < 2; round++) {
+            iterations = round(iterations * targetMillis / millis);
+            millis = measure(iterations);
+            report(iterations, millis);
+        }
+
+        System.out.printf("%nRecommended for a %.0f ms login on %d cores: %,d iterations%n",
+                targetMillis, Runtime.getRuntime().availableProcessors(), iterations);
+        System.out.println("Set it from the dashboard's Password Security admin action.");
+    }
+
+    /**
+     * @return The fastest of several verifications, in milliseconds
+     */
+    private static double measure(int iterations) {
+        String hash = PasswordHasher.hash("benchmark", iterations);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            if (!PasswordHasher.verify("benchmark", hash)) {
+                throw new IllegalStateException("Hash did not verify");
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    private static int round(double iterations) {
+        long rounded = Math.round(iterations / ROUNDING) * ROUNDING;
+        return (int) Math.max(PasswordHasher.MIN_ITERATIONS, Math.min(PasswordHasher.MAX_ITERATIONS, rounded));
+    }
+
+    private static void report(int iterations, double millis) {
+        System.out.printf("%,10d iterations: %.1f ms per login%n", iterations, millis);
+    }
+}
@@ -0,0 +1,83 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for QuoteService against the local ./designs directory. Starts the service on a free
+ * port, then keeps a fixed number of requests in flight across the listing, quote and preview
+ * endpoints of every saved project, and reports throughput, latency percentiles and cache hits.
+ * Usage: java QuoteServiceBenchmark [concurrentRequests] [totalRequests]
+ */
+public class QuoteServiceBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int total = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        ProjectManager.initializeDesignsDirectory();
+        QuoteService service = new QuoteService(0);
+        service.start();
+
+        String base = "http://127.0.0.1:" + service.getPort();
+        List<String> paths = new ArrayList<>();
+        paths.add("/projects");
+        for (ProjectManager.ProjectMetadata project : ProjectManager.getAllProjects()) {
+            String id = ProjectManager.getProjectId(new java.io.File(project.filename));
+            paths.add("/projects/" + id + "/quote");
+            paths.add("/projects/" + id + "/plan.png?size=256");
+        }
+        System.out.printf("%d endpoints, %d requests, %d in flight%n", paths.size(), total, concurrency);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[concurrency];
+        for (int w = 0; w < concurrency; w++) {
+            workers[w] = sendNext(client, base, paths, next, total, latencies, failures);
+        }
+        CompletableFuture.allOf(workers).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%.0f requests/s, %d failed%n", total / seconds, failures.get());
+        System.out.printf("latency p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                latencies[total / 2] / 1e6, latencies[(int) (total * 0.99)] / 1e6, latencies[total - 1] / 1e6);
+        System.out.printf("cache: %d hits, %d misses%n", service.getCacheHits(), service.getCacheMisses());
+
+        service.stop();
+    }
+
+    /**
+     * Send requests one after another until the total is reached
+     */
+    private static CompletableFuture<Void> sendNext(HttpClient client, String base, List<String> paths,
+                                                    AtomicInteger next, int total, long[] latencies,
+                                                    AtomicInteger failures) {
+        int index = next.getAndIncrement();
+        if (index >= total) return CompletableFuture.completedFuture(null);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + paths.get(index % paths.size()))).build();
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() != 200) failures.incrementAndGet();
+                    return null;
+                })
+                .thenCompose(ignored -> sendNext(client, base, paths, next, total, latencies, failures));
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that concurrent reservations never oversell: in each round two threads race to reserve
+ * the last unit of a furniture type, and exactly one of them must get it. Exits with status 1 on
+ * the first oversold or lost unit. Uses throwaway furniture types and removes them afterwards,
+ * but like the application it keeps stock in ./stock.dat and ./stock.log.
+ * Usage: java StockReservationCheck [rounds]
+ */
+public class StockReservationCheck {
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String type = "Reservation Check " + System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CyclicBarrier start = new CyclicBarrier(2);
+        Map<String, Integer> oneUnit = Collections.singletonMap(type, 1);
+        int failures = 0;
+        try {
+            for (int round = 0; round < rounds; round++) {
+                InventoryManager.setStockLevel(type, InventoryManager.getStockLevel(type), 1);
+
+                Future<Boolean> first = pool.submit(() -> { start.await(); return InventoryManager.reserveStock(oneUnit); });
+                Future<Boolean> second = pool.submit(() -> { start.await(); return InventoryManager.reserveStock(oneUnit); });
+                int granted = (first.get() ? 1 : 0) + (second.get() ? 1 : 0);
+                int left = InventoryManager.getStockLevel(type);
+
+                if (granted != 1 || left != 0) {
+                    System.out.printf("Round %d: %d reservations granted, %d units left%n", round, granted, left);
+                    failures++;
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+            InventoryManager.setStockLevel(type, InventoryManager.getStockLevel(type), InventoryManager.UNTRACKED_STOCK);
+            InventoryManager.flushInventory();
+        }
+
+        if (failures > 0) {
+            System.exit(1);
+        }
+        System.out.printf("%,d rounds: the last unit was always reserved exactly once%n", rounds);
+    }
+}
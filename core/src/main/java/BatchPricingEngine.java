@@ -0,0 +1,219 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Prices many designs at once for bulk quote generation.
+ * Furniture types are mapped to integer IDs once, and base and per-volume prices are kept in
+ * primitive arrays, so pricing an item is two array reads with no map lookups or boxing.
+ * Types sold as SKUs are resolved to the closest SKU's price when a design is encoded.
+ * An engine is an immutable snapshot of the inventory; build a new one after prices change.
+ */
+public class BatchPricingEngine {
+
+    // Type ID used for furniture that has no price entry
+    public static final int UNKNOWN_TYPE = -1;
+
+    // Type ID used for furniture priced from a SKU; the price is stored with the encoded item
+    public static final int VARIANT_TYPE = -2;
+
+    private final Map<String, Integer> typeIds;
+    private final VariantCatalog variants;
+    private final String[] typeNames;
+    private final double[] basePrices;
+    private final double[] pricesPerUnitVolume;
+
+    /**
+     * A design reduced to parallel arrays of type IDs and volumes
+     */
+    public static class EncodedDesign {
+        final int[] typeIds;
+        final float[] volumes;
+
+        // Price of each VARIANT_TYPE item, null if the design has none
+        final double[] skuPrices;
+
+        EncodedDesign(int[] typeIds, float[] volumes, double[] skuPrices) {
+            this.typeIds = typeIds;
+            this.volumes = volumes;
+            this.skuPrices = skuPrices;
+        }
+
+        public int getItemCount() {
+            return typeIds.length;
+        }
+    }
+
+    private BatchPricingEngine(Map<String, FurniturePrice> prices, VariantCatalog variants) {
+        this.variants = variants;
+        int size = prices.size();
+        typeIds = new HashMap<>(size * 2);
+        typeNames = new String[size];
+        basePrices = new double[size];
+        pricesPerUnitVolume = new double[size];
+
+        int id = 0;
+        for (FurniturePrice price : prices.values()) {
+            typeIds.put(price.getFurnitureType(), id);
+            typeNames[id] = price.getFurnitureType();
+            basePrices[id] = price.getBasePrice();
+            pricesPerUnitVolume[id] = price.getPricePerUnitVolume();
+            id++;
+        }
+    }
+
+    /**
+     * Build an engine from the current inventory prices
+     * @return A new engine
+     */
+    public static BatchPricingEngine fromInventory() {
+        InventoryManager.InventorySnapshot snapshot = InventoryManager.getSnapshot();
+        return new BatchPricingEngine(snapshot.getPrices(), snapshot.getVariants());
+    }
+
+    /**
+     * Build an engine from an explicit price table
+     * @param prices Map of furniture type to price entry
+     * @return A new engine
+     */
+    public static BatchPricingEngine fromPrices(Map<String, FurniturePrice> prices) {
+        return new BatchPricingEngine(prices, VariantCatalog.EMPTY);
+    }
+
+    /**
+     * Build an engine from an explicit price table and SKU catalog
+     * @param prices Map of furniture type to price entry
+     * @param variants The SKUs; they take precedence over the price table for their types
+     * @return A new engine
+     */
+    public static BatchPricingEngine fromPrices(Map<String, FurniturePrice> prices, VariantCatalog variants) {
+        return new BatchPricingEngine(prices, variants);
+    }
+
+    /**
+     * Get the integer ID of a furniture type
+     * @param furnitureType The type name
+     * @return The ID, or UNKNOWN_TYPE if the type has no price
+     */
+    public int getTypeId(String furnitureType) {
+        Integer id = typeIds.get(furnitureType);
+        return id != null ? id : UNKNOWN_TYPE;
+    }
+
+    /**
+     * @return The number of priced furniture types
+     */
+    public int getTypeCount() {
+        return typeNames.length;
+    }
+
+    /**
+     * Get the type name for an ID
+     * @param typeId The type ID
+     * @return The type name
+     */
+    public String getTypeName(int typeId) {
+        return typeNames[typeId];
+    }
+
+    /**
+     * Reduce a design to type IDs and volumes. Do this once per design when pricing it repeatedly.
+     * @param designModel The design
+     * @return The encoded design
+     */
+    public EncodedDesign encode(DesignModel designModel) {
+        List<Furniture> furnitureList = designModel != null ? designModel.getFurnitureList() : null;
+        int count = furnitureList != null ? furnitureList.size() : 0;
+        String[] types = new String[count];
+        float[] sizes = new float[count * 3];
+
+        for (int i = 0; i < count; i++) {
+            Furniture furniture = furnitureList.get(i);
+            types[i] = furniture.getType();
+            sizes[i * 3] = furniture.getWidth();
+            sizes[i * 3 + 1] = furniture.getDepth();
+            sizes[i * 3 + 2] = furniture.getHeight();
+        }
+        return encode(types, sizes);
+    }
+
+    /**
+     * Encode a design from raw arrays, e.g. when read from an index rather than a model
+     * @param typeNames The furniture type of each item
+     * @param sizes The width, depth and height of each item, three values per item
+     * @return The encoded design
+     */
+    public EncodedDesign encode(String[] typeNames, float[] sizes) {
+        int[] ids = new int[typeNames.length];
+        float[] volumes = new float[typeNames.length];
+        double[] skuPrices = null;
+
+        for (int i = 0; i < ids.length; i++) {
+            float width = sizes[i * 3], depth = sizes[i * 3 + 1], height = sizes[i * 3 + 2];
+            FurnitureSku sku = variants.findClosest(typeNames[i], width, depth, height);
+            if (sku != null) {
+                if (skuPrices == null) skuPrices = new double[ids.length];
+                ids[i] = VARIANT_TYPE;
+                skuPrices[i] = sku.getPrice();
+            } else {
+                ids[i] = getTypeId(typeNames[i]);
+                volumes[i] = width * depth * height;
+            }
+        }
+        return new EncodedDesign(ids, volumes, skuPrices);
+    }
+
+    /**
+     * Price one encoded design
+     * @param design The encoded design
+     * @return The total price
+     */
+    public double price(EncodedDesign design) {
+        int[] ids = design.typeIds;
+        float[] volumes = design.volumes;
+        double total = 0.0;
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            if (id >= 0) {
+                total += basePrices[id] + pricesPerUnitVolume[id] * volumes[i];
+            } else if (id == VARIANT_TYPE) {
+                total += design.skuPrices[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Price one design
+     * @param designModel The design
+     * @return The total price, identical to InventoryManager.calculateTotalPrice for the same prices
+     */
+    public double price(DesignModel designModel) {
+        return price(encode(designModel));
+    }
+
+    /**
+     * Price many designs in parallel
+     * @param designs The designs; they must not be modified during the call
+     * @return The total price of each design, in the same order
+     */
+    public double[] priceDesigns(List<DesignModel> designs) {
+        double[] totals = new double[designs.size()];
+        IntStream.range(0, totals.length).parallel()
+                .forEach(i -> totals[i] = price(encode(designs.get(i))));
+        return totals;
+    }
+
+    /**
+     * Price many encoded designs in parallel
+     * @param designs The encoded designs
+     * @return The total price of each design, in the same order
+     */
+    public double[] priceEncoded(List<EncodedDesign> designs) {
+        double[] totals = new double[designs.size()];
+        IntStream.range(0, totals.length).parallel()
+                .forEach(i -> totals[i] = price(designs.get(i)));
+        return totals;
+    }
+}
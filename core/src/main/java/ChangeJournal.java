@@ -0,0 +1,437 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind persistence for a keyed map. Each change is appended to a log file by a
+ * background thread, which writes whatever has queued up as one group and syncs once per group.
+ * When the log grows past a threshold it is compacted into a snapshot of the whole map.
+ * On startup the snapshot is read and the log replayed on top of it.
+ *
+ * Each change carries the full new value of its key, so replaying a record twice is harmless.
+ * The snapshot is a plain map written with ObjectFileIO, so files saved before the journal
+ * existed load as a snapshot with an empty log.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class ChangeJournal<K extends Serializable, V extends Serializable> {
+
+    // Number of logged changes that triggers a compaction
+    private static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+    // Delay before retrying a group that failed to write
+    private static final long RETRY_DELAY_MS = 1000;
+
+    // How often the idle writer checks whether the journal is closing
+    private static final long POLL_INTERVAL_MS = 200;
+
+    // How long close() keeps retrying failed writes before giving up, so a broken disk can't hang JVM exit
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+    /**
+     * One queued change. A null value removes the key.
+     */
+    private static class Change<K, V> {
+        final K key;
+        final V value;
+
+        Change(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final File snapshotFile;
+    private final File logFile;
+    private final int compactThreshold;
+
+    // State as of the last written change; the snapshot is always written from this map
+    private final Map<K, V> state = new HashMap<>();
+    private final LinkedBlockingQueue<Change<K, V>> queue = new LinkedBlockingQueue<>();
+
+    // Group taken off the queue by the writer; left for close() if the writer stops mid-retry
+    private final List<Change<K, V>> group = new ArrayList<>();
+
+    private final Object progressLock = new Object();
+    private long queuedCount = 0;
+    private long writtenCount = 0;
+    private int changesSinceCompaction = 0;
+
+    private FileOutputStream logStream;
+    private DataOutputStream logOut;
+    // Length the log had before a group that failed partway; it is cut back to this before the
+    // next write, so a retry never lands behind a torn record. -1 when the log has no torn tail.
+    private long tornAt = -1;
+    private Thread writerThread;
+    private volatile boolean running = false;
+    private boolean closing = false;
+
+    /**
+     * Create a journal
+     * @param snapshotFile The file holding the compacted map
+     * @param logFile The append-only change log
+     */
+    public ChangeJournal(File snapshotFile, File logFile) {
+        this(snapshotFile, logFile, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Create a journal
+     * @param snapshotFile The file holding the compacted map
+     * @param logFile The append-only change log
+     * @param compactThreshold Number of logged changes after which the log is compacted
+     */
+    public ChangeJournal(File snapshotFile, File logFile, int compactThreshold) {
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Read the snapshot and replay the log. A torn record at the end of the log, left by a crash
+     * during a write, is dropped.
+     * @return A copy of the recovered map
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Map<K, V> load() {
+        state.clear();
+
+        if (snapshotFile.exists()) {
+            try {
+                state.putAll((Map<K, V>) ObjectFileIO.readObject(snapshotFile));
+            } catch (Exception e) {
+                System.err.println("Error loading snapshot " + snapshotFile.getName() + ": " + e.getMessage());
+            }
+        }
+
+        if (logFile.exists()) {
+            long validLength = replayLog();
+            if (validLength < logFile.length()) {
+                System.err.println("Discarding incomplete records at the end of " + logFile.getName());
+                try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+                    raf.setLength(validLength);
+                } catch (IOException e) {
+                    System.err.println("Error truncating " + logFile.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return new HashMap<>(state);
+    }
+
+    /**
+     * Start the background writer. Pending changes are flushed when the JVM shuts down.
+     * @throws IOException If the log cannot be opened
+     */
+    public synchronized void start() throws IOException {
+        if (running) return;
+
+        openLog();
+        running = true;
+        writerThread = new Thread(this::writeLoop, logFile.getName() + "-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, logFile.getName() + "-journal-shutdown"));
+    }
+
+    /**
+     * Queue a change of one key
+     * @param key The key
+     * @param value The new value
+     */
+    public void put(K key, V value) {
+        enqueue(new Change<>(key, value));
+    }
+
+    /**
+     * Queue the removal of a key
+     * @param key The key
+     */
+    public void remove(K key) {
+        enqueue(new Change<>(key, null));
+    }
+
+    /**
+     * Queue several changes. They are written in one group if the writer is idle.
+     * @param changes Map of key to new value
+     */
+    public void putAll(Map<K, V> changes) {
+        for (Map.Entry<K, V> entry : changes.entrySet()) {
+            enqueue(new Change<>(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Wait until every change queued so far has been written and synced
+     * @return true if everything was written, false if the journal stopped first
+     */
+    public boolean flush() {
+        return flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Wait until every change queued so far has been written and synced, or a timeout passes
+     * @param timeoutMillis The longest time to wait
+     * @return true if everything was written, false if the journal stopped or the time ran out first
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + Math.min(timeoutMillis, Long.MAX_VALUE / 2);
+        synchronized (progressLock) {
+            long target = queuedCount;
+            while (writtenCount < target && running && System.currentTimeMillis() < deadline) {
+                try {
+                    progressLock.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return writtenCount >= target;
+        }
+    }
+
+    /**
+     * Write everything still queued, compact the log into the snapshot and stop the writer.
+     * If writes keep failing, gives up after CLOSE_TIMEOUT_MS and the unwritten changes are lost.
+     * A writer still stuck in a write after that is left alone, with the log, rather than raced.
+     */
+    public void close() {
+        synchronized (this) {
+            if (!running || closing) return;
+            closing = true;
+        }
+
+        flush(CLOSE_TIMEOUT_MS);
+        running = false;
+        try {
+            // The writer notices within one poll or retry delay
+            writerThread.join(RETRY_DELAY_MS + POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writerThread.isAlive()) {
+            // Stuck in a write; the group and the log are still its to use
+            System.err.println("Writer of " + logFile.getName() + " did not stop, "
+                    + queue.size() + " queued change(s) not written");
+            return;
+        }
+
+        synchronized (this) {
+            // Anything queued after the final flush, or still failing, gets one last attempt here
+            queue.drainTo(group);
+            if (!group.isEmpty()) {
+                try {
+                    writeGroup(group);
+                } catch (IOException e) {
+                    System.err.println("Error writing " + logFile.getName() + ", " + group.size()
+                            + " change(s) lost: " + e.getMessage());
+                }
+                group.clear();
+            }
+            try {
+                compact();
+                logOut.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + logFile.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(Change<K, V> change) {
+        synchronized (progressLock) {
+            queuedCount++;
+            queue.add(change);
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (group.isEmpty()) {
+                try {
+                    // Poll rather than block so the loop notices close(); the writer is never
+                    // interrupted because that would close the log's channel
+                    Change<K, V> first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    group.add(first);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            queue.drainTo(group);
+
+            synchronized (this) {
+                try {
+                    writeGroup(group);
+                    group.clear();
+                    if (changesSinceCompaction >= compactThreshold) {
+                        compact();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error writing " + logFile.getName() + ", retrying: " + e.getMessage());
+                }
+            }
+
+            if (!group.isEmpty()) {
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Append a group of changes with a single sync, then apply them to the in-memory state
+     */
+    private void writeGroup(List<Change<K, V>> changes) throws IOException {
+        if (tornAt >= 0) {
+            discardTornTail();
+        }
+
+        long start = logStream.getChannel().position();
+        try {
+            for (Change<K, V> change : changes) {
+                byte[] data = encode(change);
+                CRC32 crc = new CRC32();
+                crc.update(data);
+
+                logOut.writeInt(data.length);
+                logOut.writeInt((int) crc.getValue());
+                logOut.write(data);
+            }
+            logOut.flush();
+            logStream.getFD().sync();
+        } catch (IOException e) {
+            // Part of the group may be on disk. Replay would stop at it and drop every record
+            // written after, so cut it off before the group is retried.
+            tornAt = start;
+            // Bytes of the failed group still in the buffer must not be written later
+            logOut = new DataOutputStream(new BufferedOutputStream(logStream, 64 * 1024));
+            try {
+                discardTornTail();
+            } catch (IOException truncateError) {
+                // Tried again before the next write
+            }
+            throw e;
+        }
+
+        for (Change<K, V> change : changes) {
+            apply(change);
+        }
+        changesSinceCompaction += changes.size();
+
+        synchronized (progressLock) {
+            writtenCount += changes.size();
+            progressLock.notifyAll();
+        }
+    }
+
+    /**
+     * Replace the snapshot with the current state and empty the log.
+     * The snapshot matches the log exactly, so a crash between the two steps only means
+     * the old log is replayed onto an equal snapshot. The log is only truncated once the new
+     * snapshot, and its directory entry, are synced to disk.
+     */
+    private void compact() throws IOException {
+        // Written to a temporary file, synced, renamed over the snapshot and the directory synced
+        ObjectFileIO.writeObject(snapshotFile, new HashMap<>(state));
+
+        logOut.flush();
+        logStream.getFD().sync();
+        logStream.getChannel().truncate(0);
+        logStream.getFD().sync();
+        changesSinceCompaction = 0;
+    }
+
+    /**
+     * Truncate the log to where the failed group started, reopening it if the failure left the
+     * file unusable
+     */
+    private void discardTornTail() throws IOException {
+        try {
+            logStream.getChannel().truncate(tornAt);
+        } catch (IOException e) {
+            try {
+                logStream.close();
+            } catch (IOException closeError) {
+                // Replaced below
+            }
+            openLog();
+            logStream.getChannel().truncate(tornAt);
+        }
+        logStream.getFD().sync();
+        tornAt = -1;
+    }
+
+    private void openLog() throws IOException {
+        logStream = new FileOutputStream(logFile, true);
+        logOut = new DataOutputStream(new BufferedOutputStream(logStream, 64 * 1024));
+    }
+
+    /**
+     * Apply every intact record of the log to the state
+     * @return The length of the intact part of the log
+     */
+    @SuppressWarnings("unchecked")
+    private long replayLog() {
+        long validLength = 0;
+        long fileLength = logFile.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int checksum = in.readInt();
+                // A length past the end of the file is a torn or corrupt header, not a record to allocate for
+                if (length < 0 || length > fileLength - validLength - 8) break;
+
+                byte[] data = new byte[length];
+                in.readFully(data);
+
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                if ((int) crc.getValue() != checksum) break;
+
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                    apply(new Change<>((K) ois.readObject(), (V) ois.readObject()));
+                }
+                validLength += 8 + length;
+                changesSinceCompaction++;
+            }
+        } catch (EOFException e) {
+            // Torn record at the end of the log
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error replaying " + logFile.getName() + ": " + e.getMessage());
+        }
+        return validLength;
+    }
+
+    private void apply(Change<K, V> change) {
+        if (change.value != null) {
+            state.put(change.key, change.value);
+        } else {
+            state.remove(change.key);
+        }
+    }
+
+    private byte[] encode(Change<K, V> change) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(change.key);
+            oos.writeObject(change.value);
+        }
+        return bytes.toByteArray();
+    }
+}
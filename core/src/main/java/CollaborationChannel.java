@@ -0,0 +1,118 @@
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One TCP connection between a collaborator and the relay. Frames are queued by any thread and
+ * written by a dedicated writer thread, which flushes only when the queue runs dry so bursts of
+ * small operations share packets. Reading is left to the owner through getInput().
+ */
+class CollaborationChannel {
+
+    // Frame types
+    static final byte HELLO = 1;        // client: protocol version, session, user name, snapshot
+    static final byte WELCOME = 2;      // relay: snapshot of the session's design, empty for a new session
+    static final byte OPERATION = 3;    // both: one DesignOperation
+    static final byte ACK = 4;          // relay: the sender's oldest unacknowledged operation has been sequenced
+    static final byte PARTICIPANTS = 5; // relay: user names in the session
+
+    static final int PROTOCOL_VERSION = 2;
+
+    // A peer this far behind is disconnected rather than buffered without limit
+    private static final int MAX_QUEUED_FRAMES = 10_000;
+
+    private static final byte[] CLOSE = new byte[0];
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final BlockingQueue<byte[]> outbox = new LinkedBlockingQueue<>();
+    private volatile boolean closed = false;
+
+    CollaborationChannel(Socket socket, String name) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        Thread writer = new Thread(() -> writeLoop(output), name + "-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    DataInputStream getInput() {
+        return input;
+    }
+
+    /**
+     * Queue an encoded frame. The same array may be queued on several channels.
+     * @return false if the channel is closed or was too far behind and has been closed
+     */
+    boolean send(byte[] frame) {
+        if (closed) return false;
+        if (outbox.size() >= MAX_QUEUED_FRAMES) {
+            System.err.println("Collaboration peer " + socket.getRemoteSocketAddress() + " is not reading; disconnecting");
+            close();
+            return false;
+        }
+        outbox.add(frame);
+        return true;
+    }
+
+    void close() {
+        if (closed) return;
+        closed = true;
+        outbox.add(CLOSE);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private void writeLoop(DataOutputStream output) {
+        try {
+            while (true) {
+                byte[] frame = outbox.take();
+                if (frame == CLOSE) break;
+                output.write(frame);
+                if (outbox.isEmpty()) {
+                    output.flush();
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            close();
+        }
+    }
+
+    /**
+     * Encode a frame holding one operation
+     */
+    static byte[] operationFrame(DesignOperation operation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OPERATION);
+            operation.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read a length-prefixed byte block
+     */
+    static byte[] readBlock(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException("Block of " + length + " bytes exceeds the limit of " + maxLength);
+        }
+        byte[] block = new byte[length];
+        in.readFully(block);
+        return block;
+    }
+}
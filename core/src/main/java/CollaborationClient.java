@@ -0,0 +1,387 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A collaborator's connection to a CollaborationRelay session.
+ *
+ * Local edits are applied straight away and sent as operations; remote operations arrive in the
+ * relay's order and are handed to the listener on the model thread (the EDT in the application).
+ * All methods except connect() must be called on that thread.
+ *
+ * Copies converge because every copy applies the relay's order, except that a local operation is
+ * applied before its place in that order is known. While a local operation on some value is
+ * unacknowledged, remote operations on the same value are skipped: the relay sequenced them
+ * before the local one, so the local value is the one every copy ends up with. Moves are offsets,
+ * which add up in any order and need no such bookkeeping. A remote add recreates an item with
+ * the values it had when it was re-added, so unacknowledged local edits of it are applied again
+ * on top, as the relay will do.
+ *
+ * Drags are sent as throttled offsets, at most one per item every MOVE_SEND_INTERVAL_MS.
+ */
+public class CollaborationClient {
+
+    // Longest gap between move updates while an item is being dragged
+    public static final int MOVE_SEND_INTERVAL_MS = 50;
+
+    // How long to wait for the relay's welcome
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    // Classes a design snapshot may contain
+    private static final ObjectInputFilter SNAPSHOT_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxrefs=1000000;DesignModel;DesignItem;Furniture;ModelFurniture;Room;Room$RoomShape;Vector3f;"
+                    + "java.awt.Color;java.util.ArrayList;java.lang.Enum;java.lang.Object;!*");
+
+    /**
+     * Receives session events on the model thread
+     */
+    public interface Listener {
+        /**
+         * A collaborator's operation has changed the design; refresh whatever shows it
+         */
+        void operationApplied(DesignOperation operation);
+
+        /**
+         * The people in the session changed
+         */
+        void participantsChanged(List<String> usernames);
+
+        /**
+         * The connection to the relay was lost. Not called after leave().
+         */
+        void disconnected(String reason);
+    }
+
+    /**
+     * Move updates not yet sent for one item being dragged
+     */
+    private static class MoveStream {
+        final Furniture furniture;
+        // The item's position as the other copies last heard it
+        Vector3f sentPosition;
+        long lastSendMillis;
+        boolean flushScheduled;
+
+        MoveStream(Furniture furniture, Vector3f sentPosition) {
+            this.furniture = furniture;
+            this.sentPosition = sentPosition;
+        }
+    }
+
+    // Sends trailing drag updates once the throttle interval has passed
+    private static final ScheduledExecutorService moveScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "collaboration-moves");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final CollaborationChannel channel;
+    private final String sessionName;
+    private final DesignModel sessionModel;
+    private final Executor modelThread;
+    private DesignModel model;
+    private Listener listener;
+    private volatile boolean leaving = false;
+
+    // Sent operations, oldest first, awaiting acknowledgement
+    private final Deque<DesignOperation> unacknowledged = new ArrayDeque<>();
+    // Number of unacknowledged operations per conflict key
+    private final Map<String, Integer> pending = new HashMap<>();
+    // Items being dragged, by identifier
+    private final Map<String, MoveStream> moveStreams = new HashMap<>();
+    private List<String> participants = Collections.emptyList();
+
+    private CollaborationClient(CollaborationChannel channel, String sessionName, DesignModel sessionModel,
+                                Executor modelThread) {
+        this.channel = channel;
+        this.sessionName = sessionName;
+        this.sessionModel = sessionModel;
+        this.modelThread = modelThread;
+    }
+
+    /**
+     * Join a session. Blocks while connecting, so call it off the EDT.
+     * @param host The relay host
+     * @param port The relay port
+     * @param sessionName The session to join or create
+     * @param username The name shown to other collaborators
+     * @param snapshot The local design from encodeSnapshot(), used if this starts the session
+     * @param modelThread Runs listener callbacks, e.g. SwingUtilities::invokeLater
+     * @return The client. Call start() once the design from getSessionModel() is in place.
+     * @throws IOException If the relay cannot be reached or refuses the session
+     */
+    public static CollaborationClient connect(String host, int port, String sessionName, String username,
+                                              byte[] snapshot, Executor modelThread) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        CollaborationChannel channel = new CollaborationChannel(socket, "collaboration-" + sessionName);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.length + 64);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(CollaborationChannel.HELLO);
+                out.writeInt(CollaborationChannel.PROTOCOL_VERSION);
+                out.writeUTF(sessionName);
+                out.writeUTF(username != null ? username : "designer");
+                out.writeInt(snapshot.length);
+                out.write(snapshot);
+            }
+            channel.send(bytes.toByteArray());
+
+            socket.setSoTimeout(CONNECT_TIMEOUT_MS);
+            DataInputStream in = channel.getInput();
+            if (in.readByte() != CollaborationChannel.WELCOME) {
+                throw new IOException("Relay did not accept the session");
+            }
+            byte[] sessionSnapshot = CollaborationChannel.readBlock(in, CollaborationRelay.MAX_SNAPSHOT_BYTES);
+            socket.setSoTimeout(0);
+
+            DesignModel sessionModel = sessionSnapshot.length > 0 ? decodeSnapshot(sessionSnapshot) : null;
+            return new CollaborationClient(channel, sessionName, sessionModel, modelThread);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The session's design when joining an existing session, or null if the local design started it
+     */
+    public DesignModel getSessionModel() {
+        return sessionModel;
+    }
+
+    public String getSessionName() {
+        return sessionName;
+    }
+
+    /**
+     * @return The user names in the session, as last reported by the relay
+     */
+    public List<String> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Start receiving operations
+     * @param model The design to apply them to: getSessionModel() if not null, otherwise the local design
+     * @param listener Called on the model thread
+     */
+    public void start(DesignModel model, Listener listener) {
+        this.model = model;
+        this.listener = listener;
+        Thread reader = new Thread(this::readLoop, "collaboration-" + sessionName + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Leave the session
+     */
+    public void leave() {
+        leaving = true;
+        channel.close();
+    }
+
+    /**
+     * Send a local operation that has already been applied to the local design
+     */
+    public void send(DesignOperation operation) {
+        if (operation.getKind() == DesignOperation.Kind.MOVE_FURNITURE) {
+            // Moves sent outside a drag (undo, redo) still shift the drag baseline if one is open
+            MoveStream stream = moveStreams.get(operation.getTarget());
+            if (stream != null) {
+                float[] offset = operation.getMoveOffset();
+                stream.sentPosition = offset(stream.sentPosition, offset[0], offset[1], offset[2]);
+            }
+        }
+
+        transmit(operation);
+    }
+
+    private void transmit(DesignOperation operation) {
+        unacknowledged.addLast(operation);
+        String key = operation.getConflictKey();
+        if (key != null) {
+            pending.merge(key, 1, Integer::sum);
+        }
+        channel.send(CollaborationChannel.operationFrame(operation));
+    }
+
+    /**
+     * Report that an item is being dragged and has moved. Sends the offset since the last update
+     * if the throttle interval has passed, otherwise makes sure it is sent when it does.
+     */
+    public void itemMoving(Furniture furniture) {
+        MoveStream stream = moveStreams.get(furniture.getId());
+        if (stream == null) return; // No drag opened with beginMove()
+
+        long now = System.currentTimeMillis();
+        long wait = stream.lastSendMillis + MOVE_SEND_INTERVAL_MS - now;
+        if (wait <= 0) {
+            sendMove(stream, now);
+        } else if (!stream.flushScheduled) {
+            stream.flushScheduled = true;
+            moveScheduler.schedule(() -> modelThread.execute(() -> {
+                stream.flushScheduled = false;
+                if (moveStreams.get(furniture.getId()) == stream) {
+                    sendMove(stream, System.currentTimeMillis());
+                }
+            }), wait, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Start a drag. Call before the item first moves.
+     */
+    public void beginMove(Furniture furniture) {
+        moveStreams.put(furniture.getId(), new MoveStream(furniture, furniture.getPosition().clone()));
+    }
+
+    /**
+     * Finish a drag, sending whatever offset is still unsent
+     */
+    public void endMove(Furniture furniture) {
+        MoveStream stream = moveStreams.remove(furniture.getId());
+        if (stream != null) {
+            sendMove(stream, System.currentTimeMillis());
+        }
+    }
+
+    private void sendMove(MoveStream stream, long now) {
+        Vector3f current = stream.furniture.getPosition();
+        float dx = current.x - stream.sentPosition.x;
+        float dy = current.y - stream.sentPosition.y;
+        float dz = current.z - stream.sentPosition.z;
+        stream.lastSendMillis = now;
+        if (dx == 0 && dy == 0 && dz == 0) return;
+
+        stream.sentPosition = current.clone();
+        transmit(DesignOperation.moveFurniture(stream.furniture, dx, dy, dz));
+    }
+
+    private void readLoop() {
+        String reason = "Connection to the relay closed";
+        try {
+            DataInputStream in = channel.getInput();
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case CollaborationChannel.OPERATION: {
+                        DesignOperation operation = DesignOperation.readFrom(in);
+                        modelThread.execute(() -> receive(operation));
+                        break;
+                    }
+                    case CollaborationChannel.ACK:
+                        modelThread.execute(this::acknowledge);
+                        break;
+                    case CollaborationChannel.PARTICIPANTS: {
+                        int count = in.readInt();
+                        List<String> names = new ArrayList<>();
+                        for (int i = 0; i < count; i++) {
+                            names.add(in.readUTF());
+                        }
+                        modelThread.execute(() -> {
+                            participants = Collections.unmodifiableList(names);
+                            listener.participantsChanged(participants);
+                        });
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unexpected frame type " + type);
+                }
+            }
+        } catch (IOException e) {
+            if (e.getMessage() != null) reason = e.getMessage();
+        }
+
+        channel.close();
+        if (!leaving) {
+            String message = reason;
+            modelThread.execute(() -> listener.disconnected(message));
+        }
+    }
+
+    private void receive(DesignOperation operation) {
+        if (leaving) return;
+
+        // Skip values we have overwritten since; see the class comment
+        String key = operation.getConflictKey();
+        if (key != null && pending.containsKey(key)) return;
+        if (pending.containsKey(DesignOperation.getExistenceKey(operation.getTarget()))) return;
+
+        if (!operation.apply(model)) return;
+
+        switch (operation.getKind()) {
+            case MOVE_FURNITURE: {
+                // Keep the remote offset out of our next update for an item we are dragging
+                MoveStream stream = moveStreams.get(operation.getTarget());
+                if (stream != null) {
+                    float[] offset = operation.getMoveOffset();
+                    stream.sentPosition = offset(stream.sentPosition, offset[0], offset[1], offset[2]);
+                }
+                break;
+            }
+            case REMOVE_FURNITURE:
+                // A drag of the removed item no longer means anything to the other copies
+                moveStreams.remove(operation.getTarget());
+                break;
+            case ADD_FURNITURE:
+                for (DesignOperation mine : unacknowledged) {
+                    if (mine.getTarget().equals(operation.getTarget())) {
+                        mine.apply(model);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        listener.operationApplied(operation);
+    }
+
+    private void acknowledge() {
+        DesignOperation operation = unacknowledged.pollFirst();
+        if (operation != null && operation.getConflictKey() != null) {
+            pending.computeIfPresent(operation.getConflictKey(), (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static Vector3f offset(Vector3f position, float dx, float dy, float dz) {
+        return new Vector3f(position.x + dx, position.y + dy, position.z + dz);
+    }
+
+    /**
+     * Serialize a design for sending to the relay. Call on the model thread.
+     */
+    public static byte[] encodeSnapshot(DesignModel model) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+        try {
+            ObjectFileIO.writeObject(bytes, model, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserialize a design received from the relay or a collaborator, accepting only design classes
+     * @throws IOException If the data is not a design
+     */
+    public static DesignModel decodeSnapshot(byte[] snapshot) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(ObjectFileIO.openDecodedStream(new ByteArrayInputStream(snapshot)))) {
+            in.setObjectInputFilter(SNAPSHOT_FILTER);
+            Object obj = in.readObject();
+            if (obj instanceof DesignModel) {
+                return (DesignModel) obj;
+            }
+            throw new IOException("Snapshot is not a design");
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Snapshot is not a design: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Relay for collaborative editing sessions. Collaborators connect over TCP and name a session;
+ * the first one in supplies the design, and later ones receive the relay's current copy of it.
+ * From then on each operation a collaborator sends is given the next place in the session's
+ * order, applied to the relay's copy, forwarded to the other collaborators and acknowledged to
+ * the sender. Every copy therefore sees the same operations in the same order.
+ *
+ * Binds to the loopback interface unless told otherwise, so by default only collaborators on
+ * the same machine (or reaching it through an SSH tunnel) can join.
+ */
+public class CollaborationRelay {
+
+    public static final int DEFAULT_PORT = 8096;
+
+    // Largest design snapshot accepted from a collaborator
+    static final int MAX_SNAPSHOT_BYTES = 16 * 1024 * 1024;
+
+    private static final byte[] ACK_FRAME = {CollaborationChannel.ACK};
+
+    /**
+     * A design being edited together
+     */
+    private static class Session {
+        final String name;
+        DesignModel model;
+        final List<Participant> participants = new ArrayList<>();
+
+        Session(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class Participant {
+        final CollaborationChannel channel;
+        final String username;
+
+        Participant(CollaborationChannel channel, String username) {
+            this.channel = channel;
+            this.username = username;
+        }
+    }
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private volatile boolean running = false;
+
+    /**
+     * Create a relay on a loopback port. Call start() to accept collaborators.
+     * @param port The port, or 0 to pick a free one
+     * @throws IOException If the port cannot be bound
+     */
+    public CollaborationRelay(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Create a relay on a given address
+     * @param address The interface to listen on
+     * @param port The port, or 0 to pick a free one
+     * @throws IOException If the port cannot be bound
+     */
+    public CollaborationRelay(InetAddress address, int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(address, port));
+    }
+
+    /**
+     * Start accepting collaborators on a background thread
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+
+        Thread acceptor = new Thread(this::acceptLoop, "collaboration-relay");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stop accepting collaborators and disconnect everyone
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                for (Participant participant : session.participants) {
+                    participant.channel.close();
+                }
+                session.participants.clear();
+            }
+        }
+        sessions.clear();
+    }
+
+    /**
+     * @return The port the relay listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return The number of sessions with at least one collaborator
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                int number = connectionCount.incrementAndGet();
+                Thread reader = new Thread(() -> serve(socket, number), "collaboration-relay-" + number);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Collaboration relay accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Handle one collaborator from its greeting until it disconnects
+     */
+    private void serve(Socket socket, int number) {
+        CollaborationChannel channel;
+        try {
+            channel = new CollaborationChannel(socket, "collaboration-relay-" + number);
+        } catch (IOException e) {
+            System.err.println("Collaboration relay could not open connection: " + e.getMessage());
+            return;
+        }
+
+        Session session = null;
+        Participant participant = null;
+        try {
+            DataInputStream in = channel.getInput();
+            if (in.readByte() != CollaborationChannel.HELLO || in.readInt() != CollaborationChannel.PROTOCOL_VERSION) {
+                throw new IOException("Unsupported collaboration client");
+            }
+            String sessionName = in.readUTF();
+            String username = in.readUTF();
+            byte[] snapshot = CollaborationChannel.readBlock(in, MAX_SNAPSHOT_BYTES);
+
+            participant = new Participant(channel, username);
+            session = join(sessionName, participant, snapshot);
+
+            while (true) {
+                byte type = in.readByte();
+                if (type != CollaborationChannel.OPERATION) {
+                    throw new IOException("Unexpected frame type " + type);
+                }
+                sequence(session, participant, DesignOperation.readFrom(in));
+            }
+        } catch (EOFException | SocketException e) {
+            // Disconnected
+        } catch (IOException e) {
+            System.err.println("Collaboration relay dropped connection " + number + ": " + e.getMessage());
+        } finally {
+            channel.close();
+            if (session != null) {
+                leave(session, participant);
+            }
+        }
+    }
+
+    private Session join(String sessionName, Participant participant, byte[] snapshot) throws IOException {
+        while (true) {
+            Session session = sessions.computeIfAbsent(sessionName, Session::new);
+            synchronized (session) {
+                // The last collaborator may have left and removed it while we waited for the lock
+                if (sessions.get(sessionName) != session) continue;
+
+                byte[] welcome;
+                if (session.model == null) {
+                    // First collaborator: their design becomes the shared one
+                    try {
+                        session.model = CollaborationClient.decodeSnapshot(snapshot);
+                    } catch (IOException e) {
+                        sessions.remove(sessionName, session);
+                        throw e;
+                    }
+                    welcome = welcomeFrame(new byte[0]);
+                } else {
+                    welcome = welcomeFrame(CollaborationClient.encodeSnapshot(session.model));
+                }
+                participant.channel.send(welcome);
+                session.participants.add(participant);
+                broadcastParticipants(session);
+                return session;
+            }
+        }
+    }
+
+    private void leave(Session session, Participant participant) {
+        synchronized (session) {
+            session.participants.remove(participant);
+            if (session.participants.isEmpty()) {
+                sessions.remove(session.name, session);
+            } else {
+                broadcastParticipants(session);
+            }
+        }
+    }
+
+    /**
+     * Give an operation its place in the session's order. Frames are queued while the session is
+     * locked, so every channel receives operations, and the sender its acknowledgements, in that order.
+     */
+    private void sequence(Session session, Participant sender, DesignOperation operation) {
+        byte[] frame = CollaborationChannel.operationFrame(operation);
+        synchronized (session) {
+            operation.apply(session.model);
+            for (Participant participant : session.participants) {
+                if (participant != sender) {
+                    participant.channel.send(frame);
+                }
+            }
+            sender.channel.send(ACK_FRAME);
+        }
+    }
+
+    private static void broadcastParticipants(Session session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CollaborationChannel.PARTICIPANTS);
+            out.writeInt(session.participants.size());
+            for (Participant participant : session.participants) {
+                out.writeUTF(participant.username);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        for (Participant participant : session.participants) {
+            participant.channel.send(frame);
+        }
+    }
+
+    private static byte[] welcomeFrame(byte[] snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.length + 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CollaborationChannel.WELCOME);
+            out.writeInt(snapshot.length);
+            out.write(snapshot);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Run a relay on its own.
+     * Usage: java CollaborationRelay [port] [bindAddress]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+
+        CollaborationRelay relay = new CollaborationRelay(address, port);
+        relay.start();
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            relay.stop();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 import java.awt.Color;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.UUID;
 
 abstract class DesignItem implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -8,14 +11,27 @@ abstract class DesignItem implements Serializable {
     protected Vector3f scale;
     protected Color color;
     protected String texturePath;
+    private String id; // Stable across saves and collaborators; operations refer to items by it
 
     public DesignItem(Vector3f position) {
+        this.id = UUID.randomUUID().toString();
         this.position = position;
         this.rotation = new Vector3f(0, 0, 0);
         this.scale = new Vector3f(1, 1, 1);
         this.color = Color.GRAY;
     }
 
+    /**
+     * @return The item's identifier, unique within its design
+     */
+    public String getId() { return id; }
+
+    /**
+     * Set the identifier. Only used when an item is recreated from a collaboration operation.
+     * @param id The identifier the item was created with
+     */
+    void setId(String id) { this.id = id; }
+
     public Vector3f getPosition() { return position; }
     public void setPosition(Vector3f position) { this.position = position; }
     public Vector3f getRotation() { return rotation; }
@@ -26,4 +42,12 @@ abstract class DesignItem implements Serializable {
     public void setColor(Color color) { this.color = color; }
     public String getTexturePath() { return texturePath; }
     public void setTexturePath(String texturePath) { this.texturePath = texturePath; }
-}
\ No newline at end of file
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // Designs saved before items had identifiers get one when loaded
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+        }
+    }
+}
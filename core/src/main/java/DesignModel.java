@@ -3,6 +3,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 
 public class DesignModel implements Serializable {
@@ -11,6 +14,7 @@ public class DesignModel implements Serializable {
     private List<Furniture> furnitureList;
     private Furniture selectedFurniture;
     private String createdBy; // Store the username of the creator
+    private transient PriceAggregator priceAggregator; // Built on first use, not saved
 
 
     public DesignModel() {
@@ -26,6 +30,9 @@ public class DesignModel implements Serializable {
     public void addFurniture(Furniture furniture) {
         if (furniture != null) {
             furnitureList.add(furniture);
+            if (priceAggregator != null) {
+                priceAggregator.itemAdded(furniture);
+            }
             setSelectedFurniture(furniture);
         }
     }
@@ -35,7 +42,56 @@ public class DesignModel implements Serializable {
             if (selectedFurniture == furniture) {
                 setSelectedFurniture(null);
             }
-            furnitureList.remove(furniture);
+            if (furnitureList.remove(furniture) && priceAggregator != null) {
+                priceAggregator.itemRemoved(furniture);
+            }
+        }
+    }
+
+    /**
+     * Change the dimensions of a furniture item, keeping the price totals in step
+     * @param furniture The furniture to resize
+     * @param width The new width
+     * @param depth The new depth
+     * @param height The new height
+     */
+    public void resizeFurniture(Furniture furniture, float width, float depth, float height) {
+        if (furniture == null) return;
+        furniture.setWidth(width);
+        furniture.setDepth(depth);
+        furniture.setHeight(height);
+        if (priceAggregator != null) {
+            priceAggregator.itemResized(furniture);
+        }
+    }
+
+    /**
+     * Find a furniture item by its identifier
+     * @param id The item identifier
+     * @return The furniture, or null if the design has no such item
+     */
+    public Furniture findFurniture(String id) {
+        if (id == null || furnitureList == null) return null;
+        for (Furniture furniture : furnitureList) {
+            if (id.equals(furniture.getId())) {
+                return furniture;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Make an independent deep copy, so the design can be written out on a background
+     * thread while it is still being edited
+     * @return The copy
+     */
+    public DesignModel copy() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectFileIO.writeObject(bytes, this, false);
+            return (DesignModel) ObjectFileIO.readObject(new ByteArrayInputStream(bytes.toByteArray()));
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not copy design model: " + e.getMessage(), e);
         }
     }
 
@@ -47,6 +103,9 @@ public class DesignModel implements Serializable {
         furnitureList.clear();
         room = new Room(5.0f, 5.0f, 3.0f);
         selectedFurniture = null;
+        if (priceAggregator != null) {
+            priceAggregator.rebuild();
+        }
     }
 
     /**
@@ -73,6 +132,17 @@ public class DesignModel implements Serializable {
         return InventoryManager.calculateTotalPrice(this);
     }
 
+    /**
+     * Get the incrementally maintained price totals for this design
+     * @return The price aggregator, created on first use
+     */
+    public PriceAggregator getPriceAggregator() {
+        if (priceAggregator == null) {
+            priceAggregator = new PriceAggregator(this);
+        }
+        return priceAggregator;
+    }
+
     /**
      * Get a detailed price breakdown for all furniture in this design
      * @return Map with furniture types as keys and their total prices as values
@@ -0,0 +1,349 @@
+import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One edit to a shared design, small enough to send on every change. Items are addressed by
+ * their stable identifier, so an operation means the same thing in every copy of the design.
+ *
+ * Moves carry a position delta rather than the new position, so moves from different
+ * collaborators add up instead of overwriting each other. Every other operation sets a value
+ * and has a conflict key naming what it sets; when two collaborators set the same thing at once,
+ * the operation the relay sequenced last wins everywhere (see CollaborationClient).
+ */
+public final class DesignOperation {
+
+    public enum Kind {
+        ADD_FURNITURE,
+        REMOVE_FURNITURE,
+        MOVE_FURNITURE,
+        ROTATE_FURNITURE,
+        RESIZE_FURNITURE,
+        FURNITURE_APPEARANCE,
+        ROOM_APPEARANCE,
+        ROOM_PROPERTIES
+    }
+
+    // Target of room operations
+    private static final String WALLS = "walls";
+    private static final String FLOOR = "floor";
+    private static final String ROOM = "room";
+
+    private final Kind kind;
+    // Furniture identifier, or WALLS/FLOOR/ROOM for room operations
+    private final String target;
+    // Numeric arguments, meaning depends on the kind
+    private final float[] values;
+    // ARGB colour, when hasColor
+    private final boolean hasColor;
+    private final int color;
+    // Texture path, furniture type or room shape, depending on the kind
+    private final String text;
+    private final String texture;
+    // Imported model of added furniture, null for built-in shapes
+    private final String modelHash;
+    private final String modelPath;
+
+    private DesignOperation(Kind kind, String target, float[] values, Color color, String text, String texture) {
+        this(kind, target, values, color, text, texture, null, null);
+    }
+
+    private DesignOperation(Kind kind, String target, float[] values, Color color, String text, String texture,
+                            String modelHash, String modelPath) {
+        this.kind = kind;
+        this.target = target;
+        this.values = values != null ? values : new float[0];
+        this.hasColor = color != null;
+        this.color = color != null ? color.getRGB() : 0;
+        this.text = text;
+        this.texture = texture;
+        this.modelHash = modelHash;
+        this.modelPath = modelPath;
+    }
+
+    /**
+     * Add a piece of furniture with all of its current properties
+     */
+    public static DesignOperation addFurniture(Furniture furniture) {
+        Vector3f pos = furniture.getPosition(), rot = furniture.getRotation();
+        ModelFurniture model = furniture instanceof ModelFurniture ? (ModelFurniture) furniture : null;
+        return new DesignOperation(Kind.ADD_FURNITURE, furniture.getId(), new float[]{
+                pos.x, pos.y, pos.z, rot.x, rot.y, rot.z,
+                furniture.getWidth(), furniture.getDepth(), furniture.getHeight()
+        }, furniture.getColor(), furniture.getType(), furniture.getTexturePath(),
+                model != null ? model.getModelHash() : null, model != null ? model.getModelPath() : null);
+    }
+
+    public static DesignOperation removeFurniture(Furniture furniture) {
+        return new DesignOperation(Kind.REMOVE_FURNITURE, furniture.getId(), null, null, null, null);
+    }
+
+    /**
+     * Move a piece of furniture by an offset
+     */
+    public static DesignOperation moveFurniture(Furniture furniture, float dx, float dy, float dz) {
+        return new DesignOperation(Kind.MOVE_FURNITURE, furniture.getId(), new float[]{dx, dy, dz}, null, null, null);
+    }
+
+    /**
+     * Set a piece of furniture's rotation about the vertical axis to its current value
+     */
+    public static DesignOperation rotateFurniture(Furniture furniture) {
+        return new DesignOperation(Kind.ROTATE_FURNITURE, furniture.getId(),
+                new float[]{furniture.getRotation().y}, null, null, null);
+    }
+
+    /**
+     * Set a piece of furniture's dimensions to their current values
+     */
+    public static DesignOperation resizeFurniture(Furniture furniture) {
+        return new DesignOperation(Kind.RESIZE_FURNITURE, furniture.getId(),
+                new float[]{furniture.getWidth(), furniture.getDepth(), furniture.getHeight()}, null, null, null);
+    }
+
+    /**
+     * Set a piece of furniture's colour and texture to their current values
+     */
+    public static DesignOperation furnitureAppearance(Furniture furniture) {
+        return new DesignOperation(Kind.FURNITURE_APPEARANCE, furniture.getId(), null,
+                furniture.getColor(), null, furniture.getTexturePath());
+    }
+
+    /**
+     * Set the wall or floor colour and texture to their current values
+     */
+    public static DesignOperation roomAppearance(Room room, boolean walls) {
+        return new DesignOperation(Kind.ROOM_APPEARANCE, walls ? WALLS : FLOOR, null,
+                walls ? room.getWallColor() : room.getFloorColor(), null,
+                walls ? room.getWallTexturePath() : room.getFloorTexturePath());
+    }
+
+    /**
+     * Set the room's shape and dimensions to their current values
+     */
+    public static DesignOperation roomProperties(Room room) {
+        return new DesignOperation(Kind.ROOM_PROPERTIES, ROOM, new float[]{
+                room.getHeight(), room.getWidth(), room.getLength(), room.getRadius(),
+                room.getL_outerWidth(), room.getL_outerLength(), room.getL_insetWidth(), room.getL_insetLength(),
+                room.getT_barWidth(), room.getT_barLength(), room.getT_stemWidth(), room.getT_stemLength()
+        }, null, room.getShape().name(), null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The furniture identifier, or a fixed name for room operations
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return The offset of a move, as {dx, dy, dz}
+     */
+    public float[] getMoveOffset() {
+        return kind == Kind.MOVE_FURNITURE ? values.clone() : null;
+    }
+
+    /**
+     * @return What this operation sets, or null for moves, which add up instead of conflicting
+     */
+    public String getConflictKey() {
+        switch (kind) {
+            case MOVE_FURNITURE:
+                return null;
+            case ADD_FURNITURE:
+            case REMOVE_FURNITURE:
+                return getExistenceKey(target);
+            default:
+                return target + "/" + kind;
+        }
+    }
+
+    /**
+     * @param itemId A furniture identifier
+     * @return The conflict key of adding and removing that item. Every operation on the item depends on it.
+     */
+    public static String getExistenceKey(String itemId) {
+        return itemId + "/exists";
+    }
+
+    /**
+     * Apply this operation to a design. Operations on furniture the design doesn't have are ignored,
+     * since another collaborator may have removed it. The local selection is left alone except
+     * when the selected item is removed.
+     * @param model The design
+     * @return true if the design changed
+     */
+    public boolean apply(DesignModel model) {
+        Room room = model.getRoom();
+        Furniture furniture = model.findFurniture(target);
+
+        switch (kind) {
+            case ADD_FURNITURE: {
+                // Two collaborators can restore the same removed item; the later add wins
+                if (furniture != null) {
+                    furniture.setPosition(new Vector3f(values[0], values[1], values[2]));
+                    furniture.setRotation(new Vector3f(values[3], values[4], values[5]));
+                    model.resizeFurniture(furniture, values[6], values[7], values[8]);
+                    furniture.setColor(hasColor ? new Color(color, true) : null);
+                    furniture.setTexturePath(texture);
+                    return true;
+                }
+
+                Vector3f position = new Vector3f(values[0], values[1], values[2]);
+                Furniture added = modelHash != null
+                        ? new ModelFurniture(text, position, values[6], values[7], values[8], modelHash, modelPath)
+                        : new Furniture(text, position, values[6], values[7], values[8]);
+                added.setId(target);
+                added.setRotation(new Vector3f(values[3], values[4], values[5]));
+                added.setColor(hasColor ? new Color(color, true) : null);
+                added.setTexturePath(texture);
+
+                Furniture selected = model.getSelectedFurniture();
+                model.addFurniture(added);
+                model.setSelectedFurniture(selected);
+                return true;
+            }
+            case REMOVE_FURNITURE:
+                if (furniture == null) return false;
+                model.removeFurniture(furniture);
+                return true;
+            case MOVE_FURNITURE: {
+                if (furniture == null) return false;
+                Vector3f pos = furniture.getPosition();
+                furniture.setPosition(new Vector3f(pos.x + values[0], pos.y + values[1], pos.z + values[2]));
+                return true;
+            }
+            case ROTATE_FURNITURE:
+                if (furniture == null) return false;
+                furniture.getRotation().y = values[0];
+                return true;
+            case RESIZE_FURNITURE:
+                if (furniture == null) return false;
+                model.resizeFurniture(furniture, values[0], values[1], values[2]);
+                return true;
+            case FURNITURE_APPEARANCE:
+                if (furniture == null) return false;
+                furniture.setColor(hasColor ? new Color(color, true) : null);
+                furniture.setTexturePath(texture);
+                return true;
+            case ROOM_APPEARANCE:
+                if (room == null) return false;
+                if (WALLS.equals(target)) {
+                    room.setWallColor(hasColor ? new Color(color, true) : null);
+                    room.setWallTexturePath(texture);
+                } else {
+                    room.setFloorColor(hasColor ? new Color(color, true) : null);
+                    room.setFloorTexturePath(texture);
+                }
+                return true;
+            case ROOM_PROPERTIES:
+                if (room == null) return false;
+                room.setShape(Room.RoomShape.valueOf(text));
+                room.setHeight(values[0]);
+                room.setWidth(values[1]);
+                room.setLength(values[2]);
+                room.setRadius(values[3]);
+                room.setL_outerWidth(values[4]);
+                room.setL_outerLength(values[5]);
+                room.setL_insetWidth(values[6]);
+                room.setL_insetLength(values[7]);
+                room.setT_barWidth(values[8]);
+                room.setT_barLength(values[9]);
+                room.setT_stemWidth(values[10]);
+                room.setT_stemLength(values[11]);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Write this operation in its compact wire form
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(kind.ordinal());
+        out.writeUTF(target);
+        out.writeByte(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+        out.writeBoolean(hasColor);
+        if (hasColor) out.writeInt(color);
+        writeNullable(out, text);
+        writeNullable(out, texture);
+        if (kind == Kind.ADD_FURNITURE) {
+            writeNullable(out, modelHash);
+            writeNullable(out, modelPath);
+        }
+    }
+
+    /**
+     * Read an operation written by writeTo
+     * @throws IOException If the data is malformed
+     */
+    public static DesignOperation readFrom(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Kind.values().length) {
+            throw new IOException("Unknown operation kind " + ordinal);
+        }
+        Kind kind = Kind.values()[ordinal];
+        String target = in.readUTF();
+        float[] values = new float[in.readUnsignedByte()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readFloat();
+        }
+        Color color = in.readBoolean() ? new Color(in.readInt(), true) : null;
+        String text = readNullable(in);
+        String texture = readNullable(in);
+        String modelHash = kind == Kind.ADD_FURNITURE ? readNullable(in) : null;
+        String modelPath = kind == Kind.ADD_FURNITURE ? readNullable(in) : null;
+
+        if (values.length < requiredValues(kind)) {
+            throw new IOException(kind + " operation has " + values.length + " values");
+        }
+        if (kind == Kind.ROOM_PROPERTIES) {
+            try {
+                Room.RoomShape.valueOf(text);
+            } catch (RuntimeException e) {
+                throw new IOException("Unknown room shape " + text);
+            }
+        }
+        if (kind == Kind.ADD_FURNITURE && text == null) {
+            throw new IOException("Furniture has no type");
+        }
+        if (modelHash != null && modelPath == null) {
+            throw new IOException("Imported furniture has no model path");
+        }
+        return new DesignOperation(kind, target, values, color, text, texture, modelHash, modelPath);
+    }
+
+    private static int requiredValues(Kind kind) {
+        switch (kind) {
+            case ADD_FURNITURE: return 9;
+            case MOVE_FURNITURE: return 3;
+            case ROTATE_FURNITURE: return 1;
+            case RESIZE_FURNITURE: return 3;
+            case ROOM_PROPERTIES: return 12;
+            default: return 0;
+        }
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + target;
+    }
+}
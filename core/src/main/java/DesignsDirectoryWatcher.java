@@ -0,0 +1,288 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the designs directory for project files created, modified or deleted by other users.
+ * Events are debounced so a burst of writes to the same file is reported once, and a periodic
+ * modification-time sweep catches changes on network filesystems that don't deliver events.
+ * Listener callbacks run on the watcher's background thread.
+ */
+public class DesignsDirectoryWatcher {
+
+    /**
+     * Receives batches of changed project files
+     */
+    public interface Listener {
+        /**
+         * Called for files that were created or modified
+         * @param files The affected project files
+         */
+        void projectsChanged(List<File> files);
+
+        /**
+         * Called for files that were deleted
+         * @param files The removed project files
+         */
+        void projectsRemoved(List<File> files);
+    }
+
+    // Quiet period after the last event before a batch is delivered
+    private static final long DEBOUNCE_MS = 300;
+
+    // Longest a batch may be held back by a continuous stream of events
+    private static final long MAX_DELAY_MS = 2000;
+
+    // Interval of the fallback modification-time sweep
+    private static final long SWEEP_INTERVAL_MS = 30_000;
+
+    private final File directory;
+    private final String extension;
+    private final Listener listener;
+
+    private final Set<String> pendingPaths = new HashSet<>();
+    private final Map<String, long[]> knownFiles = new HashMap<>();
+    private long firstPendingTime = 0;
+    private long lastEventTime = 0;
+    private ScheduledFuture<?> pendingFlush;
+
+    private ScheduledExecutorService scheduler;
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean running = false;
+
+    /**
+     * Create a watcher for project files in a directory
+     * @param directory The designs directory
+     * @param extension The project file extension, e.g. ".furn"
+     * @param listener The listener to notify
+     */
+    public DesignsDirectoryWatcher(File directory, String extension, Listener listener) {
+        this.directory = directory;
+        this.extension = extension.toLowerCase();
+        this.listener = listener;
+    }
+
+    /**
+     * Start watching. Returns at once: registering with the filesystem and recording the initial
+     * state of the directory, which stats every project file, run on the watcher's own thread.
+     * The listener is not told about the initial state, only about changes after it was recorded;
+     * changes that events report while it is being recorded are always passed on.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "designs-watcher-flush");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // The first task on the single scheduler thread, so no flush or sweep can run before it
+        scheduler.execute(this::initialize);
+        scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void initialize() {
+        // Register before listing, so a change made while the listing runs still produces an event
+        synchronized (this) {
+            if (!running) return;
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+                directory.toPath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+
+                watchThread = new Thread(this::watchLoop, "designs-watcher");
+                watchThread.setDaemon(true);
+                watchThread.start();
+            } catch (IOException | UnsupportedOperationException e) {
+                // The sweep still picks up changes
+                System.err.println("Directory watching unavailable, using periodic sweep only: " + e.getMessage());
+                watchService = null;
+            }
+        }
+
+        Map<String, long[]> initial = listFileStamps();
+        synchronized (knownFiles) {
+            knownFiles.clear();
+            knownFiles.putAll(initial);
+            synchronized (pendingPaths) {
+                // The listing may already include these changes: make sure the flush reports them,
+                // as changed if the file is there and as removed if it isn't
+                for (String path : pendingPaths) {
+                    if (initial.containsKey(path)) {
+                        knownFiles.remove(path);
+                    } else {
+                        knownFiles.put(path, new long[]{-1, -1});
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop watching and release the watch service
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Error closing watch service: " + e.getMessage());
+            }
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void watchLoop() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost, fall back to comparing the whole directory
+                    scheduler.execute(this::sweep);
+                    continue;
+                }
+
+                Path name = (Path) event.context();
+                if (name != null && name.toString().toLowerCase().endsWith(extension)) {
+                    queuePath(new File(directory, name.toString()).getAbsolutePath());
+                }
+            }
+
+            if (!key.reset()) {
+                System.err.println("Designs directory is no longer accessible: " + directory);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Report a file to the listener again after the debounce period, even if it hasn't changed.
+     * For listeners that found a file they couldn't read yet, e.g. one still being written.
+     * @param file The project file
+     */
+    public void retry(File file) {
+        String path = file.getAbsolutePath();
+        synchronized (knownFiles) {
+            // Still known, so a deletion is reported, but never matching the file's stamp
+            if (knownFiles.containsKey(path)) {
+                knownFiles.put(path, new long[]{-1, -1});
+            }
+        }
+        queuePath(path);
+    }
+
+    private void queuePath(String path) {
+        synchronized (pendingPaths) {
+            long now = System.currentTimeMillis();
+            if (pendingPaths.isEmpty()) {
+                firstPendingTime = now;
+            }
+            pendingPaths.add(path);
+            lastEventTime = now;
+
+            if (pendingFlush == null && running) {
+                pendingFlush = scheduler.schedule(this::flush, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<String> paths;
+        synchronized (pendingPaths) {
+            long now = System.currentTimeMillis();
+            long quietFor = now - lastEventTime;
+            if (quietFor < DEBOUNCE_MS && now - firstPendingTime < MAX_DELAY_MS) {
+                // Still receiving events, wait for the burst to settle
+                pendingFlush = scheduler.schedule(this::flush, DEBOUNCE_MS - quietFor, TimeUnit.MILLISECONDS);
+                return;
+            }
+            paths = new ArrayList<>(pendingPaths);
+            pendingPaths.clear();
+            pendingFlush = null;
+        }
+
+        List<File> changed = new ArrayList<>();
+        List<File> removed = new ArrayList<>();
+        synchronized (knownFiles) {
+            for (String path : paths) {
+                File file = new File(path);
+                if (file.isFile()) {
+                    long[] stamp = {file.length(), file.lastModified()};
+                    long[] previous = knownFiles.put(path, stamp);
+                    if (previous == null || previous[0] != stamp[0] || previous[1] != stamp[1]) {
+                        changed.add(file);
+                    }
+                } else if (knownFiles.remove(path) != null) {
+                    removed.add(file);
+                }
+            }
+        }
+
+        try {
+            if (!removed.isEmpty()) listener.projectsRemoved(removed);
+            if (!changed.isEmpty()) listener.projectsChanged(changed);
+        } catch (RuntimeException e) {
+            System.err.println("Error handling designs directory changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compare the directory against the last known sizes and modification times
+     */
+    private void sweep() {
+        if (!running) return;
+
+        Map<String, long[]> current = listFileStamps();
+        Set<String> affected = new HashSet<>();
+        synchronized (knownFiles) {
+            for (Map.Entry<String, long[]> entry : current.entrySet()) {
+                long[] known = knownFiles.get(entry.getKey());
+                if (known == null || known[0] != entry.getValue()[0] || known[1] != entry.getValue()[1]) {
+                    affected.add(entry.getKey());
+                }
+            }
+            for (String path : knownFiles.keySet()) {
+                if (!current.containsKey(path)) {
+                    affected.add(path);
+                }
+            }
+        }
+
+        for (String path : affected) {
+            queuePath(path);
+        }
+    }
+
+    private Map<String, long[]> listFileStamps() {
+        Map<String, long[]> stamps = new HashMap<>();
+        File[] files = directory.listFiles((d, name) -> name.toLowerCase().endsWith(extension));
+        if (files != null) {
+            for (File file : files) {
+                stamps.put(file.getAbsolutePath(), new long[]{file.length(), file.lastModified()});
+            }
+        }
+        return stamps;
+    }
+}
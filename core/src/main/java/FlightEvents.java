@@ -0,0 +1,111 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events for application activity, so a recording taken while a designer
+ * sees stutter shows which frame, pick, texture load, project load or save, or undo lined up
+ * with a GC pause or a blocked thread. Each event's duration is the time the activity took.
+ *
+ * Events cost almost nothing while no recording is running. Record with the tuned profile:
+ * java -XX:StartFlightRecording:settings=desktop/furnishview.jfc,filename=furnishview.jfr ...
+ * or attach to a running app with jcmd <pid> JFR.start settings=desktop/furnishview.jfc.
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "FurnishView";
+
+    private FlightEvents() {}
+
+    @Name("com.furnishview.FrameRendered")
+    @Label("Frame Rendered")
+    @Description("One 3D view redraw; the duration is the time spent issuing its GL calls")
+    @Category({CATEGORY, "Rendering"})
+    @Threshold("16 ms")
+    @StackTrace(false)
+    public static final class FrameRendered extends Event {
+        @Label("Furniture Items")
+        public int itemCount;
+
+        @Label("Textured Items")
+        public int texturedCount;
+    }
+
+    @Name("com.furnishview.PickPerformed")
+    @Label("Pick Performed")
+    @Description("Finding the furniture under the mouse")
+    @Category({CATEGORY, "Rendering"})
+    @StackTrace(false)
+    public static final class PickPerformed extends Event {
+        @Label("Candidates")
+        @Description("Furniture items tested")
+        public int candidateCount;
+
+        @Label("Hit")
+        public boolean hit;
+
+        @Label("Picked Type")
+        public String pickedType;
+    }
+
+    @Name("com.furnishview.TextureLoaded")
+    @Label("Texture Loaded")
+    @Description("Decoding and uploading a texture on first use")
+    @Category({CATEGORY, "Rendering"})
+    public static final class TextureLoaded extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Size")
+        @Description("Size of the image file, or of the raw pixels for bundled textures")
+        @DataAmount
+        public long bytes;
+
+        @Label("From Bundle")
+        public boolean bundled;
+
+        @Label("Succeeded")
+        public boolean success;
+    }
+
+    @Name("com.furnishview.ProjectIO")
+    @Label("Project Loaded or Saved")
+    @Category({CATEGORY, "Projects"})
+    public static final class ProjectIO extends Event {
+        @Label("Operation")
+        @Description("load or save")
+        public String operation;
+
+        @Label("Path")
+        public String path;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("From Cache")
+        @Description("The model was handed over by the ProjectCache without reading the file")
+        public boolean cached;
+
+        @Label("Succeeded")
+        public boolean success;
+    }
+
+    @Name("com.furnishview.UndoRedo")
+    @Label("Undo or Redo Applied")
+    @Category({CATEGORY, "Editing"})
+    @StackTrace(false)
+    public static final class UndoRedo extends Event {
+        @Label("Action")
+        @Description("undo or redo")
+        public String action;
+
+        @Label("Edit")
+        public String edit;
+    }
+}
@@ -0,0 +1,67 @@
+import java.io.Serializable;
+
+/**
+ * One stock-keeping unit: a specific size of a furniture type with its own price.
+ * Instances are immutable so they can be shared between catalog snapshots.
+ */
+public class FurnitureSku implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String skuCode;
+    private final String furnitureType;
+    private final float width;
+    private final float depth;
+    private final float height;
+    private final double price;
+    private final String currency;
+
+    /**
+     * Creates a SKU
+     * @param skuCode The unique SKU code
+     * @param furnitureType The type of furniture (e.g., "Chair", "Sofa")
+     * @param width The width of this variant
+     * @param depth The depth of this variant
+     * @param height The height of this variant
+     * @param price The price of this variant
+     * @param currency The ISO currency code of the price
+     */
+    public FurnitureSku(String skuCode, String furnitureType, float width, float depth, float height,
+                        double price, String currency) {
+        this.skuCode = skuCode;
+        this.furnitureType = furnitureType;
+        this.width = width;
+        this.depth = depth;
+        this.height = height;
+        this.price = price;
+        this.currency = currency;
+    }
+
+    // Getters
+    public String getSkuCode() {
+        return skuCode;
+    }
+
+    public String getFurnitureType() {
+        return furnitureType;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getDepth() {
+        return depth;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+}
@@ -0,0 +1,717 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Manages the furniture inventory and pricing information.
+ * Provides methods to add, update, and retrieve furniture prices.
+ */
+public class InventoryManager {
+    private static final String INVENTORY_FILE = "./inventory.dat";
+    private static final String INVENTORY_LOG_FILE = "./inventory.log";
+    private static final String STOCK_FILE = "./stock.dat";
+    private static final String STOCK_LOG_FILE = "./stock.log";
+    private static final String SKU_FILE = "./skus.dat";
+    private static final String SKU_LOG_FILE = "./skus.log";
+
+    // Master copies of the prices and of the SKUs by SKU code; only touched under priceWriteLock
+    private static final Map<String, FurniturePrice> furniturePrices = new HashMap<>();
+    private static final Map<String, FurnitureSku> skus = new HashMap<>();
+
+    // What readers see. Writers build a new snapshot from the master copies and publish it with one
+    // volatile write, so reads never lock or copy.
+    private static volatile InventorySnapshot snapshot;
+
+    // Price edits are appended to inventory.log in the background and compacted into inventory.dat
+    private static final ChangeJournal<String, FurniturePrice> inventoryJournal =
+            new ChangeJournal<>(new File(INVENTORY_FILE), new File(INVENTORY_LOG_FILE));
+    private static final ChangeJournal<String, FurnitureSku> skuJournal =
+            new ChangeJournal<>(new File(SKU_FILE), new File(SKU_LOG_FILE));
+
+    // Serializes writers and keeps map updates and their log records in the same order
+    private static final Object priceWriteLock = new Object();
+
+    private static final Metrics.Histogram totalPriceTime = Metrics.histogram("pricing.total");
+    private static final Metrics.Histogram breakdownTime = Metrics.histogram("pricing.breakdown");
+
+    // Stock level returned for furniture types whose stock is not tracked
+    public static final int UNTRACKED_STOCK = -1;
+
+    // Units available per furniture type. Reservations update the counters with compare-and-set,
+    // so designs reserve and release concurrently without a shared lock.
+    private static final ConcurrentHashMap<String, AtomicInteger> stockLevels = new ConcurrentHashMap<>();
+
+    // Bumped whenever any stock level changes
+    private static final AtomicLong stockVersion = new AtomicLong();
+
+    // Stock changes are appended to stock.log in the background and compacted into stock.dat,
+    // so reserving never waits for the disk
+    private static final ChangeJournal<String, Integer> stockJournal =
+            new ChangeJournal<>(new File(STOCK_FILE), new File(STOCK_LOG_FILE));
+
+    // Notified after every price change
+    private static final List<PriceChangeListener> priceChangeListeners = new CopyOnWriteArrayList<>();
+
+    // Notified after every stock level change
+    private static final List<StockChangeListener> stockChangeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives notification when furniture prices change
+     */
+    public interface PriceChangeListener {
+        /**
+         * Called on the thread that changed the price, after the change is applied
+         * @param priceVersion The new price version
+         */
+        void pricesChanged(long priceVersion);
+    }
+
+    /**
+     * Receives notification when stock levels change
+     */
+    public interface StockChangeListener {
+        /**
+         * Called on the thread that changed the stock level, after the change is applied
+         * @param stockVersion The new stock version
+         */
+        void stockChanged(long stockVersion);
+    }
+
+    /**
+     * An immutable, consistent view of all furniture prices and SKUs.
+     * The FurniturePrice entries are read-only copies whose setters throw; change prices
+     * through updateFurniturePrices so every reader sees the change in a new snapshot.
+     */
+    public static final class InventorySnapshot {
+        private final Map<String, FurniturePrice> prices;
+        private final VariantCatalog variants;
+        private final long version;
+
+        private InventorySnapshot(Map<String, FurniturePrice> prices, VariantCatalog variants, long version) {
+            this.prices = prices;
+            this.variants = variants;
+            this.version = version;
+        }
+
+        /**
+         * @return Read-only map of furniture type to price entry
+         */
+        public Map<String, FurniturePrice> getPrices() {
+            return prices;
+        }
+
+        /**
+         * @return The SKU index
+         */
+        public VariantCatalog getVariants() {
+            return variants;
+        }
+
+        /**
+         * @return The price version this snapshot was published as
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Price one furniture item against this snapshot
+         * @param furniture The furniture object
+         * @return The price, or 0.0 if price info not found
+         */
+        public double priceOf(Furniture furniture) {
+            FurnitureSku sku = variants.findClosest(furniture.getType(),
+                    furniture.getWidth(), furniture.getDepth(), furniture.getHeight());
+            if (sku != null) return sku.getPrice();
+
+            FurniturePrice priceInfo = prices.get(furniture.getType());
+            if (priceInfo == null) return 0.0;
+
+            return priceInfo.calculatePrice(furniture.getWidth(), furniture.getDepth(), furniture.getHeight());
+        }
+    }
+
+    /**
+     * A price entry that cannot be changed after it is published
+     */
+    private static final class ReadOnlyPrice extends FurniturePrice {
+        private static final long serialVersionUID = 1L;
+
+        ReadOnlyPrice(FurniturePrice price) {
+            super(price.getFurnitureType(), price.getBasePrice(), price.getPricePerUnitVolume());
+            super.setCurrency(price.getCurrency());
+        }
+
+        @Override
+        public void setFurnitureType(String furnitureType) {
+            throw new UnsupportedOperationException("Published prices are read-only");
+        }
+
+        @Override
+        public void setBasePrice(double basePrice) {
+            throw new UnsupportedOperationException("Published prices are read-only");
+        }
+
+        @Override
+        public void setPricePerUnitVolume(double pricePerUnitVolume) {
+            throw new UnsupportedOperationException("Published prices are read-only");
+        }
+
+        @Override
+        public void setCurrency(String currency) {
+            throw new UnsupportedOperationException("Published prices are read-only");
+        }
+    }
+
+    static {
+        for (FurniturePrice price : inventoryJournal.load().values()) {
+            furniturePrices.put(price.getFurnitureType(), new ReadOnlyPrice(price));
+        }
+        try {
+            inventoryJournal.start();
+        } catch (IOException e) {
+            System.err.println("Error opening inventory log: " + e.getMessage());
+        }
+
+        skus.putAll(skuJournal.load());
+        try {
+            skuJournal.start();
+        } catch (IOException e) {
+            System.err.println("Error opening SKU log: " + e.getMessage());
+        }
+
+        // Initialize with default prices if no inventory exists
+        if (furniturePrices.isEmpty()) {
+            initializeDefaultPrices();
+            for (Map.Entry<String, FurniturePrice> entry : furniturePrices.entrySet()) {
+                inventoryJournal.put(entry.getKey(), entry.getValue());
+                entry.setValue(new ReadOnlyPrice(entry.getValue()));
+            }
+        }
+        snapshot = new InventorySnapshot(Collections.unmodifiableMap(new HashMap<>(furniturePrices)),
+                VariantCatalog.build(skus.values()), 0);
+
+        for (Map.Entry<String, Integer> entry : stockJournal.load().entrySet()) {
+            stockLevels.put(entry.getKey(), new AtomicInteger(entry.getValue()));
+        }
+        try {
+            stockJournal.start();
+        } catch (IOException e) {
+            System.err.println("Error opening stock log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Initialize default prices for all furniture types
+     */
+    private static void initializeDefaultPrices() {
+        // Basic furniture
+        furniturePrices.put("Chair", new FurniturePrice("Chair", 25000.00, 25000.00));
+        furniturePrices.put("Sofa", new FurniturePrice("Sofa", 85000.00, 15000.00));
+        furniturePrices.put("Dining Table", new FurniturePrice("Dining Table", 45000.00, 12000.00));
+        furniturePrices.put("Side Table", new FurniturePrice("Side Table", 12500.00, 15000.00));
+        furniturePrices.put("Bed", new FurniturePrice("Bed", 65000.00, 10000.00));
+        furniturePrices.put("Bookshelf", new FurniturePrice("Bookshelf", 35000.00, 8000.00));
+
+        // Seating
+        furniturePrices.put("Armchair", new FurniturePrice("Armchair", 32000.00, 20000.00));
+        furniturePrices.put("Dining Chair", new FurniturePrice("Dining Chair", 18000.00, 22000.00));
+        furniturePrices.put("Office Chair", new FurniturePrice("Office Chair", 22000.00, 18000.00));
+        furniturePrices.put("Stool", new FurniturePrice("Stool", 8500.00, 15000.00));
+        furniturePrices.put("Bench", new FurniturePrice("Bench", 19999.00, 6000.00));
+        furniturePrices.put("Recliner", new FurniturePrice("Recliner", 75000.00, 12500.00));
+        furniturePrices.put("Ottoman", new FurniturePrice("Ottoman", 15000.00, 18000.00));
+
+        // Tables
+        furniturePrices.put("Coffee Table", new FurniturePrice("Coffee Table", 28000.00, 12000.00));
+        furniturePrices.put("Desk", new FurniturePrice("Desk", 42000.00, 9500.00));
+        furniturePrices.put("Console Table", new FurniturePrice("Console Table", 32500.00, 11000.00));
+        furniturePrices.put("End Table", new FurniturePrice("End Table", 8999.00, 9500.00));
+
+        // Storage
+        furniturePrices.put("Wardrobe", new FurniturePrice("Wardrobe", 95000.00, 7500.00));
+        furniturePrices.put("Dresser", new FurniturePrice("Dresser", 55000.00, 9000.00));
+        furniturePrices.put("Filing Cabinet", new FurniturePrice("Filing Cabinet", 19999.00, 6000.00));
+        furniturePrices.put("TV Stand", new FurniturePrice("TV Stand", 24999.00, 7000.00));
+        furniturePrices.put("Chest of Drawers", new FurniturePrice("Chest of Drawers", 48000.00, 8500.00));
+
+        // Beds
+        furniturePrices.put("Twin Bed", new FurniturePrice("Twin Bed", 48000.00, 6000.00));
+        furniturePrices.put("Queen Bed", new FurniturePrice("Queen Bed", 85000.00, 5500.00));
+        furniturePrices.put("King Bed", new FurniturePrice("King Bed", 110000.00, 5000.00));
+        furniturePrices.put("Bunk Bed", new FurniturePrice("Bunk Bed", 78000.00, 7500.00));
+        furniturePrices.put("Murphy Bed", new FurniturePrice("Murphy Bed", 125000.00, 8000.00));
+
+        // Miscellaneous
+        furniturePrices.put("Headboard", new FurniturePrice("Headboard", 22000.00, 6500.00));
+        furniturePrices.put("Crib", new FurniturePrice("Crib", 29999.00, 7000.00));
+        furniturePrices.put("Chaise Lounge", new FurniturePrice("Chaise Lounge", 49999.00, 5000.00));
+        furniturePrices.put("Futon", new FurniturePrice("Futon", 39999.00, 4500.00));
+    }
+
+    /**
+     * Get the price for a specific furniture type
+     * @param furnitureType The type of furniture
+     * @return The read-only FurniturePrice object, or null if not found
+     */
+    public static FurniturePrice getFurniturePrice(String furnitureType) {
+        return snapshot.prices.get(furnitureType);
+    }
+
+    /**
+     * Calculate the price for a specific furniture item.
+     * Types sold in specific sizes are priced as the SKU closest to the item's dimensions;
+     * other types use the base price plus the price per unit volume.
+     * @param furniture The furniture object
+     * @return The calculated price, or 0.0 if price info not found
+     */
+    public static double calculateFurniturePrice(Furniture furniture) {
+        if (furniture == null) return 0.0;
+
+        return snapshot.priceOf(furniture);
+    }
+
+    /**
+     * Calculate the total price for all furniture in a design
+     * @param designModel The design model containing furniture
+     * @return The total price
+     */
+    public static double calculateTotalPrice(DesignModel designModel) {
+        if (designModel == null || designModel.getFurnitureList() == null) return 0.0;
+
+        // Price every item against the same snapshot
+        long start = System.nanoTime();
+        InventorySnapshot current = snapshot;
+        double totalPrice = 0.0;
+        for (Furniture furniture : designModel.getFurnitureList()) {
+            totalPrice += current.priceOf(furniture);
+        }
+
+        totalPriceTime.recordSince(start);
+        return totalPrice;
+    }
+
+    /**
+     * Get a detailed price breakdown for all furniture in a design
+     * @param designModel The design model
+     * @return Map with furniture types as keys and their total prices as values
+     */
+    public static Map<String, Double> getPriceBreakdown(DesignModel designModel) {
+        Map<String, Double> breakdown = new HashMap<>();
+
+        if (designModel == null || designModel.getFurnitureList() == null) {
+            return breakdown;
+        }
+
+        long start = System.nanoTime();
+        InventorySnapshot current = snapshot;
+        for (Furniture furniture : designModel.getFurnitureList()) {
+            String type = furniture.getType();
+            double price = current.priceOf(furniture);
+
+            // Add to existing price if the furniture type already exists
+            if (breakdown.containsKey(type)) {
+                breakdown.put(type, breakdown.get(type) + price);
+            } else {
+                breakdown.put(type, price);
+            }
+        }
+
+        breakdownTime.recordSince(start);
+        return breakdown;
+    }
+
+    /**
+     * Update or add a furniture price entry. The change is written to disk in the background.
+     * @param furnitureType The type of furniture
+     * @param basePrice The base price
+     * @param pricePerUnitVolume The price per unit volume
+     * @return true if successful, false otherwise
+     */
+    public static boolean updateFurniturePrice(String furnitureType, double basePrice, double pricePerUnitVolume) {
+        if (furnitureType == null || furnitureType.isEmpty()) return false;
+
+        return updateFurniturePrices(Collections.singletonList(
+                new FurniturePrice(furnitureType, basePrice, pricePerUnitVolume)));
+    }
+
+    /**
+     * Update or add many furniture price entries at once. Each entry costs one append to the
+     * inventory log, and listeners are notified once for the whole batch.
+     * @param prices The new price entries
+     * @return true if successful, false if any entry has no furniture type
+     */
+    public static boolean updateFurniturePrices(Collection<FurniturePrice> prices) {
+        return updateCatalog(prices, Collections.emptyList());
+    }
+
+    /**
+     * Add or replace SKUs. The SKU index is rebuilt once for the whole batch.
+     * @param newSkus The SKUs, identified by SKU code
+     * @return true if successful, false if any SKU has no code or type
+     */
+    public static boolean updateSkus(Collection<FurnitureSku> newSkus) {
+        return updateCatalog(Collections.emptyList(), newSkus);
+    }
+
+    /**
+     * Apply price entries and SKUs as one change. Readers see either none or all of it,
+     * and listeners are notified once.
+     * @param prices The new price entries
+     * @param newSkus The new SKUs, identified by SKU code
+     * @return true if successful, false if any entry is missing its type or SKU code
+     */
+    public static boolean updateCatalog(Collection<FurniturePrice> prices, Collection<FurnitureSku> newSkus) {
+        for (FurniturePrice price : prices) {
+            if (price.getFurnitureType() == null || price.getFurnitureType().isEmpty()) return false;
+        }
+        for (FurnitureSku sku : newSkus) {
+            if (sku.getSkuCode() == null || sku.getSkuCode().isEmpty()
+                    || sku.getFurnitureType() == null || sku.getFurnitureType().isEmpty()) return false;
+        }
+        if (prices.isEmpty() && newSkus.isEmpty()) return true;
+
+        // Logged in the same order the maps are changed
+        synchronized (priceWriteLock) {
+            // Copied, so the caller's entries can't change a published snapshot
+            for (FurniturePrice price : prices) {
+                furniturePrices.put(price.getFurnitureType(), new ReadOnlyPrice(price));
+                inventoryJournal.put(price.getFurnitureType(), copyOf(price));
+            }
+            for (FurnitureSku sku : newSkus) {
+                skus.put(sku.getSkuCode(), sku);
+                skuJournal.put(sku.getSkuCode(), sku);
+            }
+            publishSnapshot(!prices.isEmpty(), !newSkus.isEmpty());
+        }
+
+        firePricesChanged();
+        return true;
+    }
+
+    /**
+     * @return A plain, writable copy of a price entry, as stored in the inventory log
+     */
+    private static FurniturePrice copyOf(FurniturePrice price) {
+        FurniturePrice copy = new FurniturePrice(price.getFurnitureType(), price.getBasePrice(), price.getPricePerUnitVolume());
+        copy.setCurrency(price.getCurrency());
+        return copy;
+    }
+
+    /**
+     * Remove a SKU
+     * @param skuCode The SKU code
+     * @return true if the SKU existed
+     */
+    public static boolean removeSku(String skuCode) {
+        synchronized (priceWriteLock) {
+            if (skus.remove(skuCode) == null) return false;
+            skuJournal.remove(skuCode);
+            publishSnapshot(false, true);
+        }
+
+        firePricesChanged();
+        return true;
+    }
+
+    /**
+     * Replace the published snapshot. Unchanged parts are carried over without copying.
+     * Must be called with priceWriteLock held.
+     */
+    private static void publishSnapshot(boolean pricesChanged, boolean skusChanged) {
+        InventorySnapshot previous = snapshot;
+        snapshot = new InventorySnapshot(
+                pricesChanged ? Collections.unmodifiableMap(new HashMap<>(furniturePrices)) : previous.prices,
+                skusChanged ? VariantCatalog.build(skus.values()) : previous.variants,
+                previous.version + 1);
+    }
+
+    /**
+     * Get the current prices and SKUs as one consistent view. Never blocks and never copies.
+     * @return The current snapshot; it does not change when prices are updated later
+     */
+    public static InventorySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the current SKU index
+     * @return The variant catalog; it does not change when SKUs are updated later
+     */
+    public static VariantCatalog getVariantCatalog() {
+        return snapshot.variants;
+    }
+
+    /**
+     * Wait until all price changes made so far are on disk
+     * @return true if everything was written
+     */
+    public static boolean flushInventory() {
+        return inventoryJournal.flush() & skuJournal.flush() & stockJournal.flush();
+    }
+
+    /**
+     * Register a listener for price changes
+     * @param listener The listener to add
+     */
+    public static void addPriceChangeListener(PriceChangeListener listener) {
+        priceChangeListeners.add(listener);
+    }
+
+    /**
+     * Unregister a price change listener
+     * @param listener The listener to remove
+     */
+    public static void removePriceChangeListener(PriceChangeListener listener) {
+        priceChangeListeners.remove(listener);
+    }
+
+    /**
+     * Register a listener for stock level changes
+     * @param listener The listener to add
+     */
+    public static void addStockChangeListener(StockChangeListener listener) {
+        stockChangeListeners.add(listener);
+    }
+
+    /**
+     * Unregister a stock change listener
+     * @param listener The listener to remove
+     */
+    public static void removeStockChangeListener(StockChangeListener listener) {
+        stockChangeListeners.remove(listener);
+    }
+
+    private static void firePricesChanged() {
+        long version = snapshot.version;
+        for (PriceChangeListener listener : priceChangeListeners) {
+            try {
+                listener.pricesChanged(version);
+            } catch (RuntimeException e) {
+                System.err.println("Error notifying price change listener: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get the current price version. It changes whenever any furniture price changes.
+     * @return The price version
+     */
+    public static long getPriceVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * Get all furniture prices
+     * @return Read-only map of all furniture prices, as of the call; the entries are read-only too
+     */
+    public static Map<String, FurniturePrice> getAllFurniturePrices() {
+        return snapshot.prices;
+    }
+
+    /**
+     * Get the current stock version. It changes whenever any stock level changes.
+     * @return The stock version
+     */
+    public static long getStockVersion() {
+        return stockVersion.get();
+    }
+
+    /**
+     * Get the number of units in stock for a furniture type
+     * @param furnitureType The type of furniture
+     * @return The units available, or UNTRACKED_STOCK if stock is not tracked for the type
+     */
+    public static int getStockLevel(String furnitureType) {
+        AtomicInteger level = stockLevels.get(furnitureType);
+        return level != null ? level.get() : UNTRACKED_STOCK;
+    }
+
+    /**
+     * Set the number of units in stock for a furniture type. The change from the level the caller
+     * last read is applied as a delta, so reservations made in the meantime are kept.
+     * @param furnitureType The type of furniture
+     * @param expectedUnits The level the caller read, or UNTRACKED_STOCK if the type was not tracked
+     * @param units The units available, or UNTRACKED_STOCK to stop tracking the type
+     * @return true if the level was applied
+     */
+    public static boolean setStockLevel(String furnitureType, int expectedUnits, int units) {
+        if (furnitureType == null || furnitureType.isEmpty()) return false;
+
+        if (units < 0) {
+            AtomicInteger level = stockLevels.get(furnitureType);
+            if (level == null) return true;
+            synchronized (level) {
+                stockLevels.remove(furnitureType, level);
+                stockJournal.remove(furnitureType);
+            }
+            fireStockChanged(stockVersion.incrementAndGet());
+            return true;
+        }
+
+        AtomicInteger created = new AtomicInteger(units);
+        AtomicInteger level = stockLevels.putIfAbsent(furnitureType, created);
+        if (level == null) {
+            level = created;
+        } else {
+            addClamped(level, units - Math.max(expectedUnits, 0));
+        }
+        recordStockLevel(furnitureType, level);
+        return true;
+    }
+
+    /**
+     * Count the furniture items of each type in a design
+     * @param designModel The design
+     * @return Map of furniture type to item count
+     */
+    public static Map<String, Integer> countItemsByType(DesignModel designModel) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (designModel == null || designModel.getFurnitureList() == null) return counts;
+
+        for (Furniture furniture : designModel.getFurnitureList()) {
+            counts.merge(furniture.getType(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Find the furniture types a design needs more of than is in stock.
+     * Reads each counter once without locking, so the answer may be stale by the time it returns.
+     * @param itemCounts Map of furniture type to the number of items needed
+     * @return Map of furniture type to the number of missing units; empty if everything is available
+     */
+    public static Map<String, Integer> findStockShortages(Map<String, Integer> itemCounts) {
+        Map<String, Integer> shortages = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : itemCounts.entrySet()) {
+            AtomicInteger level = stockLevels.get(entry.getKey());
+            if (level == null) continue; // Not tracked
+
+            int missing = entry.getValue() - level.get();
+            if (missing > 0) {
+                shortages.put(entry.getKey(), missing);
+            }
+        }
+        return shortages;
+    }
+
+    /**
+     * Find the furniture types a design needs more of than is in stock
+     * @param designModel The design
+     * @return Map of furniture type to the number of missing units; empty if everything is available
+     */
+    public static Map<String, Integer> findStockShortages(DesignModel designModel) {
+        return findStockShortages(countItemsByType(designModel));
+    }
+
+    /**
+     * Reserve stock for items. Either every tracked type is reserved or nothing is.
+     * @param itemCounts Map of furniture type to the number of items to reserve
+     * @return true if the stock was reserved
+     */
+    public static boolean reserveStock(Map<String, Integer> itemCounts) {
+        List<Map.Entry<AtomicInteger, Integer>> taken = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> entry : itemCounts.entrySet()) {
+            AtomicInteger level = stockLevels.get(entry.getKey());
+            if (level == null) continue; // Not tracked
+
+            int units = entry.getValue();
+            if (!tryTake(level, units)) {
+                // Give back what this call already took
+                for (Map.Entry<AtomicInteger, Integer> done : taken) {
+                    done.getKey().addAndGet(done.getValue());
+                }
+                return false;
+            }
+            taken.add(new AbstractMap.SimpleEntry<>(level, units));
+        }
+
+        for (Map.Entry<String, Integer> entry : itemCounts.entrySet()) {
+            AtomicInteger level = stockLevels.get(entry.getKey());
+            if (level != null) recordStockLevel(entry.getKey(), level);
+        }
+        return true;
+    }
+
+    /**
+     * Reserve stock for every item in a design. Either all tracked items are reserved or none are.
+     * @param designModel The design
+     * @return true if the stock was reserved
+     */
+    public static boolean reserveDesign(DesignModel designModel) {
+        return reserveStock(countItemsByType(designModel));
+    }
+
+    /**
+     * Return previously reserved stock
+     * @param itemCounts Map of furniture type to the number of items to release
+     */
+    public static void releaseStock(Map<String, Integer> itemCounts) {
+        for (Map.Entry<String, Integer> entry : itemCounts.entrySet()) {
+            AtomicInteger level = stockLevels.get(entry.getKey());
+            if (level != null) {
+                level.addAndGet(entry.getValue());
+                recordStockLevel(entry.getKey(), level);
+            }
+        }
+    }
+
+    /**
+     * Return the stock previously reserved for a design
+     * @param designModel The design
+     */
+    public static void releaseDesign(DesignModel designModel) {
+        releaseStock(countItemsByType(designModel));
+    }
+
+    /**
+     * Take units from a counter if enough are available
+     */
+    private static boolean tryTake(AtomicInteger level, int units) {
+        while (true) {
+            int current = level.get();
+            if (current < units) return false;
+            if (level.compareAndSet(current, current - units)) return true;
+        }
+    }
+
+    /**
+     * Add to a counter without taking it below zero
+     */
+    private static void addClamped(AtomicInteger level, int delta) {
+        while (true) {
+            int current = level.get();
+            int next = (int) Math.max(0L, (long) current + delta);
+            if (level.compareAndSet(current, next)) return;
+        }
+    }
+
+    /**
+     * Queue the current value of a stock counter for the stock log. The counter is read and queued
+     * under its own lock, so the last record queued for a type always carries its latest value.
+     * A counter that has stopped being tracked is not written.
+     */
+    private static void recordStockLevel(String furnitureType, AtomicInteger level) {
+        long version = stockVersion.incrementAndGet();
+        synchronized (level) {
+            if (stockLevels.get(furnitureType) == level) {
+                stockJournal.put(furnitureType, level.get());
+            }
+        }
+        fireStockChanged(version);
+    }
+
+    private static void fireStockChanged(long version) {
+        for (StockChangeListener listener : stockChangeListeners) {
+            try {
+                listener.stockChanged(version);
+            } catch (RuntimeException e) {
+                System.err.println("Error notifying stock change listener: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Triangle mesh of an imported furniture model, ready to draw with vertex arrays.
+ * Coordinates are normalized to a unit footprint: x and z span -0.5 to 0.5 and y spans 0 to 1,
+ * so scaling by a furniture item's width, height and depth sizes the model to the item.
+ * Meshes read from the MeshCache are backed directly by the file mapping.
+ */
+public final class Mesh {
+
+    private final String hash;
+    private final FloatBuffer positions;
+    private final FloatBuffer normals;
+    private final IntBuffer indices;
+    private final float width, height, depth;
+
+    Mesh(String hash, FloatBuffer positions, FloatBuffer normals, IntBuffer indices,
+         float width, float height, float depth) {
+        this.hash = hash;
+        this.positions = positions;
+        this.normals = normals;
+        this.indices = indices;
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+    }
+
+    /**
+     * @return The SHA-256 of the model file this mesh was imported from, in hex
+     */
+    public String getHash() { return hash; }
+
+    public int getVertexCount() { return positions.remaining() / 3; }
+    public int getTriangleCount() { return indices.remaining() / 3; }
+
+    /**
+     * @return x, y, z per vertex, in native byte order
+     */
+    public FloatBuffer getPositions() { return positions.duplicate(); }
+
+    /**
+     * @return Unit normal x, y, z per vertex, in native byte order
+     */
+    public FloatBuffer getNormals() { return normals.duplicate(); }
+
+    /**
+     * @return Three vertex indices per triangle, counter-clockwise when seen from outside
+     */
+    public IntBuffer getIndices() { return indices.duplicate(); }
+
+    /**
+     * The size of the model before it was normalized, in the model file's own units.
+     * Only the proportions are meaningful, since files don't agree on units.
+     */
+    public float getWidth() { return width; }
+    public float getHeight() { return height; }
+    public float getDepth() { return depth; }
+}
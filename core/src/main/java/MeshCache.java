@@ -0,0 +1,342 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports furniture models on background threads and keeps the results in a binary cache.
+ * Each model is identified by the SHA-256 of its content; the first import parses,
+ * simplifies and normalizes it and writes "&lt;hash&gt;.mesh" to the cache directory. Any later
+ * import of the same content, from any path, only maps that file into memory, and the mapped
+ * buffers are handed to OpenGL as they are.
+ *
+ * File layout (little-endian, the byte order OpenGL reads vertex arrays in on every platform
+ * JOGL ships for):
+ *   "FVM" + version, vertex count, triangle count, original width, height and depth,
+ *   then 16-byte aligned: positions (3 floats per vertex), normals (3 floats per vertex),
+ *   indices (3 ints per triangle).
+ */
+public class MeshCache {
+
+    // Where cached meshes are stored
+    private static final String CACHE_DIR = "./mesh-cache";
+    private static final String FILE_EXTENSION = ".mesh";
+
+    // Meshes with more triangles than this are simplified on import
+    public static final int DEFAULT_TRIANGLE_BUDGET = 50_000;
+
+    private static final byte[] MAGIC = {'F', 'V', 'M', 1};
+    private static final int HEADER_SIZE = MAGIC.length + 4 + 4 + 12;
+    private static final int DATA_ALIGNMENT = 16;
+
+    // Meshes mapped in this process, by hash
+    private static final Map<String, Mesh> loadedMeshes = new ConcurrentHashMap<>();
+
+    // Imports in progress, by model file path, so concurrent requests share one import
+    private static final Map<String, CompletableFuture<Mesh>> pendingImports = new ConcurrentHashMap<>();
+
+    private static final AtomicLong parseCount = new AtomicLong();
+    private static final Metrics.Counter simplifiedCount = Metrics.counter("mesh.simplified");
+    private static final Metrics.Counter trianglesRemoved = Metrics.counter("mesh.simplified.triangles.removed");
+
+    private static final ExecutorService importExecutor;
+
+    static {
+        AtomicInteger threadNumber = new AtomicInteger();
+        importExecutor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), r -> {
+            Thread t = new Thread(r, "mesh-import-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1); // Stay out of the way of rendering
+            return t;
+        });
+    }
+
+    /**
+     * Import a model file in the background with the default triangle budget
+     * @param modelFile An OBJ, glTF or GLB file
+     * @return Completes with the mesh, or exceptionally with an IOException
+     */
+    public static CompletableFuture<Mesh> importModel(File modelFile) {
+        return importModel(modelFile, DEFAULT_TRIANGLE_BUDGET);
+    }
+
+    /**
+     * Import a model file in the background. If a mesh for the same file content is already
+     * cached the file is only hashed, not parsed.
+     * @param modelFile An OBJ, glTF or GLB file
+     * @param maxTriangles Triangle budget for newly parsed meshes
+     * @return Completes with the mesh, or exceptionally with an IOException
+     */
+    public static CompletableFuture<Mesh> importModel(File modelFile, int maxTriangles) {
+        String key = modelFile.getAbsolutePath();
+        CompletableFuture<Mesh> created = new CompletableFuture<>();
+        CompletableFuture<Mesh> existing = pendingImports.putIfAbsent(key, created);
+        if (existing != null) return existing;
+
+        importExecutor.execute(() -> {
+            try {
+                created.complete(load(modelFile, maxTriangles));
+            } catch (IOException | RuntimeException e) {
+                created.completeExceptionally(e);
+            } finally {
+                pendingImports.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Find a mesh by content hash without parsing anything. A cached mesh that isn't mapped
+     * yet is mapped now, which costs a file open, not a read.
+     * @param hash The model file's SHA-256, in hex
+     * @return The mesh, or null if it isn't cached
+     */
+    public static Mesh find(String hash) {
+        if (hash == null || !isHash(hash)) return null;
+        Mesh mesh = loadedMeshes.get(hash);
+        if (mesh != null) return mesh;
+
+        File file = cacheFile(hash);
+        if (!file.isFile()) return null;
+        try {
+            return map(hash, file);
+        } catch (IOException e) {
+            System.err.println("Discarding unreadable cached mesh " + file.getName() + ": " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Find a mesh already mapped by this process, without looking at the cache directory
+     * @param hash The content hash
+     * @return The mesh, or null if it isn't loaded
+     */
+    public static Mesh findLoaded(String hash) {
+        return hash != null ? loadedMeshes.get(hash) : null;
+    }
+
+    /**
+     * @return The number of model files parsed by this process, as opposed to found in the cache
+     */
+    public static long getParseCount() {
+        return parseCount.get();
+    }
+
+    private static Mesh load(File modelFile, int maxTriangles) throws IOException {
+        String hash = hashFile(modelFile);
+        Mesh cached = find(hash);
+        if (cached != null) return cached;
+
+        parseCount.incrementAndGet();
+        MeshImporter.RawMesh raw = MeshImporter.read(modelFile);
+        MeshImporter.RawMesh simplified = MeshSimplifier.simplify(raw, maxTriangles);
+        if (simplified != raw) {
+            simplifiedCount.increment();
+            trianglesRemoved.add(raw.getTriangleCount() - simplified.getTriangleCount());
+        }
+
+        File file = cacheFile(hash);
+        write(simplified, file);
+        return map(hash, file);
+    }
+
+    /**
+     * Normalize a mesh to the unit footprint, compute its normals and write it atomically
+     */
+    private static void write(MeshImporter.RawMesh mesh, File file) throws IOException {
+        float[] p = mesh.positions;
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = 0; i < p.length; i += 3) {
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], p[i + axis]);
+                max[axis] = Math.max(max[axis], p[i + axis]);
+            }
+        }
+        float[] size = new float[3];
+        float[] positions = new float[p.length];
+        for (int axis = 0; axis < 3; axis++) {
+            size[axis] = max[axis] - min[axis];
+            float scale = size[axis] > 0 ? 1f / size[axis] : 0f;
+            // Centre x and z on the origin and stand the model on y = 0
+            float offset = axis == 1 ? 0f : 0.5f;
+            for (int i = axis; i < p.length; i += 3) {
+                positions[i] = (p[i] - min[axis]) * scale - offset;
+            }
+        }
+        float[] normals = computeNormals(positions, mesh.indices);
+
+        int vertexCount = mesh.getVertexCount();
+        int triangleCount = mesh.getTriangleCount();
+        long positionsOffset = align(HEADER_SIZE);
+        long normalsOffset = align(positionsOffset + vertexCount * 12L);
+        long indicesOffset = align(normalsOffset + vertexCount * 12L);
+        long fileSize = indicesOffset + triangleCount * 12L;
+        if (fileSize > Integer.MAX_VALUE) throw new IOException("Mesh is too large to cache");
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(vertexCount);
+        buffer.putInt(triangleCount);
+        buffer.putFloat(size[0]).putFloat(size[1]).putFloat(size[2]);
+        buffer.position((int) positionsOffset);
+        buffer.asFloatBuffer().put(positions);
+        buffer.position((int) normalsOffset);
+        buffer.asFloatBuffer().put(normals);
+        buffer.position((int) indicesOffset);
+        buffer.asIntBuffer().put(mesh.indices);
+        buffer.position(0);
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(dir.toPath());
+        File tempFile = File.createTempFile("mesh", ".tmp", dir);
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Area-weighted vertex normals: each triangle adds its unnormalized face normal to its corners
+     */
+    private static float[] computeNormals(float[] positions, int[] indices) {
+        float[] normals = new float[positions.length];
+        for (int i = 0; i < indices.length; i += 3) {
+            int a = indices[i] * 3, b = indices[i + 1] * 3, c = indices[i + 2] * 3;
+            float ux = positions[b] - positions[a], uy = positions[b + 1] - positions[a + 1], uz = positions[b + 2] - positions[a + 2];
+            float vx = positions[c] - positions[a], vy = positions[c + 1] - positions[a + 1], vz = positions[c + 2] - positions[a + 2];
+            float nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+            for (int corner : new int[]{a, b, c}) {
+                normals[corner] += nx;
+                normals[corner + 1] += ny;
+                normals[corner + 2] += nz;
+            }
+        }
+        for (int i = 0; i < normals.length; i += 3) {
+            float length = (float) Math.sqrt(normals[i] * normals[i] + normals[i + 1] * normals[i + 1] + normals[i + 2] * normals[i + 2]);
+            if (length > 0) {
+                normals[i] /= length;
+                normals[i + 1] /= length;
+                normals[i + 2] /= length;
+            } else {
+                normals[i + 1] = 1f;
+            }
+        }
+        return normals;
+    }
+
+    private static Mesh map(String hash, File file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (mapped.capacity() < HEADER_SIZE || mapped.get(i) != MAGIC[i]) {
+                throw new IOException("Not a cached mesh");
+            }
+        }
+        int vertexCount = mapped.getInt(4);
+        int triangleCount = mapped.getInt(8);
+        float width = mapped.getFloat(12), height = mapped.getFloat(16), depth = mapped.getFloat(20);
+
+        long positionsOffset = align(HEADER_SIZE);
+        long normalsOffset = align(positionsOffset + vertexCount * 12L);
+        long indicesOffset = align(normalsOffset + vertexCount * 12L);
+        if (vertexCount < 0 || triangleCount < 0 || indicesOffset + triangleCount * 12L != mapped.capacity()) {
+            throw new IOException("Corrupt cached mesh");
+        }
+
+        // Checked once here so drawing can index the vertex arrays without bounds checks
+        IntBuffer indices = slice(mapped, indicesOffset, triangleCount * 12L).asIntBuffer();
+        for (int i = 0; i < indices.limit(); i++) {
+            int index = indices.get(i);
+            if (index < 0 || index >= vertexCount) {
+                throw new IOException("Corrupt cached mesh: vertex index " + index + " out of range");
+            }
+        }
+
+        Mesh mesh = new Mesh(hash,
+                slice(mapped, positionsOffset, vertexCount * 12L).asFloatBuffer(),
+                slice(mapped, normalsOffset, vertexCount * 12L).asFloatBuffer(),
+                indices,
+                width, height, depth);
+        Mesh existing = loadedMeshes.putIfAbsent(hash, mesh);
+        return existing != null ? existing : mesh;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, long offset, long length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.limit((int) (offset + length));
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long offset) {
+        return (offset + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+    }
+
+    private static File cacheFile(String hash) {
+        return new File(CACHE_DIR, hash + FILE_EXTENSION);
+    }
+
+    private static boolean isHash(String hash) {
+        return hash.length() == 64 && hash.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+
+    /**
+     * SHA-256 of a model's content, including any external glTF buffers, in hex.
+     * Streams the files rather than reading them whole.
+     */
+    private static String hashFile(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        List<File> files = new ArrayList<>();
+        files.add(file);
+        files.addAll(MeshImporter.getDependencies(file));
+
+        byte[] buffer = new byte[1 << 16];
+        for (File part : files) {
+            try (InputStream in = new DigestInputStream(new FileInputStream(part), digest)) {
+                while (in.read(buffer) != -1) {
+                    // Digesting as we read
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,648 @@
+import java.io.*;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Reads the triangles of a furniture model from Wavefront OBJ, glTF 2.0 (.gltf with embedded or
+ * external buffers) or binary glTF (.glb). Only geometry is read: materials, texture coordinates
+ * and file normals are ignored, since items are coloured and textured by the design and normals
+ * are recomputed after simplification. Polygons are split into triangle fans, and glTF node
+ * transforms of the default scene are applied.
+ */
+public class MeshImporter {
+
+    // glTF constants
+    private static final int GLB_MAGIC = 0x46546C67; // "glTF"
+    private static final int GLB_CHUNK_JSON = 0x4E4F534A;
+    private static final int GLB_CHUNK_BIN = 0x004E4942;
+    private static final int MODE_TRIANGLES = 4;
+    private static final int COMPONENT_UNSIGNED_BYTE = 5121;
+    private static final int COMPONENT_UNSIGNED_SHORT = 5123;
+    private static final int COMPONENT_UNSIGNED_INT = 5125;
+    private static final int COMPONENT_FLOAT = 5126;
+
+    // Deepest glTF node hierarchy followed; deeper (or cyclic) hierarchies are rejected
+    private static final int MAX_NODE_DEPTH = 64;
+
+    /**
+     * Geometry as read from a file: x, y, z per vertex and three vertex indices per triangle
+     */
+    public static class RawMesh {
+        final float[] positions;
+        final int[] indices;
+
+        RawMesh(float[] positions, int[] indices) {
+            this.positions = positions;
+            this.indices = indices;
+        }
+
+        public int getVertexCount() { return positions.length / 3; }
+        public int getTriangleCount() { return indices.length / 3; }
+    }
+
+    /**
+     * Check whether a file looks like a model this class can read
+     * @param file The file
+     * @return true for .obj, .gltf and .glb files
+     */
+    public static boolean isSupported(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return name.endsWith(".obj") || name.endsWith(".gltf") || name.endsWith(".glb");
+    }
+
+    /**
+     * Read the triangles of a model file
+     * @param file An OBJ, glTF or GLB file
+     * @return The triangles
+     * @throws IOException If the file can't be read, is malformed or has no triangles
+     */
+    public static RawMesh read(File file) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        RawMesh mesh;
+        if (name.endsWith(".obj")) {
+            mesh = readObj(file);
+        } else if (name.endsWith(".gltf") || name.endsWith(".glb")) {
+            mesh = readGltf(file);
+        } else {
+            throw new IOException("Unsupported model format: " + file.getName());
+        }
+        if (mesh.getTriangleCount() == 0) {
+            throw new IOException("Model has no triangles: " + file.getName());
+        }
+        return mesh;
+    }
+
+    /**
+     * List the other files a model reads its data from, so they can be hashed along with it
+     * @param file The model file
+     * @return The external buffer files of a .gltf model; empty for other formats
+     * @throws IOException If a .gltf file can't be read
+     */
+    public static List<File> getDependencies(File file) throws IOException {
+        if (!file.getName().toLowerCase(Locale.ROOT).endsWith(".gltf")) return Collections.emptyList();
+
+        Map<String, Object> json = asObject(new JsonReader(
+                new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).read());
+        List<File> files = new ArrayList<>();
+        for (Object buffer : list(json, "buffers")) {
+            Map<String, Object> object = asObject(buffer);
+            Object uri = object != null ? object.get("uri") : null;
+            if (uri instanceof String && !((String) uri).startsWith("data:")) {
+                files.add(bufferFile(file, (String) uri));
+            }
+        }
+        return files;
+    }
+
+    // --- Wavefront OBJ ---
+
+    private static RawMesh readObj(File file) throws IOException {
+        FloatList positions = new FloatList(1 << 12);
+        IntList indices = new IntList(1 << 12);
+        int[] face = new int[16];
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                try {
+                    if (line.startsWith("v ") || line.startsWith("v\t")) {
+                        String[] parts = line.split("\\s+");
+                        if (parts.length < 4) throw new IOException("Vertex needs three coordinates");
+                        positions.add(Float.parseFloat(parts[1]));
+                        positions.add(Float.parseFloat(parts[2]));
+                        positions.add(Float.parseFloat(parts[3]));
+                    } else if (line.startsWith("f ") || line.startsWith("f\t")) {
+                        String[] parts = line.split("\\s+");
+                        int corners = parts.length - 1;
+                        if (corners < 3) continue;
+                        if (face.length < corners) face = new int[corners];
+
+                        int vertexCount = positions.size() / 3;
+                        for (int i = 0; i < corners; i++) {
+                            String corner = parts[i + 1];
+                            int slash = corner.indexOf('/');
+                            int index = Integer.parseInt(slash < 0 ? corner : corner.substring(0, slash));
+                            // Indices are 1-based; negative ones count back from the last vertex
+                            index = index < 0 ? vertexCount + index : index - 1;
+                            if (index < 0 || index >= vertexCount) {
+                                throw new IOException("Face refers to missing vertex " + corner);
+                            }
+                            face[i] = index;
+                        }
+                        for (int i = 1; i < corners - 1; i++) {
+                            indices.add(face[0]);
+                            indices.add(face[i]);
+                            indices.add(face[i + 1]);
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException(file.getName() + " line " + lineNumber + ": bad number " + e.getMessage());
+                } catch (IOException e) {
+                    throw new IOException(file.getName() + " line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return new RawMesh(positions.toArray(), indices.toArray());
+    }
+
+    // --- glTF 2.0 ---
+
+    private static RawMesh readGltf(File file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Map<String, Object> json;
+        ByteBuffer binChunk = null;
+
+        ByteBuffer data = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length >= 12 && data.getInt(0) == GLB_MAGIC) {
+            if (data.getInt(4) != 2) throw new IOException("Unsupported binary glTF version " + data.getInt(4));
+            String jsonText = null;
+            int offset = 12;
+            while (offset + 8 <= bytes.length) {
+                int length = data.getInt(offset);
+                int type = data.getInt(offset + 4);
+                if (length < 0 || offset + 8L + length > bytes.length) throw new IOException("Corrupt binary glTF chunk");
+                if (type == GLB_CHUNK_JSON && jsonText == null) {
+                    jsonText = new String(bytes, offset + 8, length, StandardCharsets.UTF_8);
+                } else if (type == GLB_CHUNK_BIN && binChunk == null) {
+                    binChunk = slice(data, offset + 8, length);
+                }
+                offset += 8 + length;
+            }
+            if (jsonText == null) throw new IOException("Binary glTF has no JSON chunk");
+            json = asObject(new JsonReader(jsonText).read());
+        } else {
+            json = asObject(new JsonReader(new String(bytes, StandardCharsets.UTF_8)).read());
+        }
+
+        if (json == null) throw new IOException("glTF JSON is not an object");
+        Map<String, Object> asset = asObject(json.get("asset"));
+        if (asset == null || !String.valueOf(asset.get("version")).startsWith("2")) {
+            throw new IOException("Only glTF 2.0 is supported");
+        }
+
+        // Load every buffer once; buffers without a URI are the binary chunk
+        List<Object> bufferList = list(json, "buffers");
+        ByteBuffer[] buffers = new ByteBuffer[bufferList.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            Map<String, Object> buffer = asObject(bufferList.get(i));
+            String uri = buffer != null ? (String) buffer.get("uri") : null;
+            buffers[i] = uri == null ? binChunk : loadBuffer(file, uri);
+        }
+
+        GltfContext context = new GltfContext(json, buffers);
+        List<Object> scenes = list(json, "scenes");
+        if (scenes.isEmpty()) {
+            // No scene graph: take every mesh as it is
+            for (int i = 0; i < list(json, "meshes").size(); i++) {
+                context.addMesh(i, identity());
+            }
+        } else {
+            int sceneIndex = intValue(json.get("scene"), 0);
+            Map<String, Object> scene = asObject(element(scenes, sceneIndex, "scene"));
+            for (Object node : list(scene, "nodes")) {
+                context.addNode(intValue(node, -1), identity(), 0);
+            }
+        }
+        if (context.skippedPrimitives > 0) {
+            System.err.println("Skipped " + context.skippedPrimitives + " non-triangle primitives in " + file.getName());
+        }
+        return new RawMesh(context.positions.toArray(), context.indices.toArray());
+    }
+
+    /**
+     * Geometry collected while walking a glTF scene
+     */
+    private static class GltfContext {
+        final Map<String, Object> json;
+        final ByteBuffer[] buffers;
+        final FloatList positions = new FloatList(1 << 12);
+        final IntList indices = new IntList(1 << 12);
+        int skippedPrimitives = 0;
+
+        GltfContext(Map<String, Object> json, ByteBuffer[] buffers) {
+            this.json = json;
+            this.buffers = buffers;
+        }
+
+        void addNode(int nodeIndex, double[] parent, int depth) throws IOException {
+            if (depth > MAX_NODE_DEPTH) throw new IOException("glTF node hierarchy is too deep or cyclic");
+            Map<String, Object> node = asObject(element(list(json, "nodes"), nodeIndex, "node"));
+            double[] transform = multiply(parent, localTransform(node));
+
+            if (node.containsKey("mesh")) {
+                addMesh(intValue(node.get("mesh"), -1), transform);
+            }
+            for (Object child : list(node, "children")) {
+                addNode(intValue(child, -1), transform, depth + 1);
+            }
+        }
+
+        void addMesh(int meshIndex, double[] transform) throws IOException {
+            Map<String, Object> mesh = asObject(element(list(json, "meshes"), meshIndex, "mesh"));
+            // A mirroring transform turns triangles inside out, so their winding is reversed
+            boolean mirrored = determinant3(transform) < 0;
+
+            for (Object p : list(mesh, "primitives")) {
+                Map<String, Object> primitive = asObject(p);
+                Map<String, Object> attributes = primitive != null ? asObject(primitive.get("attributes")) : null;
+                if (attributes == null || intValue(primitive.get("mode"), MODE_TRIANGLES) != MODE_TRIANGLES
+                        || !attributes.containsKey("POSITION")) {
+                    skippedPrimitives++;
+                    continue;
+                }
+
+                float[] vertices = readAccessor(intValue(attributes.get("POSITION"), -1), 3);
+                int base = positions.size() / 3;
+                int vertexCount = vertices.length / 3;
+                for (int i = 0; i < vertices.length; i += 3) {
+                    double x = vertices[i], y = vertices[i + 1], z = vertices[i + 2];
+                    positions.add((float) (transform[0] * x + transform[4] * y + transform[8] * z + transform[12]));
+                    positions.add((float) (transform[1] * x + transform[5] * y + transform[9] * z + transform[13]));
+                    positions.add((float) (transform[2] * x + transform[6] * y + transform[10] * z + transform[14]));
+                }
+
+                int[] triangles;
+                if (primitive.containsKey("indices")) {
+                    triangles = readIndices(intValue(primitive.get("indices"), -1));
+                } else {
+                    triangles = new int[vertexCount - vertexCount % 3];
+                    for (int i = 0; i < triangles.length; i++) triangles[i] = i;
+                }
+                for (int i = 0; i + 2 < triangles.length; i += 3) {
+                    int a = triangles[i], b = triangles[i + 1], c = triangles[i + 2];
+                    if (a >= vertexCount || b >= vertexCount || c >= vertexCount || a < 0 || b < 0 || c < 0) {
+                        throw new IOException("glTF primitive refers to missing vertex");
+                    }
+                    indices.add(base + a);
+                    indices.add(mirrored ? base + c : base + b);
+                    indices.add(mirrored ? base + b : base + c);
+                }
+            }
+        }
+
+        /**
+         * Read a FLOAT accessor with the given number of components per element
+         */
+        float[] readAccessor(int accessorIndex, int components) throws IOException {
+            Map<String, Object> accessor = asObject(element(list(json, "accessors"), accessorIndex, "accessor"));
+            if (intValue(accessor.get("componentType"), -1) != COMPONENT_FLOAT) {
+                throw new IOException("Only float vertex positions are supported");
+            }
+            int count = intValue(accessor.get("count"), 0);
+            float[] values = new float[Math.multiplyExact(count, components)];
+            if (!accessor.containsKey("bufferView")) return values; // All zero, as the spec says
+
+            ByteBuffer view = bufferView(accessor, count, components * 4);
+            int stride = stride(accessor, components * 4);
+            for (int i = 0; i < count; i++) {
+                for (int c = 0; c < components; c++) {
+                    values[i * components + c] = view.getFloat(i * stride + c * 4);
+                }
+            }
+            return values;
+        }
+
+        int[] readIndices(int accessorIndex) throws IOException {
+            Map<String, Object> accessor = asObject(element(list(json, "accessors"), accessorIndex, "accessor"));
+            int componentType = intValue(accessor.get("componentType"), -1);
+            int size;
+            switch (componentType) {
+                case COMPONENT_UNSIGNED_BYTE: size = 1; break;
+                case COMPONENT_UNSIGNED_SHORT: size = 2; break;
+                case COMPONENT_UNSIGNED_INT: size = 4; break;
+                default: throw new IOException("Unsupported index type " + componentType);
+            }
+            int count = intValue(accessor.get("count"), 0);
+            ByteBuffer view = bufferView(accessor, count, size);
+            int stride = stride(accessor, size);
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                int at = i * stride;
+                values[i] = size == 1 ? view.get(at) & 0xFF : size == 2 ? view.getShort(at) & 0xFFFF : view.getInt(at);
+            }
+            return values;
+        }
+
+        private int stride(Map<String, Object> accessor, int elementSize) throws IOException {
+            Map<String, Object> view = asObject(element(list(json, "bufferViews"),
+                    intValue(accessor.get("bufferView"), -1), "buffer view"));
+            int stride = intValue(view.get("byteStride"), 0);
+            return stride > 0 ? stride : elementSize;
+        }
+
+        /**
+         * The bytes of an accessor, checked to hold count elements
+         */
+        private ByteBuffer bufferView(Map<String, Object> accessor, int count, int elementSize) throws IOException {
+            Map<String, Object> view = asObject(element(list(json, "bufferViews"),
+                    intValue(accessor.get("bufferView"), -1), "buffer view"));
+            int bufferIndex = intValue(view.get("buffer"), -1);
+            if (bufferIndex < 0 || bufferIndex >= buffers.length || buffers[bufferIndex] == null) {
+                throw new IOException("glTF buffer " + bufferIndex + " is missing");
+            }
+            ByteBuffer buffer = buffers[bufferIndex];
+            long start = (long) intValue(view.get("byteOffset"), 0) + intValue(accessor.get("byteOffset"), 0);
+            long viewEnd = (long) intValue(view.get("byteOffset"), 0) + intValue(view.get("byteLength"), 0);
+            long needed = count == 0 ? 0 : (long) (count - 1) * stride(accessor, elementSize) + elementSize;
+            if (start < 0 || start + needed > viewEnd || viewEnd > buffer.capacity()) {
+                throw new IOException("glTF accessor runs past its buffer");
+            }
+            return slice(buffer, (int) start, (int) (viewEnd - start));
+        }
+    }
+
+    private static ByteBuffer loadBuffer(File gltfFile, String uri) throws IOException {
+        if (uri.startsWith("data:")) {
+            int comma = uri.indexOf(',');
+            if (comma < 0 || !uri.substring(0, comma).endsWith(";base64")) {
+                throw new IOException("Unsupported glTF data URI");
+            }
+            return ByteBuffer.wrap(Base64.getDecoder().decode(uri.substring(comma + 1))).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        File bufferFile = bufferFile(gltfFile, uri);
+        if (!bufferFile.isFile()) throw new IOException("glTF buffer file not found: " + uri);
+        return ByteBuffer.wrap(Files.readAllBytes(bufferFile.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Resolve a buffer URI relative to the .gltf file
+     */
+    private static File bufferFile(File gltfFile, String uri) {
+        return new File(gltfFile.getAbsoluteFile().getParentFile(),
+                URLDecoder.decode(uri.replace("+", "%2B"), StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // --- Column-major 4x4 transforms, as glTF stores them ---
+
+    private static double[] identity() {
+        return new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+    }
+
+    private static double[] localTransform(Map<String, Object> node) {
+        List<Object> matrix = list(node, "matrix");
+        if (matrix.size() == 16) {
+            double[] m = new double[16];
+            for (int i = 0; i < 16; i++) m[i] = doubleValue(matrix.get(i), i % 5 == 0 ? 1 : 0);
+            return m;
+        }
+
+        List<Object> t = list(node, "translation");
+        List<Object> r = list(node, "rotation");
+        List<Object> s = list(node, "scale");
+        double tx = t.size() == 3 ? doubleValue(t.get(0), 0) : 0;
+        double ty = t.size() == 3 ? doubleValue(t.get(1), 0) : 0;
+        double tz = t.size() == 3 ? doubleValue(t.get(2), 0) : 0;
+        double qx = r.size() == 4 ? doubleValue(r.get(0), 0) : 0;
+        double qy = r.size() == 4 ? doubleValue(r.get(1), 0) : 0;
+        double qz = r.size() == 4 ? doubleValue(r.get(2), 0) : 0;
+        double qw = r.size() == 4 ? doubleValue(r.get(3), 1) : 1;
+        double sx = s.size() == 3 ? doubleValue(s.get(0), 1) : 1;
+        double sy = s.size() == 3 ? doubleValue(s.get(1), 1) : 1;
+        double sz = s.size() == 3 ? doubleValue(s.get(2), 1) : 1;
+
+        // T * R * S
+        return new double[]{
+                (1 - 2 * (qy * qy + qz * qz)) * sx, 2 * (qx * qy + qz * qw) * sx, 2 * (qx * qz - qy * qw) * sx, 0,
+                2 * (qx * qy - qz * qw) * sy, (1 - 2 * (qx * qx + qz * qz)) * sy, 2 * (qy * qz + qx * qw) * sy, 0,
+                2 * (qx * qz + qy * qw) * sz, 2 * (qy * qz - qx * qw) * sz, (1 - 2 * (qx * qx + qy * qy)) * sz, 0,
+                tx, ty, tz, 1
+        };
+    }
+
+    private static double[] multiply(double[] a, double[] b) {
+        double[] m = new double[16];
+        for (int col = 0; col < 4; col++) {
+            for (int row = 0; row < 4; row++) {
+                double sum = 0;
+                for (int k = 0; k < 4; k++) sum += a[k * 4 + row] * b[col * 4 + k];
+                m[col * 4 + row] = sum;
+            }
+        }
+        return m;
+    }
+
+    private static double determinant3(double[] m) {
+        return m[0] * (m[5] * m[10] - m[9] * m[6])
+                - m[4] * (m[1] * m[10] - m[9] * m[2])
+                + m[8] * (m[1] * m[6] - m[5] * m[2]);
+    }
+
+    // --- JSON helpers ---
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Map<String, Object> object, String key) {
+        Object value = object != null ? object.get(key) : null;
+        return value instanceof List ? (List<Object>) value : Collections.emptyList();
+    }
+
+    private static Object element(List<Object> list, int index, String what) throws IOException {
+        if (index < 0 || index >= list.size() || !(list.get(index) instanceof Map)) {
+            throw new IOException("glTF " + what + " " + index + " is missing");
+        }
+        return list.get(index);
+    }
+
+    private static int intValue(Object value, int defaultValue) {
+        return value instanceof Double ? (int) (double) (Double) value : defaultValue;
+    }
+
+    private static double doubleValue(Object value, double defaultValue) {
+        return value instanceof Double ? (Double) value : defaultValue;
+    }
+
+    /**
+     * Minimal JSON reader producing Map, List, String, Double, Boolean and null
+     */
+    private static class JsonReader {
+        private final String text;
+        private int pos = 0;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object read() throws IOException {
+            skipBom();
+            Object value = readValue();
+            skipWhitespace();
+            if (pos != text.length()) throw error("Unexpected text after JSON value");
+            return value;
+        }
+
+        private void skipBom() {
+            if (text.startsWith("\uFEFF")) pos = 1;
+        }
+
+        private Object readValue() throws IOException {
+            skipWhitespace();
+            if (pos >= text.length()) throw error("Unexpected end of JSON");
+            char c = text.charAt(pos);
+            switch (c) {
+                case '{': return readObject();
+                case '[': return readArray();
+                case '"': return readString();
+                case 't': expect("true"); return Boolean.TRUE;
+                case 'f': expect("false"); return Boolean.FALSE;
+                case 'n': expect("null"); return null;
+                default: return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() throws IOException {
+            Map<String, Object> object = new HashMap<>();
+            pos++; // {
+            skipWhitespace();
+            if (peek() == '}') { pos++; return object; }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') throw error("Expected a property name");
+                String key = readString();
+                skipWhitespace();
+                if (peek() != ':') throw error("Expected ':'");
+                pos++;
+                object.put(key, readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return object;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+        }
+
+        private List<Object> readArray() throws IOException {
+            List<Object> array = new ArrayList<>();
+            pos++; // [
+            skipWhitespace();
+            if (peek() == ']') { pos++; return array; }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == ']') return array;
+                if (c != ',') throw error("Expected ',' or ']'");
+            }
+        }
+
+        private String readString() throws IOException {
+            pos++; // opening quote
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("Bad unicode escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Bad unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        private Double readNumber() throws IOException {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            try {
+                return Double.valueOf(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Bad number");
+            }
+        }
+
+        private void expect(String word) throws IOException {
+            if (!text.startsWith(word, pos)) throw error("Unexpected token");
+            pos += word.length();
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private char peek() throws IOException {
+            if (pos >= text.length()) throw error("Unexpected end of JSON");
+            return text.charAt(pos);
+        }
+
+        private char next() throws IOException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private IOException error(String message) {
+            return new IOException("Invalid glTF JSON at offset " + pos + ": " + message);
+        }
+    }
+
+    // --- Growable primitive arrays, so large meshes aren't boxed ---
+
+    static class FloatList {
+        private float[] values;
+        private int size = 0;
+
+        FloatList(int capacity) {
+            values = new float[Math.max(capacity, 16)];
+        }
+
+        void add(float value) {
+            if (size == values.length) values = Arrays.copyOf(values, values.length * 2);
+            values[size++] = value;
+        }
+
+        int size() { return size; }
+
+        float[] toArray() { return Arrays.copyOf(values, size); }
+    }
+
+    static class IntList {
+        private int[] values;
+        private int size = 0;
+
+        IntList(int capacity) {
+            values = new int[Math.max(capacity, 16)];
+        }
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, values.length * 2);
+            values[size++] = value;
+        }
+
+        int size() { return size; }
+
+        int[] toArray() { return Arrays.copyOf(values, size); }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/**
+ * Reduces imported meshes to a triangle budget by vertex clustering: the model's bounding box is
+ * cut into a grid of equal cubes, every vertex in a cube is replaced by the cube's average vertex,
+ * and triangles that collapse or end up duplicated are dropped. The grid is coarsened until the
+ * mesh fits the budget. This runs in O(n log n) for n vertices and keeps the overall shape, which
+ * is what furniture seen from across a room needs; fine detail under one cube is lost.
+ */
+public class MeshSimplifier {
+
+    // Each coarsening step shrinks the grid resolution by this factor
+    private static final double COARSEN_FACTOR = 0.8;
+
+    // Cluster ids are packed three to a long when removing duplicate triangles
+    private static final int MAX_PACKED_CLUSTERS = 1 << 21;
+
+    /**
+     * Simplify a mesh to at most a number of triangles
+     * @param mesh The mesh
+     * @param maxTriangles The triangle budget
+     * @return The mesh itself if it is within budget, otherwise a simplified copy
+     */
+    public static MeshImporter.RawMesh simplify(MeshImporter.RawMesh mesh, int maxTriangles) {
+        if (mesh.getTriangleCount() <= maxTriangles) return mesh;
+
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        float[] p = mesh.positions;
+        for (int i = 0; i < p.length; i += 3) {
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], p[i + axis]);
+                max[axis] = Math.max(max[axis], p[i + axis]);
+            }
+        }
+        float extent = Math.max(max[0] - min[0], Math.max(max[1] - min[1], max[2] - min[2]));
+        if (extent <= 0) return mesh;
+
+        // A surface cut by an n^3 grid keeps roughly n^2 triangles, so start just above that
+        int resolution = Math.max(2, (int) Math.ceil(Math.sqrt(maxTriangles)) * 2);
+        while (true) {
+            MeshImporter.RawMesh clustered = cluster(mesh, min, extent / resolution);
+            if (clustered.getTriangleCount() <= maxTriangles || resolution <= 2) {
+                return clustered;
+            }
+            resolution = Math.max(2, (int) (resolution * COARSEN_FACTOR));
+        }
+    }
+
+    private static MeshImporter.RawMesh cluster(MeshImporter.RawMesh mesh, float[] min, float cellSize) {
+        float[] p = mesh.positions;
+        int vertexCount = mesh.getVertexCount();
+
+        // Grid cell of each vertex, as one sortable key
+        long[] keys = new long[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            long x = (long) ((p[v * 3] - min[0]) / cellSize);
+            long y = (long) ((p[v * 3 + 1] - min[1]) / cellSize);
+            long z = (long) ((p[v * 3 + 2] - min[2]) / cellSize);
+            keys[v] = (x << 42) | (y << 21) | z;
+        }
+        long[] cells = Arrays.stream(keys).distinct().sorted().toArray();
+
+        int[] clusterOf = new int[vertexCount];
+        double[] sums = new double[cells.length * 3];
+        int[] counts = new int[cells.length];
+        for (int v = 0; v < vertexCount; v++) {
+            int c = Arrays.binarySearch(cells, keys[v]);
+            clusterOf[v] = c;
+            sums[c * 3] += p[v * 3];
+            sums[c * 3 + 1] += p[v * 3 + 1];
+            sums[c * 3 + 2] += p[v * 3 + 2];
+            counts[c]++;
+        }
+
+        // Remap triangles, dropping collapsed ones
+        int[] indices = mesh.indices;
+        int[] remapped = new int[indices.length];
+        int kept = 0;
+        for (int i = 0; i < indices.length; i += 3) {
+            int a = clusterOf[indices[i]], b = clusterOf[indices[i + 1]], c = clusterOf[indices[i + 2]];
+            if (a == b || b == c || a == c) continue;
+            remapped[kept++] = a;
+            remapped[kept++] = b;
+            remapped[kept++] = c;
+        }
+        remapped = removeDuplicates(remapped, kept, cells.length);
+
+        // Keep only clusters still used, at their average position
+        int[] newIndex = new int[cells.length];
+        Arrays.fill(newIndex, -1);
+        MeshImporter.FloatList positions = new MeshImporter.FloatList(cells.length * 3);
+        int used = 0;
+        for (int i = 0; i < remapped.length; i++) {
+            int c = remapped[i];
+            if (newIndex[c] < 0) {
+                newIndex[c] = used++;
+                positions.add((float) (sums[c * 3] / counts[c]));
+                positions.add((float) (sums[c * 3 + 1] / counts[c]));
+                positions.add((float) (sums[c * 3 + 2] / counts[c]));
+            }
+            remapped[i] = newIndex[c];
+        }
+        return new MeshImporter.RawMesh(positions.toArray(), remapped);
+    }
+
+    /**
+     * Drop triangles with the same corners in the same winding, which clustering often produces
+     */
+    private static int[] removeDuplicates(int[] triangles, int length, int clusterCount) {
+        if (clusterCount > MAX_PACKED_CLUSTERS) return Arrays.copyOf(triangles, length);
+
+        long[] packed = new long[length / 3];
+        for (int t = 0; t < packed.length; t++) {
+            int a = triangles[t * 3], b = triangles[t * 3 + 1], c = triangles[t * 3 + 2];
+            // Rotate the smallest corner first so equal triangles pack equally; winding is kept
+            if (b < a && b < c) { int s = a; a = b; b = c; c = s; }
+            else if (c < a && c < b) { int s = c; c = b; b = a; a = s; }
+            packed[t] = ((long) a << 42) | ((long) b << 21) | c;
+        }
+        Arrays.sort(packed);
+
+        int[] result = new int[length];
+        int count = 0;
+        long mask = MAX_PACKED_CLUSTERS - 1;
+        for (int t = 0; t < packed.length; t++) {
+            if (t > 0 && packed[t] == packed[t - 1]) continue;
+            result[count++] = (int) (packed[t] >>> 42);
+            result[count++] = (int) ((packed[t] >>> 21) & mask);
+            result[count++] = (int) (packed[t] & mask);
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
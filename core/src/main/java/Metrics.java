@@ -0,0 +1,406 @@
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Counters, gauges and latency histograms for the paths where time goes: rendering, picking,
+ * project loads and saves, pricing and dashboard scans.
+ *
+ * Recording is a few atomic adds and takes no locks, so metrics stay on in production.
+ * Once started, a snapshot of every metric is appended as one JSON line to ./metrics/metrics.log
+ * each minute (rolled over at 1 MB, five old files kept), and each metric is readable over JMX
+ * under "com.furnishview:type=Metrics". The file holds what happened during each interval;
+ * JMX shows totals since launch.
+ *
+ * System properties: furnishview.metrics.dir, furnishview.metrics.intervalSeconds,
+ * and furnishview.metrics.enabled=false to record nothing.
+ */
+public final class Metrics {
+
+    private static final String METRICS_DIR = System.getProperty("furnishview.metrics.dir", "./metrics");
+    private static final String LOG_NAME = "metrics.log";
+    private static final long MAX_LOG_BYTES = 1024 * 1024;
+    private static final int KEPT_LOGS = 5;
+    private static final String JMX_DOMAIN = "com.furnishview";
+
+    private static final boolean enabled =
+            !"false".equalsIgnoreCase(System.getProperty("furnishview.metrics.enabled"));
+
+    // Histogram buckets: SUB_BUCKETS per power of two of microseconds, so a bucket is at most
+    // 12.5% wider than its lower bound; the last bucket takes everything over about 70 minutes
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (32 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * Read over JMX for counters
+     */
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    /**
+     * Read over JMX for gauges
+     */
+    public interface GaugeMXBean {
+        double getValue();
+    }
+
+    /**
+     * Read over JMX for histograms; latencies are in milliseconds
+     */
+    public interface HistogramMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP95Millis();
+        double getP99Millis();
+        double getMaxMillis();
+    }
+
+    /**
+     * A count of events
+     */
+    public static final class Counter implements CounterMXBean {
+        private final LongAdder count = new LongAdder();
+        private long lastExported;
+
+        private Counter() {}
+
+        public void increment() {
+            if (enabled) count.increment();
+        }
+
+        public void add(long amount) {
+            if (enabled) count.add(amount);
+        }
+
+        @Override
+        public long getCount() { return count.sum(); }
+    }
+
+    /**
+     * A value read when a snapshot is taken
+     */
+    public static final class Gauge implements GaugeMXBean {
+        private final DoubleSupplier supplier;
+
+        private Gauge(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public double getValue() {
+            try {
+                return supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * A distribution of durations in log-linear buckets. Percentiles are accurate to within a bucket.
+     */
+    public static final class Histogram implements HistogramMXBean {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private long[] lastExported = new long[BUCKET_COUNT];
+
+        private Histogram() {}
+
+        /**
+         * Record the time since a start taken with System.nanoTime()
+         * @param startNanos The start
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * @param nanos A duration in nanoseconds
+         */
+        public void record(long nanos) {
+            if (!enabled || nanos < 0) return;
+            buckets.incrementAndGet(bucketOf(nanos));
+            count.increment();
+            totalNanos.add(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        @Override
+        public long getCount() { return count.sum(); }
+
+        @Override
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+        }
+
+        @Override
+        public double getP50Millis() { return percentile(counts(), 0.50); }
+
+        @Override
+        public double getP95Millis() { return percentile(counts(), 0.95); }
+
+        @Override
+        public double getP99Millis() { return percentile(counts(), 0.99); }
+
+        @Override
+        public double getMaxMillis() { return maxNanos.get() / 1e6; }
+
+        private long[] counts() {
+            long[] counts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return counts;
+        }
+    }
+
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    private static ScheduledExecutorService exporter;
+    private static MBeanServer mbeanServer;
+
+    private Metrics() {}
+
+    /**
+     * @param name A dotted name such as "project.load.failures"
+     * @return The counter with that name, created on first use
+     */
+    public static Counter counter(String name) {
+        Counter counter = counters.get(name);
+        return counter != null ? counter : create(counters, name, Counter::new, CounterMXBean.class);
+    }
+
+    /**
+     * Register a gauge, replacing any gauge of the same name
+     * @param name A dotted name
+     * @param supplier Reads the current value; called from the exporter and JMX threads
+     */
+    public static synchronized void gauge(String name, DoubleSupplier supplier) {
+        Gauge gauge = new Gauge(supplier);
+        gauges.put(name, gauge);
+        if (mbeanServer != null) registerMBean(name, gauge, GaugeMXBean.class);
+    }
+
+    /**
+     * @param name A dotted name such as "render.frame"
+     * @return The histogram with that name, created on first use
+     */
+    public static Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram != null ? histogram : create(histograms, name, Histogram::new, HistogramMXBean.class);
+    }
+
+    /**
+     * Register the metrics with JMX and start writing snapshots to the metrics log.
+     * Metrics created later are registered as they are created. Call once from main.
+     */
+    public static synchronized void start() {
+        if (!enabled || exporter != null) return;
+
+        try {
+            mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            counters.forEach((name, counter) -> registerMBean(name, counter, CounterMXBean.class));
+            gauges.forEach((name, gauge) -> registerMBean(name, gauge, GaugeMXBean.class));
+            histograms.forEach((name, histogram) -> registerMBean(name, histogram, HistogramMXBean.class));
+        } catch (RuntimeException | Error e) {
+            System.err.println("Metrics are not available over JMX: " + e);
+        }
+
+        long interval = Long.getLong("furnishview.metrics.intervalSeconds", 60);
+        exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-export");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        exporter.scheduleAtFixedRate(Metrics::exportSnapshot, interval, interval, TimeUnit.SECONDS);
+
+        // Keep the last partial interval
+        Runtime.getRuntime().addShutdownHook(new Thread(Metrics::exportSnapshot, "metrics-final-export"));
+    }
+
+    /**
+     * Describe what happened since the previous snapshot, as one JSON object
+     * @return The snapshot
+     */
+    public static synchronized String snapshot() {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"time\":\"").append(Instant.now()).append('"');
+
+        json.append(",\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long total = counter.getCount();
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":").append(total - counter.lastExported);
+            counter.lastExported = total;
+        }
+
+        json.append("},\"gauges\":{");
+        first = true;
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            double value = entry.getValue().getValue();
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":").append(Double.isFinite(value) ? format(value) : "null");
+        }
+
+        json.append("},\"histograms\":{");
+        first = true;
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long[] totals = histogram.counts();
+            long[] interval = new long[BUCKET_COUNT];
+            long count = 0;
+            int highest = -1;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                interval[i] = totals[i] - histogram.lastExported[i];
+                count += interval[i];
+                if (interval[i] > 0) highest = i;
+            }
+            histogram.lastExported = totals;
+            if (count == 0) continue;
+
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":{\"count\":").append(count)
+                    .append(",\"p50Ms\":").append(format(percentile(interval, 0.50)))
+                    .append(",\"p95Ms\":").append(format(percentile(interval, 0.95)))
+                    .append(",\"p99Ms\":").append(format(percentile(interval, 0.99)))
+                    .append(",\"maxMs\":").append(format(bucketUpperNanos(highest) / 1e6))
+                    .append('}');
+        }
+        json.append("}}");
+        return json.toString();
+    }
+
+    private static void exportSnapshot() {
+        try {
+            File dir = new File(METRICS_DIR);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("cannot create " + dir);
+            }
+            File log = new File(dir, LOG_NAME);
+            if (log.length() >= MAX_LOG_BYTES) {
+                roll(dir);
+            }
+            Files.write(log.toPath(), (snapshot() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Shift metrics.log to metrics.log.1, metrics.log.1 to metrics.log.2 and so on, dropping the oldest
+     */
+    private static void roll(File dir) throws IOException {
+        Files.deleteIfExists(new File(dir, LOG_NAME + "." + KEPT_LOGS).toPath());
+        for (int i = KEPT_LOGS - 1; i >= 0; i--) {
+            File from = new File(dir, i == 0 ? LOG_NAME : LOG_NAME + "." + i);
+            if (from.exists()) {
+                Files.move(from.toPath(), new File(dir, LOG_NAME + "." + (i + 1)).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Create a metric under the class lock, so each name gets one metric and one MBean
+     */
+    private static synchronized <T extends I, I> T create(Map<String, T> metrics, String name,
+                                                          Supplier<T> factory, Class<I> type) {
+        T metric = metrics.get(name);
+        if (metric == null) {
+            metric = factory.get();
+            metrics.put(name, metric);
+            if (mbeanServer != null) registerMBean(name, metric, type);
+        }
+        return metric;
+    }
+
+    private static <I> void registerMBean(String name, I metric, Class<I> type) {
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Metrics,name=" + ObjectName.quote(name));
+            if (mbeanServer.isRegistered(objectName)) {
+                mbeanServer.unregisterMBean(objectName);
+            }
+            mbeanServer.registerMBean(new StandardMBean(metric, type, true), objectName);
+        } catch (Exception e) {
+            System.err.println("Could not register metric " + name + " with JMX: " + e.getMessage());
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        int bucket = (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @return The largest duration that falls in a bucket, in nanoseconds
+     */
+    private static long bucketUpperNanos(int bucket) {
+        if (bucket < SUB_BUCKETS) return (bucket + 1) * 1000L;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lowerMicros = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+        return (lowerMicros + (1L << (exponent - SUB_BUCKET_BITS))) * 1000L;
+    }
+
+    /**
+     * @return The upper bound of the bucket holding the given quantile, in milliseconds
+     */
+    private static double percentile(long[] counts, double quantile) {
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return bucketUpperNanos(i) / 1e6;
+        }
+        return bucketUpperNanos(counts.length - 1) / 1e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
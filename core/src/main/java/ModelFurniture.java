@@ -0,0 +1,35 @@
+import java.io.File;
+
+/**
+ * Furniture drawn from an imported OBJ or glTF model instead of one of the built-in shapes.
+ * The type is still a library type, so pricing, plans and quotes treat it like any other piece.
+ * The mesh is found in the MeshCache by the model file's content hash; the source path is kept
+ * so the mesh can be imported again on a machine whose cache doesn't have it.
+ */
+class ModelFurniture extends Furniture {
+    private static final long serialVersionUID = 1L;
+    private final String modelHash;
+    private final String modelPath;
+
+    public ModelFurniture(String type, Vector3f position, float width, float depth, float height,
+                          String modelHash, String modelPath) {
+        super(type, position, width, depth, height);
+        this.modelHash = modelHash;
+        this.modelPath = modelPath;
+    }
+
+    /**
+     * @return The SHA-256 of the model file, in hex
+     */
+    public String getModelHash() { return modelHash; }
+
+    /**
+     * @return The path the model was imported from
+     */
+    public String getModelPath() { return modelPath; }
+
+    /**
+     * @return The model file's name, for display
+     */
+    public String getModelName() { return new File(modelPath).getName(); }
+}
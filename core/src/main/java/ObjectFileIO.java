@@ -0,0 +1,391 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes serialized objects (projects, users, inventory) with optional block compression.
+ * Compressed files start with a small header so files written by older versions, which are plain
+ * ObjectOutputStream data, still load unchanged.
+ */
+public class ObjectFileIO {
+
+    // Header written in front of compressed files: "FVZ" + format version
+    private static final byte[] MAGIC = {'F', 'V', 'Z', 1};
+
+    // Codec identifiers stored in the header
+    private static final int CODEC_NONE = 0;
+    private static final int CODEC_DEFLATE = 1;
+
+    // Uncompressed bytes per block
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    // Compression can be switched off with -Dfurnishview.compression=none
+    private static volatile boolean compressionEnabled =
+            !"none".equalsIgnoreCase(System.getProperty("furnishview.compression", "deflate"));
+
+    /**
+     * Enable or disable compression for files written from now on
+     * @param enabled true to write compressed files
+     */
+    public static void setCompressionEnabled(boolean enabled) {
+        compressionEnabled = enabled;
+    }
+
+    /**
+     * @return true if newly written files are compressed
+     */
+    public static boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Serialize an object to a file using the current compression setting
+     * @param file The destination file
+     * @param obj The object to write
+     * @throws IOException If writing fails
+     */
+    public static void writeObject(File file, Object obj) throws IOException {
+        writeObject(file, obj, compressionEnabled);
+    }
+
+    /**
+     * Serialize an object to a file. The object is written to a temporary file in the same directory,
+     * synced, and renamed over the destination, so a crash or exit mid-write leaves the old file intact.
+     * The directory is synced too, so the new file has replaced the old one on disk when this returns.
+     * @param file The destination file
+     * @param obj The object to write
+     * @param compress true to write a compressed file
+     * @throws IOException If writing fails
+     */
+    public static void writeObject(File file, Object obj, boolean compress) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile(file.getName() + ".", ".tmp", parent);
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                writeObject(out, obj, compress);
+                out.getChannel().force(true);
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(parent);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Make a rename in a directory durable. Windows can't open directories, and there the rename
+     * is already durable once the call returns, so failures are ignored.
+     * @param directory The directory
+     */
+    public static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Not supported on this platform
+        }
+    }
+
+    /**
+     * Serialize an object to a stream. The stream is finished but not closed.
+     * @param out The destination stream
+     * @param obj The object to write
+     * @param compress true to write compressed data
+     * @throws IOException If writing fails
+     */
+    public static void writeObject(OutputStream out, Object obj, boolean compress) throws IOException {
+        if (!compress) {
+            ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(out, BLOCK_SIZE));
+            oos.writeObject(obj);
+            oos.flush();
+            return;
+        }
+
+        out.write(MAGIC);
+        out.write(CODEC_DEFLATE);
+        BlockCompressedOutputStream blockOut = new BlockCompressedOutputStream(out);
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(blockOut);
+            oos.writeObject(obj);
+            oos.flush();
+            blockOut.finish();
+        } finally {
+            blockOut.end();
+        }
+    }
+
+    /**
+     * Read an object from a file written either by this class or by a plain ObjectOutputStream
+     * @param file The file to read
+     * @return The deserialized object
+     * @throws IOException If reading fails
+     * @throws ClassNotFoundException If the object's class is unknown
+     */
+    public static Object readObject(File file) throws IOException, ClassNotFoundException {
+        try (InputStream in = new FileInputStream(file)) {
+            return readObject(in);
+        }
+    }
+
+    /**
+     * Read an object from a stream written either by this class or by a plain ObjectOutputStream
+     * @param in The source stream
+     * @return The deserialized object
+     * @throws IOException If reading fails
+     * @throws ClassNotFoundException If the object's class is unknown
+     */
+    public static Object readObject(InputStream in) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(openDecodedStream(in))) {
+            return ois.readObject();
+        }
+    }
+
+    /**
+     * Wrap a stream so that it yields the uncompressed serialized bytes, detecting the format from the header
+     * @param in The raw file stream
+     * @return A stream positioned at the start of the ObjectOutputStream data
+     * @throws IOException If the header is unreadable or names an unknown codec
+     */
+    public static InputStream openDecodedStream(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BLOCK_SIZE);
+        buffered.mark(MAGIC.length + 1);
+
+        byte[] header = new byte[MAGIC.length];
+        int read = readFully(buffered, header);
+        if (read < MAGIC.length || !isMagic(header)) {
+            // Legacy uncompressed file
+            buffered.reset();
+            return buffered;
+        }
+
+        int codec = buffered.read();
+        switch (codec) {
+            case CODEC_NONE:
+                return buffered;
+            case CODEC_DEFLATE:
+                return new BlockCompressedInputStream(buffered);
+            default:
+                throw new IOException("Unknown compression codec in file header: " + codec);
+        }
+    }
+
+    /**
+     * Check whether a file carries the compressed header
+     * @param file The file to check
+     * @return true if the file was written compressed
+     */
+    public static boolean isCompressed(File file) {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = new byte[MAGIC.length + 1];
+            return readFully(in, header) == header.length && isMagic(header) && header[MAGIC.length] == CODEC_DEFLATE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isMagic(byte[] header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int n = in.read(buffer, total, buffer.length - total);
+            if (n < 0) break;
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Splits the stream into fixed-size blocks, each written as
+     * [raw length][stored length][bytes]. Blocks that don't shrink are stored as-is.
+     * A zero raw length marks the end of the stream.
+     */
+    private static class BlockCompressedOutputStream extends FilterOutputStream {
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[BLOCK_SIZE + BLOCK_SIZE / 10 + 64];
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final DataOutputStream dataOut;
+        private int count = 0;
+        private boolean finished = false;
+
+        BlockCompressedOutputStream(OutputStream out) {
+            super(out);
+            this.dataOut = new DataOutputStream(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == block.length) flushBlock();
+            block[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == block.length) flushBlock();
+                int n = Math.min(len, block.length - count);
+                System.arraycopy(b, off, block, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Blocks are only emitted when full or on finish() so the ratio isn't hurt by small flushes
+            dataOut.flush();
+        }
+
+        private void flushBlock() throws IOException {
+            if (count == 0) return;
+
+            deflater.reset();
+            deflater.setInput(block, 0, count);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished() && compressedLength < compressed.length) {
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+
+            dataOut.writeInt(count);
+            if (deflater.finished() && compressedLength < count) {
+                dataOut.writeInt(compressedLength);
+                dataOut.write(compressed, 0, compressedLength);
+            } else {
+                // Incompressible block, store raw
+                dataOut.writeInt(count);
+                dataOut.write(block, 0, count);
+            }
+            count = 0;
+        }
+
+        void finish() throws IOException {
+            if (finished) return;
+            try {
+                flushBlock();
+                dataOut.writeInt(0);
+                dataOut.flush();
+            } finally {
+                end();
+            }
+        }
+
+        /**
+         * Release the deflater without writing anything. Safe to call more than once.
+         */
+        void end() {
+            deflater.end();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the block format produced by BlockCompressedOutputStream.
+     */
+    private static class BlockCompressedInputStream extends InputStream {
+        private final DataInputStream dataIn;
+        private final Inflater inflater = new Inflater();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[BLOCK_SIZE];
+        private int position = 0;
+        private int limit = 0;
+        private boolean endOfStream = false;
+
+        BlockCompressedInputStream(InputStream in) {
+            this.dataIn = new DataInputStream(in);
+        }
+
+        private boolean fillBlock() throws IOException {
+            if (endOfStream) return false;
+
+            int rawLength = dataIn.readInt();
+            if (rawLength == 0) {
+                endOfStream = true;
+                return false;
+            }
+            int storedLength = dataIn.readInt();
+            if (rawLength < 0 || storedLength < 0 || storedLength > rawLength) {
+                throw new IOException("Corrupt compressed block header");
+            }
+            // The writer never emits larger blocks; don't let a corrupt header size the buffers
+            if (rawLength > BLOCK_SIZE) {
+                throw new IOException("Compressed block larger than " + BLOCK_SIZE + " bytes: " + rawLength);
+            }
+
+            if (storedLength == rawLength) {
+                dataIn.readFully(block, 0, rawLength);
+            } else {
+                dataIn.readFully(compressed, 0, storedLength);
+                inflater.reset();
+                inflater.setInput(compressed, 0, storedLength);
+                try {
+                    int produced = 0;
+                    while (produced < rawLength && !inflater.finished()) {
+                        int n = inflater.inflate(block, produced, rawLength - produced);
+                        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                        produced += n;
+                    }
+                    if (produced != rawLength) throw new IOException("Truncated compressed block");
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupt compressed block: " + e.getMessage(), e);
+                }
+            }
+
+            position = 0;
+            limit = rawLength;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position >= limit && !fillBlock()) return -1;
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (position >= limit && !fillBlock()) return -1;
+            int n = Math.min(len, limit - position);
+            System.arraycopy(block, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            dataIn.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashing.
+ * Hashes are stored as "pbkdf2-sha256$iterations$salt$hash" with Base64 salt and hash, so each
+ * record carries the cost it was made with and older records still verify after the cost changes.
+ * Hashing is deliberately slow; call it off the EDT.
+ */
+public class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    // Iteration count used until an administrator sets another
+    public static final int DEFAULT_ITERATIONS = 310_000;
+
+    // Bounds accepted for the iteration count
+    public static final int MIN_ITERATIONS = 10_000;
+    public static final int MAX_ITERATIONS = 10_000_000;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Hash a password with a fresh random salt
+     * @param password The password
+     * @param iterations The PBKDF2 iteration count
+     * @return The encoded hash
+     */
+    public static String hash(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations, HASH_BITS);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Check a password against an encoded hash. The comparison takes the same time
+     * wherever the first difference is.
+     * @param password The password to check
+     * @param encoded The encoded hash
+     * @return true if the password matches
+     */
+    public static boolean verify(String password, String encoded) {
+        String[] parts = encoded != null ? encoded.split("\\$") : new String[0];
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) return false;
+
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (iterations < 1 || expected.length == 0) return false;
+
+            byte[] actual = pbkdf2(password, salt, iterations, expected.length * 8);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Malformed password hash: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Check whether a stored password is a hash made by this class
+     * @param stored The stored password
+     * @return true if it is a hash, false if it is a legacy plain-text password
+     */
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    /**
+     * Get the iteration count a hash was made with
+     * @param encoded The encoded hash
+     * @return The iteration count, or 0 if the value is not a valid hash
+     */
+    public static int getIterations(String encoded) {
+        if (!isHash(encoded)) return 0;
+
+        String[] parts = encoded.split("\\$");
+        try {
+            return parts.length == 4 ? Integer.parseInt(parts[1]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            // Every Java 8+ runtime provides this algorithm
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
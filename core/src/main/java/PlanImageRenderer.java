@@ -0,0 +1,152 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Draws a top-down plan of a design with Java2D: the room outline filled with its floor colour,
+ * and each furniture footprint in its own colour, rotated as placed. Uses only off-screen images,
+ * so it works with java.awt.headless=true and from any thread.
+ */
+public class PlanImageRenderer {
+
+    // Empty space around the room, in pixels
+    private static final int MARGIN = 16;
+
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color OUTLINE = Color.DARK_GRAY;
+
+    /**
+     * Render a design's plan as a PNG
+     * @param model The design
+     * @param size The width and height of the image in pixels
+     * @return The PNG bytes
+     * @throws IOException If encoding fails
+     */
+    public static byte[] renderPng(DesignModel model, int size) throws IOException {
+        BufferedImage image = render(model, size);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Render a design's plan
+     * @param model The design
+     * @param size The width and height of the image in pixels
+     * @return The image
+     */
+    public static BufferedImage render(DesignModel model, int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, size, size);
+
+            Room room = model.getRoom();
+            if (room == null) return image;
+
+            // Scale the room's bounding box (x right, z down) to fit inside the margins
+            Shape floor = floorShape(room);
+            Rectangle2D bounds = floor.getBounds2D();
+            double extent = Math.max(bounds.getWidth(), bounds.getHeight());
+            if (extent <= 0) return image;
+
+            double scale = (size - 2 * MARGIN) / extent;
+            AffineTransform toImage = new AffineTransform();
+            toImage.translate(size / 2.0, size / 2.0);
+            toImage.scale(scale, scale);
+            toImage.translate(-bounds.getCenterX(), -bounds.getCenterY());
+
+            Shape floorOnImage = toImage.createTransformedShape(floor);
+            g.setColor(room.getFloorColor() != null ? room.getFloorColor() : Color.LIGHT_GRAY);
+            g.fill(floorOnImage);
+
+            if (model.getFurnitureList() != null) {
+                for (Furniture furniture : model.getFurnitureList()) {
+                    Shape footprint = toImage.createTransformedShape(footprint(furniture));
+                    Color color = furniture.getColor() != null ? furniture.getColor() : Color.GRAY;
+                    g.setColor(color);
+                    g.fill(footprint);
+                    g.setColor(color.darker());
+                    g.setStroke(new BasicStroke(1f));
+                    g.draw(footprint);
+                }
+            }
+
+            g.setColor(OUTLINE);
+            g.setStroke(new BasicStroke(2f));
+            g.draw(floorOnImage);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * The floor outline in room coordinates, matching the 2D outlines drawn by the renderer
+     */
+    private static Shape floorShape(Room room) {
+        switch (room.getShape()) {
+            case CIRCULAR: {
+                float r = room.getRadius();
+                return new Ellipse2D.Float(-r, -r, 2 * r, 2 * r);
+            }
+            case L_SHAPED: {
+                float oW = room.getL_outerWidth(), oL = room.getL_outerLength();
+                float iW = room.getL_insetWidth(), iL = room.getL_insetLength();
+                Path2D.Float path = new Path2D.Float();
+                path.moveTo(0, 0);
+                path.lineTo(oW, 0);
+                path.lineTo(oW, iL);
+                path.lineTo(iW, iL);
+                path.lineTo(iW, oL);
+                path.lineTo(0, oL);
+                path.closePath();
+                return path;
+            }
+            case T_SHAPED: {
+                float bW = room.getT_barWidth(), bL = room.getT_barLength();
+                float sW = room.getT_stemWidth(), sL = room.getT_stemLength();
+                float stemStartX = (bW - sW) / 2.0f;
+                Path2D.Float path = new Path2D.Float();
+                path.moveTo(0, 0);
+                path.lineTo(bW, 0);
+                path.lineTo(bW, bL);
+                path.lineTo(stemStartX + sW, bL);
+                path.lineTo(stemStartX + sW, bL + sL);
+                path.lineTo(stemStartX, bL + sL);
+                path.lineTo(stemStartX, bL);
+                path.lineTo(0, bL);
+                path.closePath();
+                return path;
+            }
+            default:
+                return new Rectangle2D.Float(0, 0, room.getWidth(), room.getLength());
+        }
+    }
+
+    /**
+     * The furniture's footprint centred on its position. A positive rotation about Y turns
+     * x towards -z, which is a negative angle in image coordinates.
+     */
+    private static Shape footprint(Furniture furniture) {
+        Vector3f pos = furniture.getPosition();
+        float w = furniture.getWidth(), d = furniture.getDepth();
+        Shape box = new Rectangle2D.Float(-w / 2, -d / 2, w, d);
+
+        AffineTransform placement = new AffineTransform();
+        placement.translate(pos.x, pos.z);
+        Vector3f rot = furniture.getRotation();
+        if (rot != null && rot.y != 0) {
+            placement.rotate(-Math.toRadians(rot.y));
+        }
+        return placement.createTransformedShape(box);
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the running price total, per-type subtotals and per-type counts of a design up to date
+ * as furniture is added, removed or resized, so readers never have to walk the whole design.
+ * The aggregator rebuilds itself once when inventory prices change.
+ * Not thread-safe; use it from the thread that edits the design (the EDT).
+ */
+public class PriceAggregator {
+
+    /**
+     * Running subtotal and item count for one furniture type
+     */
+    public static class TypeTotal {
+        private final String type;
+        private double subtotal;
+        private int count;
+
+        private TypeTotal(String type) {
+            this.type = type;
+        }
+
+        public String getType() { return type; }
+        public double getSubtotal() { return subtotal; }
+        public int getCount() { return count; }
+    }
+
+    /**
+     * Price currently counted for one furniture item, linked to its type total
+     */
+    private static class PricedItem {
+        final TypeTotal typeTotal;
+        double price;
+
+        PricedItem(TypeTotal typeTotal, double price) {
+            this.typeTotal = typeTotal;
+            this.price = price;
+        }
+    }
+
+    private final DesignModel designModel;
+    private final Map<String, TypeTotal> typeTotals = new HashMap<>();
+    private final Map<Furniture, PricedItem> pricedItems = new IdentityHashMap<>();
+    private double total = 0.0;
+    private long priceVersion = -1;
+    private long modificationCount = 0;
+
+    /**
+     * Create an aggregator for a design and price its current furniture
+     * @param designModel The design to track
+     */
+    public PriceAggregator(DesignModel designModel) {
+        this.designModel = designModel;
+        rebuild();
+    }
+
+    /**
+     * Recompute everything from the design's furniture list
+     */
+    public void rebuild() {
+        typeTotals.clear();
+        pricedItems.clear();
+        total = 0.0;
+        priceVersion = InventoryManager.getPriceVersion();
+
+        List<Furniture> furnitureList = designModel.getFurnitureList();
+        if (furnitureList != null) {
+            for (Furniture furniture : furnitureList) {
+                add(furniture);
+            }
+        }
+        modificationCount++;
+    }
+
+    /**
+     * Account for a furniture item added to the design
+     * @param furniture The added item
+     */
+    public void itemAdded(Furniture furniture) {
+        if (furniture == null || pricedItems.containsKey(furniture)) return;
+        add(furniture);
+        modificationCount++;
+    }
+
+    /**
+     * Account for a furniture item removed from the design
+     * @param furniture The removed item
+     */
+    public void itemRemoved(Furniture furniture) {
+        PricedItem item = pricedItems.remove(furniture);
+        if (item == null) return;
+
+        TypeTotal typeTotal = item.typeTotal;
+        typeTotal.subtotal -= item.price;
+        typeTotal.count--;
+        total -= item.price;
+        if (typeTotal.count == 0) {
+            typeTotals.remove(typeTotal.type);
+        }
+        modificationCount++;
+    }
+
+    /**
+     * Re-price a furniture item whose dimensions changed
+     * @param furniture The resized item
+     */
+    public void itemResized(Furniture furniture) {
+        PricedItem item = pricedItems.get(furniture);
+        if (item == null) return;
+
+        double newPrice = InventoryManager.calculateFurniturePrice(furniture);
+        double delta = newPrice - item.price;
+        item.price = newPrice;
+        item.typeTotal.subtotal += delta;
+        total += delta;
+        modificationCount++;
+    }
+
+    /**
+     * @return The total price of all furniture in the design
+     */
+    public double getTotal() {
+        ensureCurrentPrices();
+        return total;
+    }
+
+    /**
+     * @return The per-type totals of the design (read-only view)
+     */
+    public Collection<TypeTotal> getTypeTotals() {
+        ensureCurrentPrices();
+        return Collections.unmodifiableCollection(typeTotals.values());
+    }
+
+    /**
+     * @return A counter that changes whenever any price-related value changes
+     */
+    public long getModificationCount() {
+        ensureCurrentPrices();
+        return modificationCount;
+    }
+
+    private void add(Furniture furniture) {
+        TypeTotal typeTotal = typeTotals.get(furniture.getType());
+        if (typeTotal == null) {
+            typeTotal = new TypeTotal(furniture.getType());
+            typeTotals.put(furniture.getType(), typeTotal);
+        }
+
+        double price = InventoryManager.calculateFurniturePrice(furniture);
+        typeTotal.subtotal += price;
+        typeTotal.count++;
+        total += price;
+        pricedItems.put(furniture, new PricedItem(typeTotal, price));
+    }
+
+    /**
+     * Rebuild once if inventory prices changed since the totals were computed
+     */
+    private void ensureCurrentPrices() {
+        if (priceVersion != InventoryManager.getPriceVersion()) {
+            rebuild();
+        }
+    }
+}
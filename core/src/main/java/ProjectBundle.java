@@ -0,0 +1,544 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Self-contained project bundle: the design model plus every texture it uses.
+ * Textures are stored once per content hash, already decoded to tightly packed RGBA8 rows,
+ * so opening a bundle maps the file into memory and does no image decoding or scattered file lookups.
+ * Texture paths in the bundled model are rewritten to "bundle:&lt;hash&gt;" references that
+ * TextureManager resolves through {@link #findTexture(String)} while the bundle is open.
+ * Closing the bundle releases the mapping; the owner of the design does that when another design
+ * is loaded or its window closes. Rewriting an open bundle releases and remaps it around the
+ * replace, since Windows won't replace a file that is mapped.
+ *
+ * File layout (big-endian):
+ *   "FVB" + version, texture count,
+ *   per texture: 32-byte SHA-256, width, height, data offset, data length,
+ *   model offset, model length,
+ *   texture pixel data (16-byte aligned), model (ObjectFileIO format).
+ */
+public class ProjectBundle implements Closeable {
+
+    // Default file extension for bundle files
+    public static final String FILE_EXTENSION = ".fvb";
+
+    // Prefix of texture paths that point into an open bundle
+    public static final String TEXTURE_REF_PREFIX = "bundle:";
+
+    private static final byte[] MAGIC = {'F', 'V', 'B', 1};
+    private static final int HASH_LENGTH = 32;
+    private static final int TEXTURE_ENTRY_SIZE = HASH_LENGTH + 4 + 4 + 8 + 8;
+    private static final int DATA_ALIGNMENT = 16;
+
+    // Bundles opened and not yet closed; texture references are resolved against these
+    private static final List<ProjectBundle> openBundles = new CopyOnWriteArrayList<>();
+
+    private final File file;
+    private DesignModel model;
+
+    // The file mapping and the textures in it; null and empty once closed. Guarded by this.
+    private MappedByteBuffer mapped;
+    private Map<String, BundledTexture> textures = Collections.emptyMap();
+
+    // Changes whenever the mapping is released, so textures looked up earlier can't read a stale one
+    private int generation = 0;
+
+    /**
+     * A decoded texture stored in a bundle
+     */
+    public static class BundledTexture {
+        private final String hash;
+        private final int width;
+        private final int height;
+
+        // Decoded textures hold their pixels; textures of an open bundle read them from its mapping
+        private final ByteBuffer pixels;
+        private final ProjectBundle owner;
+        private final long offset;
+        private final int generation;
+
+        private BundledTexture(String hash, int width, int height, ByteBuffer pixels) {
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+            this.owner = null;
+            this.offset = 0;
+            this.generation = 0;
+        }
+
+        private BundledTexture(String hash, int width, int height, ProjectBundle owner, long offset, int generation) {
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+            this.pixels = null;
+            this.owner = owner;
+            this.offset = offset;
+            this.generation = generation;
+        }
+
+        public String getHash() { return hash; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+
+        /**
+         * @return The size of the pixel data in bytes
+         */
+        public long getByteCount() { return (long) width * height * 4; }
+
+        /**
+         * @return A read-only buffer of the RGBA8 pixels, rows top to bottom, or null if the bundle
+         *         holding them has been closed. Pixels of a mapped bundle are copied out of the mapping,
+         *         so the buffer stays valid after the bundle is closed.
+         */
+        public ByteBuffer getPixels() {
+            return owner != null ? owner.copyPixels(this) : pixels.duplicate();
+        }
+    }
+
+    private ProjectBundle(File file) {
+        this.file = file;
+    }
+
+    public File getFile() { return file; }
+
+    /**
+     * @return The model stored in the bundle. Its texture paths are bundle references.
+     */
+    public DesignModel getModel() { return model; }
+
+    /**
+     * @return The number of distinct textures in the bundle, or 0 once it is closed
+     */
+    public synchronized int getTextureCount() { return textures.size(); }
+
+    /**
+     * Release the file mapping. The bundle's texture references no longer resolve afterwards;
+     * textures already uploaded to OpenGL are unaffected.
+     */
+    public void close() {
+        openBundles.remove(this);
+        releaseMapping();
+    }
+
+    /**
+     * Check whether a texture path refers to a bundled texture
+     * @param texturePath The texture path
+     * @return true for "bundle:" references
+     */
+    public static boolean isBundleReference(String texturePath) {
+        return texturePath != null && texturePath.startsWith(TEXTURE_REF_PREFIX);
+    }
+
+    /**
+     * Resolve a "bundle:" texture reference against the bundles opened in this process
+     * @param texturePath The texture reference
+     * @return The texture, or null if no open bundle contains it
+     */
+    public static BundledTexture findTexture(String texturePath) {
+        if (!isBundleReference(texturePath)) return null;
+        String hash = texturePath.substring(TEXTURE_REF_PREFIX.length());
+        for (ProjectBundle bundle : openBundles) {
+            BundledTexture texture = bundle.getTexture(hash);
+            if (texture != null) return texture;
+        }
+        return null;
+    }
+
+    /**
+     * Open a bundle. The file is memory-mapped and its textures become resolvable through
+     * {@link #findTexture(String)} until the bundle is closed.
+     * @param file The bundle file
+     * @return The opened bundle; close it when its design is no longer shown
+     * @throws IOException If the file is not a valid bundle
+     */
+    public static ProjectBundle open(File file) throws IOException {
+        ProjectBundle bundle = new ProjectBundle(file);
+        synchronized (bundle) {
+            try {
+                bundle.model = bundle.mapFile(true);
+            } catch (IOException | RuntimeException e) {
+                bundle.releaseMapping();
+                throw e;
+            }
+        }
+        openBundles.add(bundle);
+        return bundle;
+    }
+
+    private synchronized BundledTexture getTexture(String hash) {
+        return textures.get(hash);
+    }
+
+    /**
+     * Copy a texture's pixels out of the mapping; null if the mapping it was looked up in is gone
+     */
+    private synchronized ByteBuffer copyPixels(BundledTexture texture) {
+        if (mapped == null || texture.generation != generation) return null;
+
+        ByteBuffer copy = ByteBuffer.allocateDirect((int) texture.getByteCount());
+        copy.put(slice(mapped, texture.offset, texture.getByteCount()));
+        copy.flip();
+        return copy.asReadOnlyBuffer();
+    }
+
+    /**
+     * Map the bundle file and index its textures
+     * @param readModel true to also deserialize the model
+     * @return The model, or null if not read
+     */
+    private DesignModel mapFile(boolean readModel) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.BIG_ENDIAN);
+        generation++;
+
+        ByteBuffer header = mapped.duplicate();
+        for (byte b : MAGIC) {
+            if (header.remaining() < 1 || header.get() != b) {
+                throw new IOException("Not a FurnishView bundle: " + file.getName());
+            }
+        }
+
+        if (header.remaining() < 4) throw new IOException("Truncated bundle header in " + file.getName());
+        int textureCount = header.getInt();
+        if (textureCount < 0 || header.remaining() < (long) textureCount * TEXTURE_ENTRY_SIZE + 16) {
+            throw new IOException("Corrupt or truncated bundle header in " + file.getName());
+        }
+
+        Map<String, BundledTexture> textures = new HashMap<>();
+        byte[] hashBytes = new byte[HASH_LENGTH];
+        for (int i = 0; i < textureCount; i++) {
+            header.get(hashBytes);
+            int width = header.getInt();
+            int height = header.getInt();
+            long offset = header.getLong();
+            long length = header.getLong();
+            if (width < 0 || height < 0 || length != (long) width * height * 4 || length > Integer.MAX_VALUE
+                    || offset < 0 || offset + length > mapped.capacity()) {
+                throw new IOException("Corrupt texture entry in bundle " + file.getName());
+            }
+
+            String hash = toHex(hashBytes);
+            textures.put(hash, new BundledTexture(hash, width, height, this, offset, generation));
+        }
+
+        long modelOffset = header.getLong();
+        long modelLength = header.getLong();
+        if (modelOffset < 0 || modelLength < 0 || modelOffset + modelLength > mapped.capacity()) {
+            throw new IOException("Corrupt model section in bundle " + file.getName());
+        }
+        this.textures = textures;
+        if (!readModel) return null;
+
+        try (InputStream in = new ByteBufferInputStream(slice(mapped, modelOffset, modelLength))) {
+            Object obj = ObjectFileIO.readObject(in);
+            if (!(obj instanceof DesignModel)) {
+                throw new IOException("Bundle does not contain a design model");
+            }
+            return (DesignModel) obj;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in bundle: " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized void releaseMapping() {
+        MappedByteBuffer released = mapped;
+        mapped = null;
+        textures = Collections.emptyMap();
+        generation++;
+        if (released != null) unmap(released);
+    }
+
+    /**
+     * Unmap a buffer now rather than when it is garbage collected. Only called once nothing can
+     * read the mapping: every read copies out of it under the bundle's lock.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            java.lang.reflect.Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(field.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left for the garbage collector to unmap
+        }
+    }
+
+    /**
+     * Write a model and all textures it references into a bundle. The model itself isn't modified.
+     * Textures are read from their image files, or from an open bundle for "bundle:" references,
+     * and stored once per content hash. Missing textures keep their original path.
+     * @param model The model to bundle
+     * @param bundleFile The destination file; replaced atomically where the filesystem allows
+     * @return The number of distinct textures written
+     * @throws IOException If writing fails
+     */
+    public static int write(DesignModel model, File bundleFile) throws IOException {
+        // Work on a private copy so the caller's texture paths stay untouched
+        DesignModel copy = copyModel(model);
+
+        Map<String, BundledTexture> textures = new LinkedHashMap<>();
+        Map<String, String> pathToReference = new HashMap<>();
+
+        List<DesignItem> items = new ArrayList<>(copy.getFurnitureList());
+        for (DesignItem item : items) {
+            item.setTexturePath(bundleTexture(item.getTexturePath(), textures, pathToReference));
+        }
+        Room room = copy.getRoom();
+        if (room != null) {
+            room.setWallTexturePath(bundleTexture(room.getWallTexturePath(), textures, pathToReference));
+            room.setFloorTexturePath(bundleTexture(room.getFloorTexturePath(), textures, pathToReference));
+        }
+
+        ByteArrayOutputStream modelBytes = new ByteArrayOutputStream();
+        ObjectFileIO.writeObject(modelBytes, copy, true);
+
+        // Lay out the file: header, aligned texture data, then the model
+        long headerSize = MAGIC.length + 4 + (long) textures.size() * TEXTURE_ENTRY_SIZE + 16;
+        long offset = align(headerSize);
+        Map<String, Long> offsets = new HashMap<>();
+        for (BundledTexture texture : textures.values()) {
+            offsets.put(texture.hash, offset);
+            offset = align(offset + texture.getByteCount());
+        }
+        long modelOffset = offset;
+
+        File parent = bundleFile.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile("bundle", ".tmp", parent);
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate((int) headerSize).order(ByteOrder.BIG_ENDIAN);
+                header.put(MAGIC);
+                header.putInt(textures.size());
+                for (BundledTexture texture : textures.values()) {
+                    header.put(fromHex(texture.hash));
+                    header.putInt(texture.width);
+                    header.putInt(texture.height);
+                    header.putLong(offsets.get(texture.hash));
+                    header.putLong(texture.getByteCount());
+                }
+                header.putLong(modelOffset);
+                header.putLong(modelBytes.size());
+                header.flip();
+                writeFully(channel, header, 0);
+
+                for (BundledTexture texture : textures.values()) {
+                    ByteBuffer pixels = texture.getPixels();
+                    if (pixels == null) {
+                        throw new IOException("A bundle holding texture " + texture.hash + " was closed during the write");
+                    }
+                    writeFully(channel, pixels, offsets.get(texture.hash));
+                }
+                writeFully(channel, ByteBuffer.wrap(modelBytes.toByteArray()), modelOffset);
+                channel.force(true);
+            }
+
+            // A bundle open on the destination keeps it mapped, which blocks the replace on Windows
+            ProjectBundle mappedHere = findOpenBundle(bundleFile);
+            if (mappedHere != null) mappedHere.releaseMapping();
+            try {
+                try {
+                    Files.move(tempFile.toPath(), bundleFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile.toPath(), bundleFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                if (mappedHere != null) mappedHere.remap();
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+
+        return textures.size();
+    }
+
+    private static ProjectBundle findOpenBundle(File bundleFile) {
+        for (ProjectBundle bundle : openBundles) {
+            try {
+                if (Files.isSameFile(bundle.file.toPath(), bundleFile.toPath())) return bundle;
+            } catch (IOException e) {
+                // The destination doesn't exist yet
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Map the bundle's file again after it was rewritten, so its texture references keep resolving
+     */
+    private synchronized void remap() {
+        if (!openBundles.contains(this)) return;
+        try {
+            mapFile(false);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reopening bundle " + file.getName() + ": " + e.getMessage());
+            releaseMapping();
+        }
+    }
+
+    /**
+     * Add one texture to the bundle being written and return the path to store in the model
+     */
+    private static String bundleTexture(String texturePath, Map<String, BundledTexture> textures,
+                                        Map<String, String> pathToReference) throws IOException {
+        if (texturePath == null || texturePath.trim().isEmpty()) {
+            return texturePath;
+        }
+        if (pathToReference.containsKey(texturePath)) {
+            return pathToReference.get(texturePath);
+        }
+
+        BundledTexture texture;
+        if (isBundleReference(texturePath)) {
+            texture = findTexture(texturePath);
+            if (texture == null) {
+                System.err.println("Bundled texture not available, keeping reference: " + texturePath);
+                return texturePath;
+            }
+        } else {
+            File imageFile = new File(texturePath);
+            if (!imageFile.isFile()) {
+                System.err.println("Texture file not found, keeping path: " + texturePath);
+                pathToReference.put(texturePath, texturePath);
+                return texturePath;
+            }
+            byte[] fileBytes = Files.readAllBytes(imageFile.toPath());
+            String hash = toHex(sha256(fileBytes));
+            texture = textures.get(hash);
+            if (texture == null) {
+                texture = decodeImage(hash, fileBytes, texturePath);
+                if (texture == null) {
+                    pathToReference.put(texturePath, texturePath);
+                    return texturePath;
+                }
+            }
+        }
+
+        textures.putIfAbsent(texture.hash, texture);
+        String reference = TEXTURE_REF_PREFIX + texture.hash;
+        pathToReference.put(texturePath, reference);
+        return reference;
+    }
+
+    /**
+     * Decode an image file into tightly packed RGBA8 rows, top to bottom
+     */
+    private static BundledTexture decodeImage(String hash, byte[] fileBytes, String path) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(fileBytes));
+        if (image == null) {
+            System.err.println("Unsupported texture image format, keeping path: " + path);
+            return null;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                pixels.put((byte) (argb >> 16));
+                pixels.put((byte) (argb >> 8));
+                pixels.put((byte) argb);
+                pixels.put((byte) (argb >>> 24));
+            }
+        }
+        pixels.flip();
+        return new BundledTexture(hash, width, height, pixels.asReadOnlyBuffer());
+    }
+
+    private static DesignModel copyModel(DesignModel model) throws IOException {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectFileIO.writeObject(bytes, model, false);
+            return (DesignModel) ObjectFileIO.readObject(new ByteArrayInputStream(bytes.toByteArray()));
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not copy design model: " + e.getMessage(), e);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, long offset, long length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.limit((int) (offset + length));
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a (mapped) ByteBuffer as a stream without copying it to the heap first
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
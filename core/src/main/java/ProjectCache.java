@@ -0,0 +1,320 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide, memory-bounded LRU cache of project metadata and loaded design models.
+ * Entries are keyed by the project file's absolute path and are only returned while the file's
+ * size and modification time still match what was read. ProjectManager invalidates entries
+ * whenever it writes or deletes a project.
+ * Files are stat'ed before the cache lock is taken, so on a network share parallel scan workers
+ * don't queue behind one another's round trips; the locked methods only compare stamps.
+ */
+public class ProjectCache {
+
+    // Rough in-memory cost estimates used to keep the cache within its budget
+    private static final long METADATA_WEIGHT = 512;
+    private static final long MODEL_BASE_WEIGHT = 2048;
+    private static final long FURNITURE_WEIGHT = 400;
+    private static final long PRICED_ITEM_WEIGHT = 24;
+
+    // Upper bound on the estimated memory held by the cache (default 32 MB)
+    private static long maxWeight = Long.getLong("furnishview.projectCache.maxBytes", 32L * 1024 * 1024);
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private static long totalWeight = 0;
+
+    /**
+     * Cached state for one project file
+     */
+    private static class Entry {
+        final long fileSize;
+        final long lastModified;
+        final String owner;
+        final ProjectManager.ProjectMetadata metadata;
+        DesignModel model;
+        long weight;
+
+        Entry(long fileSize, long lastModified, String owner, ProjectManager.ProjectMetadata metadata, DesignModel model) {
+            this.fileSize = fileSize;
+            this.lastModified = lastModified;
+            this.owner = owner;
+            this.metadata = metadata;
+            this.model = model;
+            this.weight = computeWeight(metadata, model);
+        }
+
+        boolean matches(FileStamp stamp) {
+            return stamp.exists && fileSize == stamp.size && lastModified == stamp.lastModified;
+        }
+    }
+
+    /**
+     * A snapshot of the file's size and modification time taken before reading it
+     */
+    public static class FileStamp {
+        final boolean exists;
+        final long size;
+        final long lastModified;
+
+        private FileStamp(boolean exists, long size, long lastModified) {
+            this.exists = exists;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Take a stamp of the file's current size and modification time, with a single stat.
+     * Take it before reading the file so a concurrent write makes the entry stale rather than wrong.
+     * @param file The project file
+     * @return The stamp; for a missing file, one that matches no entry
+     */
+    public static FileStamp stamp(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) return new FileStamp(false, 0, 0);
+            return new FileStamp(true, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return new FileStamp(false, 0, 0);
+        }
+    }
+
+    /**
+     * Cached metadata together with the owner stored in the project file
+     */
+    public static class CachedProject {
+        public final String owner;
+        public final ProjectManager.ProjectMetadata metadata;
+
+        private CachedProject(String owner, ProjectManager.ProjectMetadata metadata) {
+            this.owner = owner;
+            this.metadata = metadata;
+        }
+    }
+
+    /**
+     * Look up the cached metadata for a project file if it is still current
+     * @param file The project file
+     * @return The cached project, or null on a miss
+     */
+    public static CachedProject lookup(File file) {
+        return lookup(file, stamp(file));
+    }
+
+    /**
+     * Look up the cached metadata for a project file if it matches a stamp
+     * @param file The project file
+     * @param stamp A stamp of the file taken just now
+     * @return The cached project, or null on a miss
+     */
+    public static synchronized CachedProject lookup(File file, FileStamp stamp) {
+        Entry entry = getValidEntry(file, stamp);
+        return entry != null ? new CachedProject(entry.owner, entry.metadata) : null;
+    }
+
+    /**
+     * Check whether the cache holds current metadata for a file
+     * @param file The project file
+     * @return true on a hit
+     */
+    public static boolean containsMetadata(File file) {
+        FileStamp stamp = stamp(file);
+        synchronized (ProjectCache.class) {
+            return getValidEntry(file, stamp) != null;
+        }
+    }
+
+    /**
+     * Remove and return the cached model for a file. The caller becomes the owner of the
+     * model and may modify it freely; the metadata stays cached.
+     * @param file The project file
+     * @return The model, or null on a miss
+     */
+    public static DesignModel takeModel(File file) {
+        return takeModel(file, stamp(file));
+    }
+
+    private static synchronized DesignModel takeModel(File file, FileStamp stamp) {
+        Entry entry = getValidEntry(file, stamp);
+        if (entry == null || entry.model == null) {
+            return null;
+        }
+
+        DesignModel model = entry.model;
+        entry.model = null;
+        totalWeight -= entry.weight;
+        entry.weight = computeWeight(entry.metadata, null);
+        totalWeight += entry.weight;
+        return model;
+    }
+
+    /**
+     * Store metadata and, optionally, the model read from a file
+     * @param file The project file
+     * @param stamp The stamp taken before the file was read
+     * @param owner The owner stored in the model
+     * @param metadata The project metadata
+     * @param model The model read from the file, or null to cache metadata only
+     */
+    public static void put(File file, FileStamp stamp, String owner,
+                           ProjectManager.ProjectMetadata metadata, DesignModel model) {
+        put(file, stamp, stamp(file), owner, metadata, model);
+    }
+
+    private static synchronized void put(File file, FileStamp stamp, FileStamp current, String owner,
+                                         ProjectManager.ProjectMetadata metadata, DesignModel model) {
+        // Don't cache a file that changed while it was being read
+        if (!current.exists || current.size != stamp.size || current.lastModified != stamp.lastModified) {
+            invalidate(file);
+            return;
+        }
+
+        Entry entry = new Entry(stamp.size, stamp.lastModified, owner, metadata, model);
+        Entry previous = entries.put(key(file), entry);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += entry.weight;
+        evictIfNeeded();
+    }
+
+    /**
+     * Swap the cached metadata of a file for an updated copy, keeping the rest of the entry
+     * @param file The project file
+     * @param expected The metadata the copy was made from
+     * @param replacement The updated metadata
+     * @return true if replaced, false if the entry is gone, stale or was replaced in the meantime
+     */
+    public static boolean replaceMetadata(File file, ProjectManager.ProjectMetadata expected,
+                                          ProjectManager.ProjectMetadata replacement) {
+        FileStamp stamp = stamp(file);
+        synchronized (ProjectCache.class) {
+            return replaceMetadata(file, stamp, expected, replacement);
+        }
+    }
+
+    private static boolean replaceMetadata(File file, FileStamp stamp, ProjectManager.ProjectMetadata expected,
+                                           ProjectManager.ProjectMetadata replacement) {
+        Entry entry = getValidEntry(file, stamp);
+        if (entry == null || entry.metadata != expected) {
+            return false;
+        }
+
+        Entry updated = new Entry(entry.fileSize, entry.lastModified, entry.owner, replacement, entry.model);
+        entries.put(key(file), updated);
+        totalWeight += updated.weight - entry.weight;
+        return true;
+    }
+
+    /**
+     * Drop any cached state for a file
+     * @param file The project file
+     */
+    public static synchronized void invalidate(File file) {
+        Entry removed = entries.remove(key(file));
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    /**
+     * Drop everything from the cache
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Get the metadata of every cached project. The files are not checked, so entries for files
+     * changed or deleted since they were cached may be included; use lookup to validate one.
+     * @return List of cached metadata entries
+     */
+    public static synchronized List<ProjectManager.ProjectMetadata> getAllMetadata() {
+        List<ProjectManager.ProjectMetadata> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            result.add(entry.metadata);
+        }
+        return result;
+    }
+
+    /**
+     * Change the memory budget of the cache, evicting entries if necessary
+     * @param maxBytes The new budget in bytes
+     */
+    public static synchronized void setMaxWeight(long maxBytes) {
+        maxWeight = maxBytes;
+        evictIfNeeded();
+    }
+
+    /**
+     * @return The estimated memory currently held by the cache in bytes
+     */
+    public static synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Must be called with the class lock held; the stamp is taken before it
+     */
+    private static Entry getValidEntry(File file, FileStamp stamp) {
+        String key = key(file);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.matches(stamp)) {
+            entries.remove(key);
+            totalWeight -= entry.weight;
+            return null;
+        }
+        return entry;
+    }
+
+    private static void evictIfNeeded() {
+        // First drop models from the least recently used entries, then whole entries
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.model != null) {
+                entry.model = null;
+                totalWeight -= entry.weight;
+                entry.weight = computeWeight(entry.metadata, null);
+                totalWeight += entry.weight;
+            }
+        }
+
+        it = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            totalWeight -= entry.weight;
+            it.remove();
+        }
+    }
+
+    private static long computeWeight(ProjectManager.ProjectMetadata metadata, DesignModel model) {
+        long weight = METADATA_WEIGHT;
+        if (metadata != null && metadata.furnitureTypes != null) {
+            weight += PRICED_ITEM_WEIGHT * metadata.furnitureTypes.length;
+        }
+        if (model != null) {
+            weight += MODEL_BASE_WEIGHT;
+            if (model.getFurnitureList() != null) {
+                weight += FURNITURE_WEIGHT * model.getFurnitureList().size();
+            }
+        }
+        return weight;
+    }
+
+    private static String key(File file) {
+        return file.getAbsolutePath();
+    }
+}
@@ -0,0 +1,615 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.text.SimpleDateFormat;
+
+/**
+ * Helper class to manage project files and metadata.
+ * Handles loading, saving, and organizing FurnishView design projects.
+ */
+public class ProjectManager {
+
+    // Directory for storing design files
+    private static final String DESIGNS_DIR = "./designs";
+
+    // Default file extension for project files
+    private static final String FILE_EXTENSION = ".furn";
+
+    // Bounded pool used to read project files in parallel, created on first use
+    private static ExecutorService scanExecutor;
+
+    private static final Metrics.Histogram loadTime = Metrics.histogram("project.load");
+    private static final Metrics.Counter loadCacheHits = Metrics.counter("project.load.cached");
+    private static final Metrics.Counter loadFailures = Metrics.counter("project.load.failures");
+    private static final Metrics.Histogram saveTime = Metrics.histogram("project.save");
+    private static final Metrics.Counter saveFailures = Metrics.counter("project.save.failures");
+    private static final Metrics.Histogram metadataReadTime = Metrics.histogram("project.metadata.read");
+
+    /**
+     * Represents metadata for a design project
+     */
+    public static class ProjectMetadata implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public String filename;
+        public String projectName;
+        public Date creationDate;
+        public Date lastModifiedDate;
+        public String roomType;
+        public int itemCount;
+        public String description;
+        public String createdBy;
+        public double estimatedPrice;
+
+        // Type and size (width, depth, height) of each furniture item, kept so the price can be
+        // recomputed without the model
+        public transient String[] furnitureTypes;
+        public transient float[] furnitureSizes;
+
+        // Constructor
+        public ProjectMetadata(String filename, String projectName, String roomType,
+                               int itemCount, String createdBy, double estimatedPrice) {
+            this.filename = filename;
+            this.projectName = projectName;
+            this.creationDate = new Date();
+            this.lastModifiedDate = new Date();
+            this.roomType = roomType;
+            this.itemCount = itemCount;
+            this.description = "";
+            this.createdBy = createdBy;
+            this.estimatedPrice = estimatedPrice;
+        }
+
+        /**
+         * Copy this entry with a different estimated price. Cached entries are shared between
+         * threads, so price changes replace them instead of modifying them.
+         * @param price The new estimated price
+         * @return The copy
+         */
+        public ProjectMetadata withEstimatedPrice(double price) {
+            ProjectMetadata copy = new ProjectMetadata(filename, projectName, roomType, itemCount, createdBy, price);
+            copy.creationDate = creationDate;
+            copy.lastModifiedDate = lastModifiedDate;
+            copy.description = description;
+            copy.furnitureTypes = furnitureTypes;
+            copy.furnitureSizes = furnitureSizes;
+            return copy;
+        }
+
+        // Returns a formatted string with last modified date
+        public String getFormattedLastModified() {
+            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm");
+            return sdf.format(lastModifiedDate);
+        }
+    }
+
+    /**
+     * Initialize the designs directory if it doesn't exist
+     */
+    public static void initializeDesignsDirectory() {
+        File dir = new File(DESIGNS_DIR);
+        if (!dir.exists()) {
+            if (dir.mkdirs()) {
+                System.out.println("Created designs directory at: " + dir.getAbsolutePath());
+            } else {
+                System.err.println("Failed to create designs directory");
+            }
+        }
+    }
+
+    /**
+     * Get a list of all available projects for a specific user.
+     * Only the files the ProjectOwnerIndex lists for the user are read.
+     * @param username The username to filter projects by
+     * @return List of ProjectMetadata objects belonging to the specified user
+     */
+    public static List<ProjectMetadata> getProjectsForUser(String username) {
+        List<ProjectMetadata> projects = new ArrayList<>();
+        boolean isAdmin = username == null || UserManager.isAdmin(username);
+
+        for (List<File> page : getProjectFilePages(username, isAdmin)) {
+            for (File file : page) {
+                ProjectMetadata metadata = readProjectMetadata(file, username, isAdmin);
+                if (metadata != null) {
+                    projects.add(metadata);
+                }
+            }
+        }
+
+        // Sort by last modified date (newest first)
+        projects.sort((p1, p2) -> p2.lastModifiedDate.compareTo(p1.lastModifiedDate));
+
+        return projects;
+    }
+
+    /**
+     * Get the project files visible to a user, grouped into pages so callers can read them a page at a time.
+     * A user gets a single page with their own projects and those without an owner; an admin gets one
+     * page per owner. Comes straight from the ProjectOwnerIndex, so the designs directory isn't listed
+     * and a user's query only touches that user's files.
+     * @param username The user
+     * @param isAdmin true if the user may see every project
+     * @return The pages of project files
+     */
+    public static List<List<File>> getProjectFilePages(String username, boolean isAdmin) {
+        List<List<File>> pages = new ArrayList<>();
+        if (!isAdmin) {
+            // Projects that don't record a creator are visible to everyone
+            List<File> files = ProjectOwnerIndex.getFilesOfOwner(username);
+            if (username != null && !username.equals(ProjectOwnerIndex.NO_OWNER)) {
+                files.addAll(ProjectOwnerIndex.getFilesOfOwner(ProjectOwnerIndex.NO_OWNER));
+            }
+            pages.add(files);
+            return pages;
+        }
+
+        for (String owner : ProjectOwnerIndex.getOwners()) {
+            pages.add(ProjectOwnerIndex.getFilesOfOwner(owner));
+        }
+        return pages;
+    }
+
+    /**
+     * Get the metadata of one owner's projects, for admins paging through all owners
+     * @param adminUsername The admin making the query
+     * @param owner The owner, from ProjectOwnerIndex.getOwners()
+     * @return The owner's projects, newest first; empty if the user is not an admin
+     */
+    public static List<ProjectMetadata> getProjectsOfOwner(String adminUsername, String owner) {
+        List<ProjectMetadata> projects = new ArrayList<>();
+        if (!UserManager.isAdmin(adminUsername)) return projects;
+
+        for (File file : ProjectOwnerIndex.getFilesOfOwner(owner)) {
+            ProjectMetadata metadata = readProjectMetadata(file, adminUsername, true);
+            if (metadata != null) {
+                projects.add(metadata);
+            }
+        }
+        projects.sort((p1, p2) -> p2.lastModifiedDate.compareTo(p1.lastModifiedDate));
+        return projects;
+    }
+
+    /**
+     * List all project files in the designs directory
+     * @return The project files, or an empty array if the directory is missing
+     */
+    public static File[] listProjectFiles() {
+        File dir = new File(DESIGNS_DIR);
+
+        if (!dir.exists() || !dir.isDirectory()) {
+            initializeDesignsDirectory();
+            return new File[0];
+        }
+
+        File[] files = dir.listFiles((d, name) -> name.toLowerCase().endsWith(FILE_EXTENSION));
+        return files != null ? files : new File[0];
+    }
+
+    /**
+     * Find a project file by its id, the file name without the extension
+     * @param projectId The project id; only letters, digits, '.', '_' and '-' are accepted
+     * @return The project file, or null if the id is invalid or no such project exists
+     */
+    public static File findProjectFile(String projectId) {
+        if (projectId == null || !projectId.matches("[A-Za-z0-9_-][A-Za-z0-9._-]*")) {
+            return null;
+        }
+
+        File file = new File(DESIGNS_DIR, projectId + FILE_EXTENSION);
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * Get the id of a project file, as accepted by findProjectFile
+     * @param file The project file
+     * @return The file name without the extension
+     */
+    public static String getProjectId(File file) {
+        String name = file.getName();
+        return name.toLowerCase().endsWith(FILE_EXTENSION)
+                ? name.substring(0, name.length() - FILE_EXTENSION.length())
+                : name;
+    }
+
+    /**
+     * Create a watcher for project files in the designs directory. The caller starts and stops it.
+     * @param listener The listener notified of changed and removed project files
+     * @return The watcher
+     */
+    public static DesignsDirectoryWatcher createDesignsWatcher(DesignsDirectoryWatcher.Listener listener) {
+        initializeDesignsDirectory();
+
+        // Changed files are re-indexed when the listener reads them; removed ones are dropped here
+        return new DesignsDirectoryWatcher(new File(DESIGNS_DIR), FILE_EXTENSION, new DesignsDirectoryWatcher.Listener() {
+            @Override
+            public void projectsChanged(List<File> files) {
+                listener.projectsChanged(files);
+            }
+
+            @Override
+            public void projectsRemoved(List<File> files) {
+                for (File file : files) {
+                    ProjectOwnerIndex.remove(file);
+                }
+                listener.projectsRemoved(files);
+            }
+        });
+    }
+
+    /**
+     * Get the shared worker pool for reading project files in parallel.
+     * The pool is bounded to the number of available cores and uses daemon threads.
+     * @return The scan executor
+     */
+    public static synchronized ExecutorService getScanExecutor() {
+        if (scanExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            scanExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "project-scan-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return scanExecutor;
+    }
+
+    /**
+     * Read the metadata of a single project file if it is visible to the given user.
+     * Served from the ProjectCache when the file hasn't changed. Safe to call from worker threads.
+     * @param file The project file
+     * @param username The user the metadata is for
+     * @param isAdmin true if the user may see every project
+     * @return The metadata, or null if the file can't be read or belongs to someone else
+     */
+    public static ProjectMetadata readProjectMetadata(File file, String username, boolean isAdmin) {
+        long start = System.nanoTime();
+        try {
+            String owner;
+            ProjectMetadata metadata;
+
+            // One stat, outside the cache lock, serves the lookup, the index and the read below
+            ProjectCache.FileStamp stamp = ProjectCache.stamp(file);
+            ProjectCache.CachedProject cached = ProjectCache.lookup(file, stamp);
+            if (cached != null) {
+                owner = cached.owner;
+                metadata = cached.metadata;
+                ProjectOwnerIndex.record(file, stamp, owner);
+            } else {
+                // Try to extract metadata from the project file
+                DesignModel model = readDesignModelFromDisk(file);
+                if (model == null) {
+                    return null;
+                }
+
+                owner = model.getCreatedBy(); // Get the owner from the model
+                metadata = buildMetadata(file, model);
+
+                // Keep the model too, so opening the project right after the scan skips the disk
+                ProjectCache.put(file, stamp, owner, metadata, model);
+                ProjectOwnerIndex.record(file, stamp, owner);
+            }
+
+            // Skip if the owner doesn't match the requested username
+            // If admin, show all projects
+            if (owner != null && !owner.equals(username) && !isAdmin) {
+                return null;
+            }
+
+            return metadata;
+        } catch (Exception e) {
+            System.err.println("Error reading project file: " + file.getName() + " - " + e.getMessage());
+            return null;
+        } finally {
+            metadataReadTime.recordSince(start);
+        }
+    }
+
+    /**
+     * Build the metadata entry for a project file from its model
+     * @param file The project file
+     * @param model The model stored in the file
+     * @return The metadata
+     */
+    private static ProjectMetadata buildMetadata(File file, DesignModel model) {
+        String roomType = "Unknown";
+        int itemCount = 0;
+        String owner = model.getCreatedBy();
+
+        if (model.getRoom() != null) {
+            roomType = model.getRoom().getShape().toString();
+        }
+
+        if (model.getFurnitureList() != null) {
+            itemCount = model.getFurnitureList().size();
+        }
+
+        // Extract the project name from the file name
+        String projectName = file.getName();
+        if (projectName.toLowerCase().endsWith(FILE_EXTENSION)) {
+            projectName = projectName.substring(0, projectName.length() - FILE_EXTENSION.length());
+        }
+
+        double estimatedPrice = model.calculateTotalPrice();
+
+        // Create metadata entry
+        ProjectMetadata metadata = new ProjectMetadata(
+                file.getAbsolutePath(),
+                projectName,
+                roomType,
+                itemCount,
+                owner != null ? owner : "Unknown",
+                estimatedPrice
+        );
+
+        // Update timestamps based on file
+        metadata.creationDate = new Date(file.lastModified());
+        metadata.lastModifiedDate = new Date(file.lastModified());
+
+        metadata.furnitureTypes = new String[itemCount];
+        metadata.furnitureSizes = new float[itemCount * 3];
+        for (int i = 0; i < itemCount; i++) {
+            Furniture furniture = model.getFurnitureList().get(i);
+            metadata.furnitureTypes[i] = furniture.getType();
+            metadata.furnitureSizes[i * 3] = furniture.getWidth();
+            metadata.furnitureSizes[i * 3 + 1] = furniture.getDepth();
+            metadata.furnitureSizes[i * 3 + 2] = furniture.getHeight();
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Refresh the cache after this process wrote a project file.
+     * Only the metadata is cached; the model stays with the caller, who may keep editing it.
+     */
+    private static void cacheWrittenProject(File file, DesignModel model) {
+        ProjectCache.FileStamp stamp = ProjectCache.stamp(file);
+        ProjectCache.invalidate(file);
+        ProjectCache.put(file, stamp, model.getCreatedBy(), buildMetadata(file, model), null);
+        ProjectOwnerIndex.record(file, stamp, model.getCreatedBy());
+    }
+
+    /**
+     * Get a list of all available projects (for backward compatibility)
+     * @return List of ProjectMetadata objects
+     */
+    public static List<ProjectMetadata> getAllProjects() {
+        return getProjectsForUser(null);
+    }
+
+    /**
+     * Load a design model from a file.
+     * A model still held by the ProjectCache from an earlier scan is handed over without touching the disk;
+     * either way the caller owns the returned model.
+     * @param file The project file to load
+     * @return The loaded DesignModel, or null if loading failed
+     */
+    public static DesignModel loadDesignModel(File file) {
+        if (file == null || !file.exists() || !file.isFile()) {
+            return null;
+        }
+
+        FlightEvents.ProjectIO event = new FlightEvents.ProjectIO();
+        event.begin();
+        DesignModel cached = ProjectCache.takeModel(file);
+        if (cached != null) {
+            loadCacheHits.increment();
+            commitProjectEvent(event, "load", file, true, true);
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        DesignModel model = readDesignModelFromDisk(file);
+        loadTime.recordSince(start);
+        if (model == null) {
+            loadFailures.increment();
+        }
+        commitProjectEvent(event, "load", file, false, model != null);
+        return model;
+    }
+
+    /**
+     * Finish a project load or save flight event; the file is only looked at while a recording wants the event
+     */
+    private static void commitProjectEvent(FlightEvents.ProjectIO event, String operation, File file,
+                                           boolean cached, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.cached = cached;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * Deserialize a design model from disk, bypassing the cache
+     */
+    private static DesignModel readDesignModelFromDisk(File file) {
+        try {
+            Object obj = ObjectFileIO.readObject(file);
+            if (obj instanceof DesignModel) {
+                return (DesignModel) obj;
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading design model: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Save a design model to a new file
+     * @param model The model to save
+     * @param projectName The name of the project
+     * @param username The username of the creator
+     * @return The metadata for the saved project, or null if saving failed
+     */
+    public static ProjectMetadata saveNewProject(DesignModel model, String projectName, String username) {
+        if (model == null || projectName == null || projectName.trim().isEmpty()) {
+            return null;
+        }
+
+        // Set the creator in the model
+        model.setCreatedBy(username);
+
+        // Sanitize project name for use as filename
+        String safeName = projectName.replaceAll("[^a-zA-Z0-9._-]", "_");
+        String filename = DESIGNS_DIR + File.separator + safeName + FILE_EXTENSION;
+
+        // Check if file already exists
+        File file = new File(filename);
+        if (file.exists()) {
+            // Append timestamp to make unique
+            SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss");
+            filename = DESIGNS_DIR + File.separator + safeName + "_" +
+                    sdf.format(new Date()) + FILE_EXTENSION;
+            file = new File(filename);
+        }
+
+        // Ensure the directory exists
+        initializeDesignsDirectory();
+
+        // Calculate estimated price
+        double estimatedPrice = model.calculateTotalPrice();
+
+        // Save the model
+        FlightEvents.ProjectIO event = new FlightEvents.ProjectIO();
+        event.begin();
+        try {
+            long start = System.nanoTime();
+            ObjectFileIO.writeObject(file, model);
+            saveTime.recordSince(start);
+            commitProjectEvent(event, "save", file, false, true);
+            cacheWrittenProject(file, model);
+
+            // Create and return metadata
+            String roomType = "Unknown";
+            int itemCount = 0;
+
+            if (model.getRoom() != null) {
+                roomType = model.getRoom().getShape().toString();
+            }
+
+            if (model.getFurnitureList() != null) {
+                itemCount = model.getFurnitureList().size();
+            }
+
+            ProjectMetadata metadata = new ProjectMetadata(
+                    file.getAbsolutePath(),
+                    projectName,
+                    roomType,
+                    itemCount,
+                    username,
+                    estimatedPrice
+            );
+
+            return metadata;
+        } catch (Exception e) {
+            saveFailures.increment();
+            commitProjectEvent(event, "save", file, false, false);
+            System.err.println("Error saving design model: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Save changes to an existing project
+     * @param model The updated model
+     * @param originalFile The original file to update
+     * @return True if the save was successful
+     */
+    public static boolean updateProject(DesignModel model, File originalFile) {
+        if (model == null || originalFile == null || !originalFile.exists()) {
+            return false;
+        }
+
+        FlightEvents.ProjectIO event = new FlightEvents.ProjectIO();
+        event.begin();
+        try {
+            long start = System.nanoTime();
+            ObjectFileIO.writeObject(originalFile, model);
+            saveTime.recordSince(start);
+            commitProjectEvent(event, "save", originalFile, false, true);
+            cacheWrittenProject(originalFile, model);
+            return true;
+        } catch (Exception e) {
+            saveFailures.increment();
+            commitProjectEvent(event, "save", originalFile, false, false);
+            System.err.println("Error updating project: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Delete a project file
+     * @param metadata The metadata for the project to delete
+     * @return True if deletion was successful
+     */
+    public static boolean deleteProject(ProjectMetadata metadata) {
+        if (metadata == null || metadata.filename == null) {
+            return false;
+        }
+
+        File file = new File(metadata.filename);
+        if (!file.exists()) {
+            return false;
+        }
+
+        try {
+            ProjectCache.invalidate(file);
+            boolean deleted = Files.deleteIfExists(file.toPath());
+            ProjectOwnerIndex.remove(file);
+            return deleted;
+        } catch (Exception e) {
+            System.err.println("Error deleting project: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Duplicate a project with a new name
+     * @param sourceMetadata The metadata for the source project
+     * @param newProjectName The name for the duplicate project
+     * @param username The username of the person creating the duplicate
+     * @return The metadata for the new project, or null if duplication failed
+     */
+    public static ProjectMetadata duplicateProject(ProjectMetadata sourceMetadata,
+                                                   String newProjectName,
+                                                   String username) {
+        if (sourceMetadata == null || newProjectName == null || newProjectName.trim().isEmpty()) {
+            return null;
+        }
+
+        // Load the source project
+        File sourceFile = new File(sourceMetadata.filename);
+        DesignModel model = loadDesignModel(sourceFile);
+
+        if (model == null) {
+            return null;
+        }
+
+        // Update the creator
+        model.setCreatedBy(username);
+
+        // Save as a new project
+        return saveNewProject(model, newProjectName, username);
+    }
+
+    /**
+     * Generate a thumbnail image for a project (placeholder for future implementation)
+     * @param model The design model
+     * @return Path to the thumbnail image, or null if generation failed
+     */
+    public static String generateThumbnail(DesignModel model) {
+        // This is a placeholder for future implementation
+        // In a complete implementation, this would render a small preview image
+        // of the design and save it to a file
+        return null;
+    }
+}
\ No newline at end of file
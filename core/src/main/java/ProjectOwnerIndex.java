@@ -0,0 +1,234 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Persistent index from project owner to project files, so a user's projects can be listed
+ * without opening every file in the designs directory.
+ * Entries remember the size and modification time of the file they were taken from. {@link #start()}
+ * reconciles the index with a directory listing once, in the background at startup: entries of deleted
+ * files are dropped, and only files that are new or changed since the entry was written are read again.
+ * This picks up projects other people saved to a shared designs folder while the application wasn't
+ * running. After that a DesignsDirectoryWatcher keeps the index current, and ProjectManager updates it
+ * as projects are saved, duplicated, deleted or read. Queries never touch the designs directory.
+ * Changes are persisted through a ChangeJournal.
+ */
+public class ProjectOwnerIndex {
+    private static final String INDEX_FILE = "./project_owners.dat";
+    private static final String INDEX_LOG_FILE = "./project_owners.log";
+
+    // Owner key for projects that don't record a creator; these are visible to every user
+    public static final String NO_OWNER = "";
+
+    /**
+     * Owner of one project file, with the stamp of the file it was read from
+     */
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String owner;
+        final long size;
+        final long lastModified;
+
+        Entry(String owner, long size, long lastModified) {
+            this.owner = owner;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        boolean matches(ProjectCache.FileStamp stamp) {
+            return stamp.exists && size == stamp.size && lastModified == stamp.lastModified;
+        }
+    }
+
+    // Entries by absolute path of the project file
+    private static final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Absolute paths of project files by owner
+    private static final ConcurrentHashMap<String, Set<String>> filesByOwner = new ConcurrentHashMap<>();
+
+    private static final ChangeJournal<String, Entry> indexJournal =
+            new ChangeJournal<>(new File(INDEX_FILE), new File(INDEX_LOG_FILE));
+
+    // Keeps both maps and the journal changing together
+    private static final Object indexWriteLock = new Object();
+
+    // Re-indexes project files changed or removed by others; started once by start()
+    private static DesignsDirectoryWatcher watcher;
+
+    static {
+        for (Map.Entry<String, Entry> stored : indexJournal.load().entrySet()) {
+            addEntry(stored.getKey(), stored.getValue());
+        }
+        try {
+            indexJournal.start();
+        } catch (IOException e) {
+            System.err.println("Error opening project owner log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get every owner that has at least one project
+     * @return The owners in alphabetical order; NO_OWNER sorts first if present
+     */
+    public static List<String> getOwners() {
+        List<String> owners = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : filesByOwner.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                owners.add(entry.getKey());
+            }
+        }
+        Collections.sort(owners);
+        return owners;
+    }
+
+    /**
+     * Get the project files of exactly one owner, without projects that have no owner
+     * @param owner The owner, or NO_OWNER
+     * @return The project files
+     */
+    public static List<File> getFilesOfOwner(String owner) {
+        List<File> files = new ArrayList<>();
+        addFiles(files, owner);
+        return files;
+    }
+
+    /**
+     * @return The number of indexed project files
+     */
+    public static int getProjectCount() {
+        return entries.size();
+    }
+
+    /**
+     * Record the owner of a project file that was just written or read.
+     * Does nothing if the index already holds the same owner and stamp.
+     * @param file The project file
+     * @param stamp The stamp taken before the file was read, or after it was written
+     * @param owner The owner stored in the file, or null
+     */
+    public static void record(File file, ProjectCache.FileStamp stamp, String owner) {
+        String path = file.getAbsolutePath();
+        Entry entry = new Entry(owner != null ? owner : NO_OWNER, stamp.size, stamp.lastModified);
+
+        synchronized (indexWriteLock) {
+            Entry previous = entries.get(path);
+            if (previous != null && previous.owner.equals(entry.owner)
+                    && previous.size == entry.size && previous.lastModified == entry.lastModified) {
+                return;
+            }
+            removeEntry(path);
+            addEntry(path, entry);
+            indexJournal.put(path, entry);
+        }
+    }
+
+    /**
+     * Forget a project file that was deleted
+     * @param file The project file
+     */
+    public static void remove(File file) {
+        String path = file.getAbsolutePath();
+        synchronized (indexWriteLock) {
+            if (removeEntry(path)) {
+                indexJournal.remove(path);
+            }
+        }
+    }
+
+    /**
+     * Start keeping the index current: watch the designs directory, then reconcile the index with it.
+     * Call once per process, off the EDT; later calls do nothing. Blocks until the reconcile is done.
+     */
+    public static void start() {
+        synchronized (ProjectOwnerIndex.class) {
+            if (watcher != null) return;
+
+            // Watch first, so nothing changed during the reconcile is missed
+            watcher = ProjectManager.createDesignsWatcher(new DesignsDirectoryWatcher.Listener() {
+                @Override
+                public void projectsChanged(List<File> files) {
+                    // Reading a file records its owner
+                    for (File file : files) {
+                        ProjectManager.readProjectMetadata(file, null, true);
+                    }
+                }
+
+                @Override
+                public void projectsRemoved(List<File> files) {
+                    // Already dropped from the index by the ProjectManager watcher
+                }
+            });
+            watcher.start();
+        }
+        reconcile();
+    }
+
+    /**
+     * Reconcile the index with the designs directory now. Files whose size and modification time
+     * match their entry are not opened, but every file is listed and stat'ed.
+     */
+    public static void reconcile() {
+        synchronized (ProjectOwnerIndex.class) {
+            Set<String> onDisk = new HashSet<>();
+            List<File> stale = new ArrayList<>();
+            for (File file : ProjectManager.listProjectFiles()) {
+                String path = file.getAbsolutePath();
+                onDisk.add(path);
+
+                Entry entry = entries.get(path);
+                if (entry == null || !entry.matches(ProjectCache.stamp(file))) {
+                    stale.add(file);
+                }
+            }
+
+            // Drop files deleted while the application wasn't watching
+            for (String path : new ArrayList<>(entries.keySet())) {
+                if (!onDisk.contains(path)) {
+                    remove(new File(path));
+                }
+            }
+
+            // Reading a file records its owner; the metadata read along the way stays cached for the first scan
+            List<Future<?>> reads = new ArrayList<>(stale.size());
+            for (File file : stale) {
+                reads.add(ProjectManager.getScanExecutor().submit(() -> ProjectManager.readProjectMetadata(file, null, true)));
+            }
+            for (Future<?> read : reads) {
+                try {
+                    read.get();
+                } catch (Exception e) {
+                    System.err.println("Error indexing project: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void addFiles(List<File> files, String owner) {
+        Set<String> paths = filesByOwner.get(owner);
+        if (paths == null) return;
+
+        for (String path : paths) {
+            files.add(new File(path));
+        }
+    }
+
+    private static void addEntry(String path, Entry entry) {
+        entries.put(path, entry);
+        filesByOwner.computeIfAbsent(entry.owner, owner -> ConcurrentHashMap.newKeySet()).add(path);
+    }
+
+    private static boolean removeEntry(String path) {
+        Entry entry = entries.remove(path);
+        if (entry == null) return false;
+
+        Set<String> paths = filesByOwner.get(entry.owner);
+        if (paths != null) {
+            paths.remove(path);
+        }
+        return true;
+    }
+}
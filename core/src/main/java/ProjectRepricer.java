@@ -0,0 +1,133 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Recomputes the estimated price of every known project after inventory prices change.
+ * Price edits made in quick succession are coalesced into a single pass, which prices all
+ * cached projects in parallel from the per-item types and sizes kept in their metadata.
+ * Projects that are not cached are left alone; they are priced with the current inventory
+ * when they are next read.
+ * Metadata entries are never modified: each repriced project gets a new entry, which replaces
+ * the old one in the cache and is handed to listeners. Listener callbacks run on the repricer's
+ * background thread, so UI listeners must move to the EDT before applying them.
+ */
+public class ProjectRepricer {
+
+    /**
+     * Receives the projects whose estimated price changed in a pass
+     */
+    public interface Listener {
+        /**
+         * @param repriced New metadata entries carrying the updated prices; treat them as read-only
+         */
+        void projectsRepriced(List<ProjectManager.ProjectMetadata> repriced);
+    }
+
+    // Quiet period after the last price change before a pass starts
+    private static final long COALESCE_MS = 500;
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledFuture<?> pendingPass;
+    private static boolean installed = false;
+
+    /**
+     * Start repricing cached projects whenever InventoryManager prices change
+     */
+    public static synchronized void install() {
+        if (installed) return;
+        installed = true;
+        InventoryManager.addPriceChangeListener(version -> schedulePass());
+    }
+
+    /**
+     * Register a listener for repriced projects
+     * @param listener The listener to add
+     */
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener
+     * @param listener The listener to remove
+     */
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Schedule a repricing pass. A pass that is already waiting is pushed back, so a burst of
+     * price edits results in one pass after the last edit.
+     */
+    public static synchronized void schedulePass() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "project-repricer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        if (pendingPass != null) {
+            // Does nothing if the pass is already running; the new one then runs after it
+            pendingPass.cancel(false);
+        }
+        pendingPass = scheduler.schedule(ProjectRepricer::runPass, COALESCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reprice all cached projects with the current inventory prices
+     * @return New metadata entries for the projects whose estimated price changed
+     */
+    public static List<ProjectManager.ProjectMetadata> repriceAll() {
+        BatchPricingEngine engine = BatchPricingEngine.fromInventory();
+
+        List<ProjectManager.ProjectMetadata> candidates = new ArrayList<>();
+        for (ProjectManager.ProjectMetadata metadata : ProjectCache.getAllMetadata()) {
+            if (metadata.furnitureTypes != null && metadata.furnitureSizes != null) {
+                candidates.add(metadata);
+            }
+        }
+
+        // Encoding resolves SKU lookups, so it is spread across cores along with the pricing
+        double[] totals = new double[candidates.size()];
+        IntStream.range(0, totals.length).parallel().forEach(i -> {
+            ProjectManager.ProjectMetadata metadata = candidates.get(i);
+            totals[i] = engine.price(engine.encode(metadata.furnitureTypes, metadata.furnitureSizes));
+        });
+
+        List<ProjectManager.ProjectMetadata> repriced = new ArrayList<>();
+        for (int i = 0; i < totals.length; i++) {
+            ProjectManager.ProjectMetadata metadata = candidates.get(i);
+            if (metadata.estimatedPrice != totals[i]) {
+                ProjectManager.ProjectMetadata updated = metadata.withEstimatedPrice(totals[i]);
+                // A project rewritten during the pass was already cached with fresh prices
+                if (ProjectCache.replaceMetadata(new File(metadata.filename), metadata, updated)) {
+                    repriced.add(updated);
+                }
+            }
+        }
+
+        return repriced;
+    }
+
+    private static void runPass() {
+        try {
+            List<ProjectManager.ProjectMetadata> repriced = repriceAll();
+            if (repriced.isEmpty()) return;
+
+            for (Listener listener : listeners) {
+                listener.projectsRepriced(repriced);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error repricing projects: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,549 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional embedded HTTP service that gives a web storefront read-only access to saved designs:
+ * <pre>
+ *   GET /projects                      project list as JSON (optional ?owner=name)
+ *   GET /projects/{id}/quote           price breakdown as JSON
+ *   GET /projects/{id}/plan.png        top-down plan preview (optional ?size=pixels, rounded up to
+ *                                      128, 256, 512, 1024 or 2048)
+ * </pre>
+ * where {id} is the project file name without ".furn". The service binds to the loopback
+ * interface only and serves the local ./designs directory.
+ *
+ * Each request runs on its own virtual thread when the runtime has them (Java 21+), otherwise on
+ * a bounded pool. Responses are kept in a size-bounded LRU cache. Entries are checked against
+ * the project file's size and modification time and the inventory price version on every hit,
+ * and are evicted as soon as the designs watcher reports a change. Concurrent misses for the same
+ * response share one computation, and at most one computation per core runs at a time.
+ */
+public class QuoteService {
+
+    public static final int DEFAULT_PORT = 8095;
+
+    // Preview sizes in pixels. Requested sizes are rounded up to a bucket, so a client asking for
+    // every size can't fill the cache with near-identical images.
+    private static final int DEFAULT_PREVIEW_SIZE = 512;
+    private static final int MIN_PREVIEW_SIZE = 16;
+    private static final int[] PREVIEW_SIZES = {128, 256, 512, 1024, 2048};
+    private static final int MAX_PREVIEW_SIZE = PREVIEW_SIZES[PREVIEW_SIZES.length - 1];
+
+    // Responses computed at once; loading and rendering are CPU and memory bound, and with a
+    // virtual thread per request nothing else limits them
+    private static final int MAX_CONCURRENT_BUILDS = Runtime.getRuntime().availableProcessors();
+
+    // How long a miss waits for a build slot before the request is turned away
+    private static final long BUILD_WAIT_SECONDS = 30;
+
+    // Total bytes of cached response bodies
+    private static final long CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+    // Connections the OS queues while all handlers are busy
+    private static final int BACKLOG = 4096;
+
+    /**
+     * A response body with what it was computed from
+     */
+    private static class CachedResponse {
+        final byte[] body;
+        final String contentType;
+        // Stamp of the project file, or -1 for the listing
+        final long fileSize;
+        final long fileModified;
+        // Price version the body was computed with, or -1 if prices don't affect it
+        final long priceVersion;
+        // Designs directory version, for the listing only
+        final long directoryVersion;
+
+        CachedResponse(byte[] body, String contentType, long fileSize, long fileModified,
+                       long priceVersion, long directoryVersion) {
+            this.body = body;
+            this.contentType = contentType;
+            this.fileSize = fileSize;
+            this.fileModified = fileModified;
+            this.priceVersion = priceVersion;
+            this.directoryVersion = directoryVersion;
+        }
+    }
+
+    /**
+     * A request that could not be served, with its HTTP status
+     */
+    private static class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private DesignsDirectoryWatcher watcher;
+
+    // Responses in least-recently-used order
+    private final LinkedHashMap<String, CachedResponse> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes = 0;
+
+    // Responses being computed, so concurrent misses for the same key wait for one computation
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Semaphore buildSlots = new Semaphore(MAX_CONCURRENT_BUILDS);
+
+    // Bumped whenever a project file is added, changed or removed
+    private final AtomicLong directoryVersion = new AtomicLong();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Create a service on a loopback port. Call start() to begin serving.
+     * @param port The port, or 0 to pick a free one
+     * @throws IOException If the port cannot be bound
+     */
+    public QuoteService(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start serving and watching the designs directory
+     */
+    public synchronized void start() {
+        watcher = ProjectManager.createDesignsWatcher(new DesignsDirectoryWatcher.Listener() {
+            @Override
+            public void projectsChanged(List<File> files) {
+                for (File file : files) {
+                    // Re-index the file so the listing sees its owner
+                    ProjectManager.readProjectMetadata(file, null, true);
+                    evictProject(file);
+                }
+                directoryVersion.incrementAndGet();
+            }
+
+            @Override
+            public void projectsRemoved(List<File> files) {
+                for (File file : files) {
+                    evictProject(file);
+                }
+                directoryVersion.incrementAndGet();
+            }
+        });
+        watcher.start();
+        server.start();
+    }
+
+    /**
+     * Stop serving. Requests in progress get up to a second to finish.
+     */
+    public synchronized void stop() {
+        server.stop(1);
+        executor.shutdown();
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    /**
+     * @return The address the service is bound to
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return The port the service is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return The number of requests answered from the cache
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return The number of responses computed
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                throw new RequestException(405, "Only GET is supported");
+            }
+
+            URI uri = exchange.getRequestURI();
+            Map<String, String> query = parseQuery(uri.getRawQuery());
+            String[] parts = uri.getPath().split("/");
+
+            CachedResponse response;
+            if (parts.length == 2 && parts[1].equals("projects")) {
+                response = getListing(query.get("owner"));
+            } else if (parts.length == 4 && parts[1].equals("projects") && parts[3].equals("quote")) {
+                response = getQuote(parts[2]);
+            } else if (parts.length == 4 && parts[1].equals("projects") && parts[3].equals("plan.png")) {
+                response = getPreview(parts[2], parsePreviewSize(query.get("size")));
+            } else {
+                throw new RequestException(404, "Unknown path " + uri.getPath());
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, response.body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body);
+            }
+        } catch (RequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error serving " + exchange.getRequestURI() + ": " + e.getMessage());
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private CachedResponse getListing(String owner) throws RequestException {
+        String key = owner == null ? "projects" : "projects?owner=" + owner;
+        long priceVersion = InventoryManager.getPriceVersion();
+        long dirVersion = directoryVersion.get();
+
+        return getCached(key, cached -> cached.priceVersion == priceVersion && cached.directoryVersion == dirVersion, () -> {
+            StringBuilder json = new StringBuilder("[");
+            for (ProjectManager.ProjectMetadata project : ProjectManager.getAllProjects()) {
+                if (owner != null && !owner.equals(project.createdBy)) continue;
+
+                if (json.length() > 1) json.append(',');
+                json.append("{\"id\":").append(quote(ProjectManager.getProjectId(new File(project.filename))))
+                        .append(",\"name\":").append(quote(project.projectName))
+                        .append(",\"owner\":").append(quote(project.createdBy))
+                        .append(",\"roomType\":").append(quote(project.roomType))
+                        .append(",\"itemCount\":").append(project.itemCount)
+                        .append(",\"estimatedPrice\":").append(formatAmount(project.estimatedPrice))
+                        .append(",\"lastModified\":").append(quote(formatTimestamp(project.lastModifiedDate)))
+                        .append('}');
+            }
+            json.append(']');
+            return new CachedResponse(json.toString().getBytes(StandardCharsets.UTF_8),
+                    "application/json; charset=utf-8", -1, -1, priceVersion, dirVersion);
+        });
+    }
+
+    private CachedResponse getQuote(String projectId) throws RequestException {
+        File file = requireProject(projectId);
+        long size = file.length(), modified = file.lastModified();
+        long priceVersion = InventoryManager.getPriceVersion();
+
+        return getCached("quote/" + projectId,
+                cached -> cached.fileSize == size && cached.fileModified == modified && cached.priceVersion == priceVersion,
+                () -> {
+                    DesignModel model = loadModel(file);
+
+                    // One breakdown call prices every item against the same inventory snapshot
+                    Map<String, Double> breakdown = new TreeMap<>(InventoryManager.getPriceBreakdown(model));
+                    Map<String, Integer> counts = model.getFurnitureCounts();
+                    double total = 0;
+                    StringBuilder items = new StringBuilder("[");
+                    for (Map.Entry<String, Double> entry : breakdown.entrySet()) {
+                        total += entry.getValue();
+                        if (items.length() > 1) items.append(',');
+                        items.append("{\"type\":").append(quote(entry.getKey()))
+                                .append(",\"count\":").append(counts.getOrDefault(entry.getKey(), 0))
+                                .append(",\"subtotal\":").append(formatAmount(entry.getValue()))
+                                .append('}');
+                    }
+                    items.append(']');
+
+                    String json = "{\"id\":" + quote(projectId)
+                            + ",\"owner\":" + quote(model.getCreatedBy())
+                            + ",\"currency\":\"LKR\""
+                            + ",\"total\":" + formatAmount(total)
+                            + ",\"items\":" + items
+                            + '}';
+                    return new CachedResponse(json.getBytes(StandardCharsets.UTF_8),
+                            "application/json; charset=utf-8", size, modified, priceVersion, -1);
+                });
+    }
+
+    private CachedResponse getPreview(String projectId, int previewSize) throws RequestException {
+        File file = requireProject(projectId);
+        long size = file.length(), modified = file.lastModified();
+
+        return getCached("plan/" + projectId + "@" + previewSize,
+                cached -> cached.fileSize == size && cached.fileModified == modified,
+                () -> {
+                    try {
+                        return new CachedResponse(PlanImageRenderer.renderPng(loadModel(file), previewSize),
+                                "image/png", size, modified, -1, -1);
+                    } catch (IOException e) {
+                        throw new RequestException(500, "Could not render preview");
+                    }
+                });
+    }
+
+    /**
+     * Computes a response on a cache miss
+     */
+    private interface ResponseBuilder {
+        CachedResponse build() throws RequestException;
+    }
+
+    /**
+     * Return the cached response for a key if it is still valid, otherwise compute it once
+     * for all concurrent requests and cache the result
+     */
+    private CachedResponse getCached(String key, java.util.function.Predicate<CachedResponse> valid,
+                                     ResponseBuilder builder) throws RequestException {
+        while (true) {
+            synchronized (cache) {
+                CachedResponse cached = cache.get(key);
+                if (cached != null && valid.test(cached)) {
+                    cacheHits.incrementAndGet();
+                    return cached;
+                }
+            }
+
+            CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+            CompletableFuture<CachedResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                try {
+                    CachedResponse shared = running.join();
+                    if (valid.test(shared)) {
+                        cacheHits.incrementAndGet();
+                        return shared;
+                    }
+                } catch (RuntimeException e) {
+                    // The other computation failed
+                }
+                // Start over, so a newer computation is shared rather than duplicated
+                continue;
+            }
+
+            try {
+                cacheMisses.incrementAndGet();
+                CachedResponse response = buildLimited(builder);
+                store(key, response);
+                mine.complete(response);
+                return response;
+            } catch (RequestException | RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    /**
+     * Run a builder once a build slot is free
+     */
+    private CachedResponse buildLimited(ResponseBuilder builder) throws RequestException {
+        try {
+            if (!buildSlots.tryAcquire(BUILD_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                throw new RequestException(503, "Server busy, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestException(503, "Server shutting down");
+        }
+        try {
+            return builder.build();
+        } finally {
+            buildSlots.release();
+        }
+    }
+
+    private void store(String key, CachedResponse response) {
+        synchronized (cache) {
+            CachedResponse previous = cache.put(key, response);
+            if (previous != null) cachedBytes -= previous.body.length;
+            cachedBytes += response.body.length;
+
+            Iterator<CachedResponse> eldest = cache.values().iterator();
+            while (cachedBytes > CACHE_MAX_BYTES && eldest.hasNext()) {
+                cachedBytes -= eldest.next().body.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void evictProject(File file) {
+        String projectId = ProjectManager.getProjectId(file);
+        synchronized (cache) {
+            Iterator<Map.Entry<String, CachedResponse>> entries = cache.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, CachedResponse> entry = entries.next();
+                String key = entry.getKey();
+                if (key.equals("quote/" + projectId) || key.startsWith("plan/" + projectId + "@")) {
+                    cachedBytes -= entry.getValue().body.length;
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    private static File requireProject(String projectId) throws RequestException {
+        File file = ProjectManager.findProjectFile(projectId);
+        if (file == null) {
+            throw new RequestException(404, "No project " + projectId);
+        }
+        return file;
+    }
+
+    /**
+     * Read a model for one request. The cached copy is left alone, since it belongs to the desktop UI.
+     */
+    private static DesignModel loadModel(File file) throws RequestException {
+        try {
+            Object obj = ObjectFileIO.readObject(file);
+            if (obj instanceof DesignModel) {
+                return (DesignModel) obj;
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading design model: " + e.getMessage());
+        }
+        throw new RequestException(500, "Could not read project " + ProjectManager.getProjectId(file));
+    }
+
+    /**
+     * @return The preview size bucket for the requested size
+     */
+    private static int parsePreviewSize(String value) throws RequestException {
+        if (value == null) return DEFAULT_PREVIEW_SIZE;
+        try {
+            int size = Integer.parseInt(value);
+            if (size >= MIN_PREVIEW_SIZE && size <= MAX_PREVIEW_SIZE) {
+                for (int bucket : PREVIEW_SIZES) {
+                    if (size <= bucket) return bucket;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new RequestException(400, "size must be between " + MIN_PREVIEW_SIZE + " and " + MAX_PREVIEW_SIZE);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        byte[] body = ("{\"error\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String formatAmount(double amount) {
+        return String.format(Locale.ROOT, "%.2f", amount);
+    }
+
+    private static String formatTimestamp(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX", Locale.ROOT);
+        return format.format(date);
+    }
+
+    /**
+     * Virtual thread per request on Java 21+. On older runtimes a bounded pool, with further
+     * connections waiting in the server's backlog.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(16, Runtime.getRuntime().availableProcessors() * 8), r -> {
+                Thread t = new Thread(r, "quote-service-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Run the service on its own, without the desktop UI.
+     * Usage: java QuoteService [port]
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        ProjectManager.initializeDesignsDirectory();
+        ProjectOwnerIndex.start();
+        ProjectRepricer.install();
+        Metrics.start();
+        new QuoteService(port).start();
+    }
+}
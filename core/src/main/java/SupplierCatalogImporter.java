@@ -0,0 +1,453 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Imports supplier price sheets in CSV or TSV format into the inventory.
+ * The file is read line by line and handed out in fixed-size chunks that are parsed and
+ * validated in parallel. Only a bounded number of chunks is in flight at once and each finished
+ * chunk is folded into one entry per furniture type, so memory does not grow with the file.
+ * Nothing reaches InventoryManager until commit, which applies all valid rows as one batch.
+ *
+ * Columns are type, base price, price per unit volume and an optional currency. A header row
+ * naming the columns may reorder them, and may add sku, width, depth and height columns: rows with
+ * a SKU code become size variants priced at their base price. Quoted fields may contain the
+ * delimiter but not line breaks.
+ */
+public class SupplierCatalogImporter {
+
+    // Lines handed to a worker at a time
+    private static final int CHUNK_SIZE = 2000;
+
+    // Most row errors kept for display; further errors are only counted
+    private static final int MAX_REPORTED_ERRORS = 200;
+
+    // Longest furniture type name accepted
+    private static final int MAX_TYPE_LENGTH = 100;
+
+    private static final int COLUMN_TYPE = 0;
+    private static final int COLUMN_BASE_PRICE = 1;
+    private static final int COLUMN_VOLUME_PRICE = 2;
+    private static final int COLUMN_CURRENCY = 3;
+    private static final int COLUMN_SKU = 4;
+    private static final int COLUMN_WIDTH = 5;
+    private static final int COLUMN_DEPTH = 6;
+    private static final int COLUMN_HEIGHT = 7;
+
+    private final String requiredCurrency;
+
+    /**
+     * A problem with one row of the sheet
+     */
+    public static class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    /**
+     * Outcome of validating a price sheet, ready to be committed
+     */
+    public static class ImportResult {
+        // One entry per furniture type; a later row for the same type replaces an earlier one
+        private final Map<String, FurniturePrice> prices = new LinkedHashMap<>();
+        private final Map<String, FurnitureSku> skus = new LinkedHashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long rowCount = 0;
+        private long errorCount = 0;
+        private boolean committed = false;
+
+        public int getPriceCount() { return prices.size(); }
+        public int getSkuCount() { return skus.size(); }
+        public long getRowCount() { return rowCount; }
+        public long getErrorCount() { return errorCount; }
+        public boolean isCommitted() { return committed; }
+
+        /**
+         * @return The first row errors, in file order (at most MAX_REPORTED_ERRORS)
+         */
+        public List<RowError> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * @return The validated price entries
+         */
+        public Collection<FurniturePrice> getPrices() {
+            return Collections.unmodifiableCollection(prices.values());
+        }
+
+        /**
+         * @return The validated SKUs
+         */
+        public Collection<FurnitureSku> getSkus() {
+            return Collections.unmodifiableCollection(skus.values());
+        }
+    }
+
+    /**
+     * Result of parsing one chunk of lines
+     */
+    private static class ChunkResult {
+        final List<FurniturePrice> prices = new ArrayList<>();
+        final List<FurnitureSku> skus = new ArrayList<>();
+        final List<RowError> errors = new ArrayList<>();
+        long rowCount = 0;
+    }
+
+    /**
+     * Create an importer
+     * @param requiredCurrency ISO currency code every row must use, or null to accept any valid code
+     */
+    public SupplierCatalogImporter(String requiredCurrency) {
+        this.requiredCurrency = requiredCurrency;
+    }
+
+    /**
+     * Read and validate a price sheet without changing the inventory
+     * @param file The CSV or TSV file
+     * @param progress Receives the percentage of the file read so far; may be null
+     * @return The validated rows and row errors
+     * @throws IOException If the file cannot be read
+     * @throws InterruptedException If the calling thread is interrupted
+     */
+    public ImportResult validate(File file, IntConsumer progress) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "catalog-import-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        ImportResult result = new ImportResult();
+        long totalBytes = Math.max(1, file.length());
+        long bytesRead = 0;
+        int lastPercent = -1;
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String firstLine = reader.readLine();
+            if (firstLine == null) return result;
+            if (firstLine.startsWith("\uFEFF")) firstLine = firstLine.substring(1); // Byte order mark
+            bytesRead += firstLine.length() + 1;
+
+            char delimiter = detectDelimiter(file, firstLine);
+            int[] columns = readHeader(firstLine, delimiter);
+            long lineNumber = 1;
+
+            // Chunks are merged in submission order, so a later row always wins
+            Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            long chunkStart = lineNumber + 1;
+
+            if (columns == null) {
+                // No header, the first line is data in the default column order
+                columns = new int[]{0, 1, 2, 3, -1, -1, -1, -1};
+                chunk.add(firstLine);
+                chunkStart = 1;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.interrupted()) throw new InterruptedException();
+                lineNumber++;
+                bytesRead += line.length() + 1;
+                chunk.add(line);
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    submitChunk(executor, inFlight, chunk, chunkStart, delimiter, columns);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    chunkStart = lineNumber + 1;
+
+                    // Bound memory by waiting for the oldest chunk once enough are queued
+                    while (inFlight.size() >= threads * 2) {
+                        merge(result, inFlight.removeFirst());
+                    }
+                }
+
+                int percent = (int) Math.min(100, bytesRead * 100 / totalBytes);
+                if (progress != null && percent != lastPercent) {
+                    progress.accept(percent);
+                    lastPercent = percent;
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                submitChunk(executor, inFlight, chunk, chunkStart, delimiter, columns);
+            }
+            while (!inFlight.isEmpty()) {
+                merge(result, inFlight.removeFirst());
+            }
+            if (progress != null) progress.accept(100);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return result;
+    }
+
+    /**
+     * Apply every validated price and SKU to the inventory as one batch
+     * @param result The validation result
+     * @return true if the prices were applied
+     */
+    public boolean commit(ImportResult result) {
+        if (result.committed || (result.prices.isEmpty() && result.skus.isEmpty())) return false;
+
+        result.committed = InventoryManager.updateCatalog(result.prices.values(), result.skus.values());
+        return result.committed;
+    }
+
+    private void submitChunk(ExecutorService executor, Deque<Future<ChunkResult>> inFlight, List<String> lines,
+                             long firstLineNumber, char delimiter, int[] columns) {
+        inFlight.addLast(executor.submit(() -> parseChunk(lines, firstLineNumber, delimiter, columns)));
+    }
+
+    private void merge(ImportResult result, Future<ChunkResult> future) throws InterruptedException, IOException {
+        ChunkResult chunk;
+        try {
+            chunk = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Error validating price sheet: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        result.rowCount += chunk.rowCount;
+        for (FurniturePrice price : chunk.prices) {
+            result.prices.put(price.getFurnitureType(), price);
+        }
+        for (FurnitureSku sku : chunk.skus) {
+            result.skus.put(sku.getSkuCode(), sku);
+        }
+        result.errorCount += chunk.errors.size();
+        for (RowError error : chunk.errors) {
+            if (result.errors.size() >= MAX_REPORTED_ERRORS) break;
+            result.errors.add(error);
+        }
+    }
+
+    private ChunkResult parseChunk(List<String> lines, long firstLineNumber, char delimiter, int[] columns) {
+        ChunkResult result = new ChunkResult();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) continue;
+
+            result.rowCount++;
+            long lineNumber = firstLineNumber + i;
+            try {
+                List<String> fields = splitFields(line, delimiter);
+                if (!field(fields, columns[COLUMN_SKU]).isEmpty()) {
+                    result.skus.add(parseSkuRow(fields, columns));
+                } else {
+                    result.prices.add(parseRow(fields, columns));
+                }
+            } catch (IllegalArgumentException e) {
+                result.errors.add(new RowError(lineNumber, e.getMessage()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Validate one row and turn it into a price entry
+     * @throws IllegalArgumentException Describing the first problem found
+     */
+    private FurniturePrice parseRow(List<String> fields, int[] columns) {
+        String type = parseType(fields, columns);
+        double basePrice = parsePrice(field(fields, columns[COLUMN_BASE_PRICE]), "base price");
+        double volumePrice = parsePrice(field(fields, columns[COLUMN_VOLUME_PRICE]), "price per unit volume");
+        String currency = parseCurrency(fields, columns);
+
+        FurniturePrice price = new FurniturePrice(type, basePrice, volumePrice);
+        price.setCurrency(currency);
+        return price;
+    }
+
+    /**
+     * Validate one SKU row
+     * @throws IllegalArgumentException Describing the first problem found
+     */
+    private FurnitureSku parseSkuRow(List<String> fields, int[] columns) {
+        String skuCode = field(fields, columns[COLUMN_SKU]);
+        String type = parseType(fields, columns);
+        float width = parseDimension(field(fields, columns[COLUMN_WIDTH]), "width");
+        float depth = parseDimension(field(fields, columns[COLUMN_DEPTH]), "depth");
+        float height = parseDimension(field(fields, columns[COLUMN_HEIGHT]), "height");
+        double price = parsePrice(field(fields, columns[COLUMN_BASE_PRICE]), "price");
+        String currency = parseCurrency(fields, columns);
+
+        return new FurnitureSku(skuCode, type, width, depth, height, price, currency);
+    }
+
+    private String parseType(List<String> fields, int[] columns) {
+        String type = field(fields, columns[COLUMN_TYPE]);
+        if (type.isEmpty()) {
+            throw new IllegalArgumentException("Missing furniture type");
+        }
+        if (type.length() > MAX_TYPE_LENGTH) {
+            throw new IllegalArgumentException("Furniture type is longer than " + MAX_TYPE_LENGTH + " characters");
+        }
+        return type;
+    }
+
+    private String parseCurrency(List<String> fields, int[] columns) {
+        String currency = normalizeCurrency(field(fields, columns[COLUMN_CURRENCY]));
+        if (requiredCurrency != null && !requiredCurrency.equals(currency)) {
+            throw new IllegalArgumentException("Currency " + currency + " does not match " + requiredCurrency);
+        }
+        return currency;
+    }
+
+    private float parseDimension(String text, String name) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        float value;
+        try {
+            value = Float.parseFloat(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + text);
+        }
+        if (!(value > 0) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + text);
+        }
+        return value;
+    }
+
+    private double parsePrice(String text, String name) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        double value;
+        try {
+            // Allow thousands separators such as "25,000.00"
+            value = Double.parseDouble(text.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + text);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value) || value < 0) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + text);
+        }
+        return value;
+    }
+
+    private String normalizeCurrency(String text) {
+        if (text.isEmpty()) {
+            return requiredCurrency != null ? requiredCurrency : "LKR";
+        }
+
+        String code = text.toUpperCase(Locale.ROOT);
+        if (code.equals("RS") || code.equals("RS.")) {
+            return "LKR";
+        }
+        try {
+            return Currency.getInstance(code).getCurrencyCode();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency: " + text);
+        }
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    /**
+     * Split a line into fields, honouring double-quoted fields and doubled quotes inside them
+     */
+    static List<String> splitFields(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static char detectDelimiter(File file, String firstLine) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".tsv") || name.endsWith(".tab")) return '\t';
+        if (name.endsWith(".csv")) return ',';
+        return firstLine.indexOf('\t') >= 0 ? '\t' : ',';
+    }
+
+    /**
+     * Map column names in a header row to field positions
+     * @return The field index of each column, or null if the line is not a header
+     * @throws IOException If the header is missing a required column
+     */
+    private static int[] readHeader(String line, char delimiter) throws IOException {
+        List<String> names = splitFields(line, delimiter);
+        int[] columns = {-1, -1, -1, -1, -1, -1, -1, -1};
+
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            if (name.equals("type") || name.equals("furnituretype") || name.equals("item")) {
+                columns[COLUMN_TYPE] = i;
+            } else if (name.startsWith("baseprice") || name.equals("base")) {
+                columns[COLUMN_BASE_PRICE] = i;
+            } else if (name.contains("volume")) {
+                columns[COLUMN_VOLUME_PRICE] = i;
+            } else if (name.equals("currency")) {
+                columns[COLUMN_CURRENCY] = i;
+            } else if (name.equals("sku") || name.equals("skucode")) {
+                columns[COLUMN_SKU] = i;
+            } else if (name.startsWith("width")) {
+                columns[COLUMN_WIDTH] = i;
+            } else if (name.startsWith("depth")) {
+                columns[COLUMN_DEPTH] = i;
+            } else if (name.startsWith("height")) {
+                columns[COLUMN_HEIGHT] = i;
+            }
+        }
+
+        if (columns[COLUMN_TYPE] < 0) return null;
+        boolean hasSkus = columns[COLUMN_SKU] >= 0;
+        if (columns[COLUMN_BASE_PRICE] < 0 || (columns[COLUMN_VOLUME_PRICE] < 0 && !hasSkus)) {
+            throw new IOException("Header must name the type, base price and price per unit volume columns");
+        }
+        if (hasSkus && (columns[COLUMN_WIDTH] < 0 || columns[COLUMN_DEPTH] < 0 || columns[COLUMN_HEIGHT] < 0)) {
+            throw new IOException("Header with a sku column must also name the width, depth and height columns");
+        }
+        return columns;
+    }
+}
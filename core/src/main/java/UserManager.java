@@ -0,0 +1,263 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registered users, indexed by username.
+ * Lookups read a concurrent hash map without locking. Each change is appended to users.log
+ * by a background writer, and the log is periodically compacted into users.dat, so adding a
+ * user never rewrites the whole file.
+ *
+ * Passwords are stored as salted PBKDF2 hashes. Plain-text passwords from older files are
+ * replaced with a hash the first time their owner logs in. Authenticating and adding users
+ * hash passwords, which takes a noticeable fraction of a second by design, so call them off the EDT.
+ */
+public class UserManager {
+    private static final String USERS_FILE = "./users.dat";
+    private static final String USERS_LOG_FILE = "./users.log";
+    private static final String PASSWORD_POLICY_FILE = "./password_policy.dat";
+
+    // Users by username
+    private static final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+
+    // Persists user changes in the background
+    private static final ChangeJournal<String, User> userJournal =
+            new ChangeJournal<>(new File(USERS_FILE), new File(USERS_LOG_FILE));
+
+    // Keeps index updates and their log records in the same order
+    private static final Object userWriteLock = new Object();
+
+    // PBKDF2 iteration count for new hashes; set by an administrator
+    private static volatile int passwordIterations = PasswordHasher.DEFAULT_ITERATIONS;
+
+    // Hash checked when the username is unknown, so unknown and known names take equally long
+    private static volatile String unknownUserHash;
+
+    static {
+        passwordIterations = loadPasswordIterations();
+        migrateUserList();
+        users.putAll(userJournal.load());
+        try {
+            userJournal.start();
+        } catch (IOException e) {
+            System.err.println("Error opening user log: " + e.getMessage());
+        }
+
+        // Initialize with default admin and user accounts if no users exist.
+        // Hashed on this thread: a parallel stream here would wait on this class's own initialization.
+        if (users.isEmpty()) {
+            List<User> defaults = new ArrayList<>();
+            // Add default admin user
+            defaults.add(withPassword(new User("admin", null, User.UserType.ADMIN), "password"));
+            // Add default customer user
+            defaults.add(withPassword(new User("designer", null, User.UserType.CUSTOMER), "password"));
+            storeNewUsers(defaults);
+        }
+    }
+
+    public static boolean authenticateUser(String username, String password) {
+        if (username == null || password == null) return false;
+
+        User user = users.get(username);
+        if (user == null) {
+            PasswordHasher.verify(password, getUnknownUserHash());
+            return false;
+        }
+
+        String stored = user.getPassword();
+        if (stored == null) {
+            // A legacy record without a password can't be logged into; take as long as a real check
+            PasswordHasher.verify(password, getUnknownUserHash());
+            return false;
+        }
+        if (PasswordHasher.isHash(stored)) {
+            if (!PasswordHasher.verify(password, stored)) return false;
+
+            // Bring the hash up to the current cost
+            if (PasswordHasher.getIterations(stored) != passwordIterations) {
+                replaceUser(withPassword(user, password));
+            }
+            return true;
+        }
+
+        // Legacy plain-text record: compare, then replace it with a hash
+        if (!MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        replaceUser(withPassword(user, password));
+        return true;
+    }
+
+    public static User getUser(String username) {
+        return username != null ? users.get(username) : null;
+    }
+
+    public static boolean addUser(User user) {
+        if (users.containsKey(user.getUsername())) return false;
+
+        user = withHashedPassword(user);
+        synchronized (userWriteLock) {
+            // Check if username already exists
+            if (users.putIfAbsent(user.getUsername(), user) != null) {
+                return false;
+            }
+            userJournal.put(user.getUsername(), user);
+        }
+        return true;
+    }
+
+    /**
+     * Register several users at once. The log records are queued together and written as one group.
+     * @param newUsers The users to add
+     * @return The users that were added; users whose username was already taken are skipped
+     */
+    public static List<User> addUsers(Collection<User> newUsers) {
+        // Hashing dominates, so spread it across cores before taking the lock
+        List<User> hashed = newUsers.parallelStream()
+                .filter(user -> !users.containsKey(user.getUsername()))
+                .map(UserManager::withHashedPassword)
+                .collect(Collectors.toList());
+        return storeNewUsers(hashed);
+    }
+
+    public static boolean isAdmin(String username) {
+        User user = getUser(username);
+        return user != null && user.getUserType() == User.UserType.ADMIN;
+    }
+
+    /**
+     * @return The PBKDF2 iteration count used for new password hashes
+     */
+    public static int getPasswordIterations() {
+        return passwordIterations;
+    }
+
+    /**
+     * Set the PBKDF2 iteration count. Existing hashes keep their cost until their owner next logs in.
+     * @param adminUsername The administrator making the change
+     * @param iterations The new iteration count
+     * @return true if the count was changed and saved
+     */
+    public static boolean setPasswordIterations(String adminUsername, int iterations) {
+        if (!isAdmin(adminUsername)) return false;
+        if (iterations < PasswordHasher.MIN_ITERATIONS || iterations > PasswordHasher.MAX_ITERATIONS) return false;
+
+        try {
+            ObjectFileIO.writeObject(new File(PASSWORD_POLICY_FILE), iterations);
+        } catch (Exception e) {
+            System.err.println("Error saving password policy: " + e.getMessage());
+            return false;
+        }
+        passwordIterations = iterations;
+        return true;
+    }
+
+    /**
+     * @return The number of registered users
+     */
+    public static int getUserCount() {
+        return users.size();
+    }
+
+    /**
+     * Wait until all user changes have been written to disk
+     * @return true if everything was written
+     */
+    public static boolean flushUsers() {
+        return userJournal.flush();
+    }
+
+    /**
+     * Index and log users whose passwords are already hashed, skipping taken usernames
+     * @return The users that were added
+     */
+    private static List<User> storeNewUsers(List<User> hashed) {
+        Map<String, User> added = new LinkedHashMap<>();
+        synchronized (userWriteLock) {
+            for (User user : hashed) {
+                if (users.putIfAbsent(user.getUsername(), user) == null) {
+                    added.put(user.getUsername(), user);
+                }
+            }
+            userJournal.putAll(added);
+        }
+        return new ArrayList<>(added.values());
+    }
+
+    /**
+     * Store an updated record for an existing user
+     */
+    private static void replaceUser(User updated) {
+        synchronized (userWriteLock) {
+            if (users.replace(updated.getUsername(), updated) != null) {
+                userJournal.put(updated.getUsername(), updated);
+            }
+        }
+    }
+
+    /**
+     * @return The user with its plain-text password replaced by a hash
+     */
+    private static User withHashedPassword(User user) {
+        return PasswordHasher.isHash(user.getPassword()) ? user : withPassword(user, user.getPassword());
+    }
+
+    private static User withPassword(User user, String password) {
+        return new User(user.getUsername(), PasswordHasher.hash(password, passwordIterations), user.getUserType());
+    }
+
+    private static String getUnknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null || PasswordHasher.getIterations(hash) != passwordIterations) {
+            hash = PasswordHasher.hash("", passwordIterations);
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+
+    private static int loadPasswordIterations() {
+        File file = new File(PASSWORD_POLICY_FILE);
+        if (!file.exists()) return PasswordHasher.DEFAULT_ITERATIONS;
+
+        try {
+            int iterations = (Integer) ObjectFileIO.readObject(file);
+            if (iterations >= PasswordHasher.MIN_ITERATIONS && iterations <= PasswordHasher.MAX_ITERATIONS) {
+                return iterations;
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading password policy: " + e.getMessage());
+        }
+        return PasswordHasher.DEFAULT_ITERATIONS;
+    }
+
+    /**
+     * Older versions saved users.dat as a list of users. Rewrite such a file as the
+     * username-keyed map the journal reads as its snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    private static void migrateUserList() {
+        File file = new File(USERS_FILE);
+        if (!file.exists()) return;
+
+        try {
+            Object stored = ObjectFileIO.readObject(file);
+            if (!(stored instanceof List)) return;
+
+            Map<String, User> byName = new HashMap<>();
+            for (User user : (List<User>) stored) {
+                byName.putIfAbsent(user.getUsername(), user);
+            }
+            ObjectFileIO.writeObject(file, byName);
+        } catch (Exception e) {
+            System.err.println("Error migrating users: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+import java.util.*;
+
+/**
+ * Immutable index of furniture SKUs by type and size.
+ * Each type has its SKUs sorted by width, depth and height for dimension range queries, and
+ * arranged as a k-d tree over (width, depth, height) so the closest SKU to a given size is found
+ * in logarithmic time. Build a new catalog when SKUs change; a built catalog can be shared by
+ * any number of threads.
+ */
+public class VariantCatalog {
+
+    // A catalog with no SKUs
+    public static final VariantCatalog EMPTY = new VariantCatalog(Collections.emptyList());
+
+    private static final int WIDTH = 0;
+    private static final int DEPTH = 1;
+    private static final int HEIGHT = 2;
+
+    private final Map<String, TypeIndex> indexes;
+    private final int skuCount;
+
+    /**
+     * The SKUs of one furniture type
+     */
+    private static class TypeIndex {
+        // SKUs laid out as an implicit k-d tree: the node of range [lo, hi) is at the middle,
+        // split on dimension (depth % 3), with smaller values on the left
+        final FurnitureSku[] tree;
+
+        // Per dimension, SKU positions in the tree sorted by that dimension, and their sorted values
+        final int[][] order = new int[3][];
+        final float[][] sortedValues = new float[3][];
+
+        TypeIndex(List<FurnitureSku> skus) {
+            tree = skus.toArray(new FurnitureSku[0]);
+            buildTree(tree, 0, tree.length, 0);
+
+            for (int dim = 0; dim < 3; dim++) {
+                // Sort (value, position) pairs packed into longs to avoid boxing
+                long[] keys = new long[tree.length];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = ((long) sortableBits(value(tree[i], dim)) << 32) | i;
+                }
+                Arrays.sort(keys);
+
+                order[dim] = new int[tree.length];
+                sortedValues[dim] = new float[tree.length];
+                for (int i = 0; i < keys.length; i++) {
+                    order[dim][i] = (int) keys[i];
+                    sortedValues[dim][i] = value(tree[order[dim][i]], dim);
+                }
+            }
+        }
+
+        private static void buildTree(FurnitureSku[] skus, int lo, int hi, int depth) {
+            if (hi - lo <= 1) return;
+            int dim = depth % 3;
+            int mid = (lo + hi) >>> 1;
+            select(skus, lo, hi - 1, mid, dim);
+            buildTree(skus, lo, mid, depth + 1);
+            buildTree(skus, mid + 1, hi, depth + 1);
+        }
+
+        /**
+         * Partially order skus[lo..hi] so that position k holds the element it would have if
+         * sorted by the dimension, with no larger values before it and no smaller values after it
+         */
+        private static void select(FurnitureSku[] skus, int lo, int hi, int k, int dim) {
+            while (lo < hi) {
+                float pivot = value(skus[(lo + hi) >>> 1], dim);
+                int i = lo, j = hi;
+                while (i <= j) {
+                    while (value(skus[i], dim) < pivot) i++;
+                    while (value(skus[j], dim) > pivot) j--;
+                    if (i <= j) {
+                        FurnitureSku tmp = skus[i];
+                        skus[i] = skus[j];
+                        skus[j] = tmp;
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j) {
+                    hi = j;
+                } else if (k >= i) {
+                    lo = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Map a float to an int with the same ordering
+         */
+        private static int sortableBits(float value) {
+            int bits = Float.floatToIntBits(value);
+            return bits ^ ((bits >> 31) & 0x7fffffff);
+        }
+    }
+
+    /**
+     * Running best candidate of a nearest-SKU search
+     */
+    private static class Nearest {
+        FurnitureSku sku;
+        double distance = Double.POSITIVE_INFINITY;
+    }
+
+    private VariantCatalog(Collection<FurnitureSku> skus) {
+        Map<String, List<FurnitureSku>> byType = new HashMap<>();
+        for (FurnitureSku sku : skus) {
+            byType.computeIfAbsent(sku.getFurnitureType(), type -> new ArrayList<>()).add(sku);
+        }
+
+        Map<String, TypeIndex> built = new HashMap<>(byType.size() * 2);
+        for (Map.Entry<String, List<FurnitureSku>> entry : byType.entrySet()) {
+            built.put(entry.getKey(), new TypeIndex(entry.getValue()));
+        }
+        indexes = built;
+        skuCount = skus.size();
+    }
+
+    /**
+     * Build a catalog
+     * @param skus The SKUs to index
+     * @return The catalog
+     */
+    public static VariantCatalog build(Collection<FurnitureSku> skus) {
+        return skus.isEmpty() ? EMPTY : new VariantCatalog(skus);
+    }
+
+    /**
+     * @return The total number of SKUs
+     */
+    public int getSkuCount() {
+        return skuCount;
+    }
+
+    /**
+     * Get the number of SKUs of a furniture type
+     * @param furnitureType The type of furniture
+     * @return The number of SKUs, 0 if the type has none
+     */
+    public int getSkuCount(String furnitureType) {
+        TypeIndex index = indexes.get(furnitureType);
+        return index != null ? index.tree.length : 0;
+    }
+
+    /**
+     * Check whether a furniture type is sold in specific sizes
+     * @param furnitureType The type of furniture
+     * @return true if the type has at least one SKU
+     */
+    public boolean hasVariants(String furnitureType) {
+        return indexes.containsKey(furnitureType);
+    }
+
+    /**
+     * Find the SKU whose size is closest to the given dimensions
+     * @param furnitureType The type of furniture
+     * @param width The wanted width
+     * @param depth The wanted depth
+     * @param height The wanted height
+     * @return The closest SKU, or null if the type has no SKUs
+     */
+    public FurnitureSku findClosest(String furnitureType, float width, float depth, float height) {
+        TypeIndex index = indexes.get(furnitureType);
+        if (index == null) return null;
+
+        float[] target = {width, depth, height};
+        Nearest nearest = new Nearest();
+        searchNearest(index.tree, 0, index.tree.length, 0, target, nearest);
+        return nearest.sku;
+    }
+
+    /**
+     * Find all SKUs of a type whose dimensions fall within the given ranges (inclusive)
+     * @param furnitureType The type of furniture
+     * @param minWidth Smallest width
+     * @param maxWidth Largest width
+     * @param minDepth Smallest depth
+     * @param maxDepth Largest depth
+     * @param minHeight Smallest height
+     * @param maxHeight Largest height
+     * @return The matching SKUs, ordered by the most selective dimension
+     */
+    public List<FurnitureSku> findInRange(String furnitureType, float minWidth, float maxWidth,
+                                          float minDepth, float maxDepth, float minHeight, float maxHeight) {
+        TypeIndex index = indexes.get(furnitureType);
+        if (index == null) return Collections.emptyList();
+
+        float[] min = {minWidth, minDepth, minHeight};
+        float[] max = {maxWidth, maxDepth, maxHeight};
+
+        // Scan only the dimension with the fewest SKUs in range
+        int bestDim = 0;
+        int bestFrom = 0;
+        int bestTo = index.tree.length;
+        for (int dim = 0; dim < 3; dim++) {
+            int from = lowerBound(index.sortedValues[dim], min[dim]);
+            int to = upperBound(index.sortedValues[dim], max[dim]);
+            if (to - from < bestTo - bestFrom) {
+                bestDim = dim;
+                bestFrom = from;
+                bestTo = to;
+            }
+        }
+
+        List<FurnitureSku> result = new ArrayList<>();
+        for (int i = bestFrom; i < bestTo; i++) {
+            FurnitureSku sku = index.tree[index.order[bestDim][i]];
+            if (inRange(sku, min, max)) {
+                result.add(sku);
+            }
+        }
+        return result;
+    }
+
+    private static void searchNearest(FurnitureSku[] tree, int lo, int hi, int depth, float[] target, Nearest nearest) {
+        if (lo >= hi) return;
+
+        int mid = (lo + hi) >>> 1;
+        FurnitureSku node = tree[mid];
+        double dw = node.getWidth() - target[WIDTH];
+        double dd = node.getDepth() - target[DEPTH];
+        double dh = node.getHeight() - target[HEIGHT];
+        double distance = dw * dw + dd * dd + dh * dh;
+        if (distance < nearest.distance) {
+            nearest.distance = distance;
+            nearest.sku = node;
+        }
+
+        int dim = depth % 3;
+        double diff = target[dim] - value(node, dim);
+        if (diff < 0) {
+            searchNearest(tree, lo, mid, depth + 1, target, nearest);
+            if (diff * diff < nearest.distance) searchNearest(tree, mid + 1, hi, depth + 1, target, nearest);
+        } else {
+            searchNearest(tree, mid + 1, hi, depth + 1, target, nearest);
+            if (diff * diff < nearest.distance) searchNearest(tree, lo, mid, depth + 1, target, nearest);
+        }
+    }
+
+    private static boolean inRange(FurnitureSku sku, float[] min, float[] max) {
+        for (int dim = 0; dim < 3; dim++) {
+            float v = value(sku, dim);
+            if (v < min[dim] || v > max[dim]) return false;
+        }
+        return true;
+    }
+
+    private static float value(FurnitureSku sku, int dim) {
+        switch (dim) {
+            case WIDTH: return sku.getWidth();
+            case DEPTH: return sku.getDepth();
+            default: return sku.getHeight();
+        }
+    }
+
+    /**
+     * @return The first index whose value is >= key
+     */
+    private static int lowerBound(float[] values, float key) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return The first index whose value is > key
+     */
+    private static int upperBound(float[] values, float key) {
+        int lo = 0, hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,354 @@
+import javax.swing.*;
+import java.awt.*;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking work (project files, bundles) off the Event Dispatch Thread.
+ * Each cancellable task runs on its own virtual thread where the runtime has them, otherwise on a
+ * shared pool of daemon threads. Tasks that can't be cancelled, such as saves, run on ordinary
+ * (non-daemon) threads, and the JVM waits for them when it shuts down; windows that end the
+ * application call {@link #whenWritesFinished} first. Progress, results and failures are delivered
+ * on the EDT, and running tasks are listed by every {@link ActivityIndicator} on screen, which can
+ * also cancel them.
+ */
+public final class BackgroundTasks {
+
+    /**
+     * The blocking part of a task
+     */
+    public interface Work<T> {
+        /**
+         * @param progress Where to report progress; also tells the work when it has been cancelled
+         * @return The result handed to the task's success callback
+         */
+        T run(Progress progress) throws Exception;
+    }
+
+    /**
+     * Progress reporting from inside a task, callable from the task's thread
+     */
+    public interface Progress {
+        /**
+         * @param percent 0 to 100, or -1 when the amount of work is unknown
+         * @param message What the task is doing now, or null to keep the task name
+         */
+        void update(int percent, String message);
+
+        boolean isCancelled();
+    }
+
+    /**
+     * A submitted task
+     */
+    public static final class Task<T> implements Progress {
+        private final String name;
+        private final boolean cancellable;
+        private volatile Future<?> future;
+        private volatile boolean cancelled = false;
+        private volatile boolean done = false;
+        private volatile int percent = -1;
+        private volatile String message;
+        private final AtomicBoolean progressPosted = new AtomicBoolean();
+
+        private Task(String name, boolean cancellable) {
+            this.name = name;
+            this.cancellable = cancellable;
+        }
+
+        public String getName() { return name; }
+
+        public boolean isCancellable() { return cancellable; }
+
+        /**
+         * @return Percent complete, or -1 if unknown
+         */
+        public int getPercent() { return percent; }
+
+        /**
+         * @return The latest progress message, or the task name
+         */
+        public String getMessage() {
+            String current = message;
+            return current != null ? current : name;
+        }
+
+        @Override
+        public boolean isCancelled() { return cancelled; }
+
+        /**
+         * @return true once the task's callback has been called
+         */
+        public boolean isDone() { return done; }
+
+        /**
+         * Cancel the task: its thread is interrupted and neither of its callbacks will run.
+         * Ignored for tasks submitted as not cancellable.
+         */
+        public void cancel() {
+            if (!cancellable || cancelled) return;
+            cancelled = true;
+            Future<?> current = future;
+            if (current != null) current.cancel(true);
+            onEdt(() -> finished(this));
+        }
+
+        @Override
+        public void update(int percent, String message) {
+            this.percent = Math.max(-1, Math.min(100, percent));
+            if (message != null) this.message = message;
+            // Coalesce updates: at most one repaint of the indicators is queued at a time
+            if (progressPosted.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    progressPosted.set(false);
+                    fireChanged();
+                });
+            }
+        }
+    }
+
+    /**
+     * Shows the running tasks: a progress bar for the most recent one, how many others are
+     * running, and a button that cancels the most recent one. Hidden while nothing runs.
+     */
+    public static class ActivityIndicator extends JPanel {
+        private static final long serialVersionUID = 1L;
+        private final JLabel label = new JLabel();
+        private final JProgressBar bar = new JProgressBar(0, 100);
+        private final JButton cancelButton = new JButton("Cancel");
+        private final Runnable listener = this::refresh;
+
+        public ActivityIndicator() {
+            super(new FlowLayout(FlowLayout.RIGHT, 6, 0));
+            setOpaque(false);
+            bar.setPreferredSize(new Dimension(120, 14));
+            cancelButton.setMargin(new Insets(0, 6, 0, 6));
+            cancelButton.setFocusable(false);
+            cancelButton.addActionListener(e -> {
+                Task<?> task = latestTask();
+                if (task != null) task.cancel();
+            });
+            add(label);
+            add(bar);
+            add(cancelButton);
+            refresh();
+        }
+
+        @Override
+        public void addNotify() {
+            super.addNotify();
+            listeners.add(listener);
+            refresh();
+        }
+
+        @Override
+        public void removeNotify() {
+            listeners.remove(listener);
+            super.removeNotify();
+        }
+
+        private void refresh() {
+            Task<?> task = latestTask();
+            setVisible(task != null);
+            if (task == null) return;
+
+            int others = running.size() - 1;
+            label.setText(task.getMessage() + (others > 0 ? " (+" + others + " more)" : ""));
+            bar.setIndeterminate(task.getPercent() < 0);
+            if (task.getPercent() >= 0) bar.setValue(task.getPercent());
+            cancelButton.setVisible(task.isCancellable());
+            revalidate();
+            repaint();
+        }
+
+        private static Task<?> latestTask() {
+            return running.isEmpty() ? null : running.get(running.size() - 1);
+        }
+    }
+
+    private static final ExecutorService executor = createExecutor();
+
+    // How long shutdown waits for writes still in progress
+    private static final long SHUTDOWN_WRITE_WAIT_SECONDS = 60;
+
+    // Non-cancellable tasks; idle threads end after a second so they don't hold the JVM open
+    private static final ExecutorService writeExecutor = createWriteExecutor();
+
+    // Non-cancellable tasks submitted and not yet finished running
+    private static final AtomicInteger pendingWrites = new AtomicInteger();
+
+    // Running tasks in submission order; only touched on the EDT
+    private static final List<Task<?>> running = new ArrayList<>();
+    private static final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private BackgroundTasks() {}
+
+    /**
+     * Run a cancellable task in the background
+     * @param name Shown in the activity indicator, e.g. "Loading design..."
+     * @param work The blocking work
+     * @param onSuccess Receives the result on the EDT; may be null
+     * @param onFailure Receives what the work threw on the EDT; may be null to only log it
+     * @return The task, for cancelling it or checking whether it is done
+     */
+    public static <T> Task<T> submit(String name, Work<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        return submit(name, true, work, onSuccess, onFailure);
+    }
+
+    /**
+     * Run a task in the background
+     * @param name Shown in the activity indicator
+     * @param cancellable false for work that must not be abandoned halfway, such as writing a file
+     * @param work The blocking work
+     * @param onSuccess Receives the result on the EDT; may be null
+     * @param onFailure Receives what the work threw on the EDT; may be null to only log it
+     * @return The task
+     */
+    public static <T> Task<T> submit(String name, boolean cancellable, Work<T> work,
+                                     Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<>(name, cancellable);
+        onEdt(() -> {
+            if (task.cancelled) return;
+            running.add(task);
+            fireChanged();
+        });
+
+        if (!cancellable) pendingWrites.incrementAndGet();
+        ExecutorService target = cancellable ? executor : writeExecutor;
+        task.future = target.submit(() -> {
+            T result;
+            try {
+                result = work.run(task);
+            } catch (Throwable e) {
+                if (!cancellable) pendingWrites.decrementAndGet();
+                onEdt(() -> {
+                    if (task.cancelled) return;
+                    finished(task);
+                    if (onFailure != null) {
+                        onFailure.accept(e);
+                    } else {
+                        System.err.println(name + " failed: " + e);
+                    }
+                });
+                return;
+            }
+            if (!cancellable) pendingWrites.decrementAndGet();
+            onEdt(() -> {
+                if (task.cancelled) return;
+                finished(task);
+                if (onSuccess != null) onSuccess.accept(result);
+            });
+        });
+        return task;
+    }
+
+    /**
+     * @param task A task, or null
+     * @return true if the task has been submitted and hasn't finished or been cancelled
+     */
+    public static boolean isRunning(Task<?> task) {
+        return task != null && !task.isCancelled() && !task.isDone();
+    }
+
+    /**
+     * @return true while a task that can't be cancelled, such as a save, is still running
+     */
+    public static boolean hasPendingWrites() {
+        return pendingWrites.get() > 0;
+    }
+
+    /**
+     * Run something once no save or other non-cancellable task is running. If one is, a modal
+     * dialog tells the user the application is waiting for it. Call on the EDT before closing
+     * the last window or exiting.
+     * @param parent The window the dialog belongs to
+     * @param then What to run afterwards, on the EDT
+     */
+    public static void whenWritesFinished(Component parent, Runnable then) {
+        if (!hasPendingWrites()) {
+            then.run();
+            return;
+        }
+
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        JOptionPane pane = new JOptionPane(new Object[]{"Waiting for saves to finish...", bar},
+                JOptionPane.INFORMATION_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[0]);
+        JDialog dialog = pane.createDialog(parent, "Please Wait");
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        Timer poll = new Timer(100, null);
+        poll.addActionListener(e -> {
+            if (!hasPendingWrites()) {
+                poll.stop();
+                dialog.dispose();
+            }
+        });
+        poll.start();
+        dialog.setVisible(true); // Blocks until the poll disposes it
+        then.run();
+    }
+
+    private static void finished(Task<?> task) {
+        task.done = true;
+        if (running.remove(task)) {
+            fireChanged();
+        }
+    }
+
+    private static void fireChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private static void onEdt(Runnable runnable) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            runnable.run();
+        } else {
+            SwingUtilities.invokeLater(runnable);
+        }
+    }
+
+    /**
+     * Virtual thread per task on Java 21+, since the work mostly waits on the disk.
+     * On older runtimes a growing pool of daemon threads.
+     */
+    private static ExecutorService createWriteExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> new Thread(r, "background-write-" + threadCount.incrementAndGet()));
+
+        // System.exit doesn't wait for non-daemon threads, so let a running save finish first
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(SHUTDOWN_WRITE_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    System.err.println("Exiting with a save still in progress");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "background-write-shutdown"));
+        return pool;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "background-task-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.jogamp.opengl.util.texture.Texture;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.util.List;
 
 // Import constants for drawing primitives
 import static com.jogamp.opengl.GL.GL_TRIANGLE_FAN;
@@ -18,6 +19,9 @@ import static com.jogamp.opengl.GL.GL_LINE_LOOP;
 
 public class DesignRenderer implements GLEventListener {
 
+    // Time to issue a frame's GL calls; the GPU's own time isn't included
+    private static final Metrics.Histogram frameTime = Metrics.histogram("render.frame");
+
     private GLU glu;
     private DesignModel designModel;
     private TextRenderer textRenderer;
@@ -145,6 +149,8 @@ public class DesignRenderer implements GLEventListener {
 
     // --- Other Controls ---
     public void setShowGrid(boolean show) { this.showGrid = show; }
+    /** Called on a background thread when an imported model's mesh becomes available to draw. */
+    public void setMeshLoadedListener(Runnable listener) { furnitureRenderer.setMeshLoadedListener(listener); }
     public CameraManager getCameraManager() {
         return cameraManager;
     }
@@ -220,6 +226,9 @@ public class DesignRenderer implements GLEventListener {
         if (designModel == null || cameraManager == null || furnitureRenderer == null || pickingHelper == null) {
             return; // Don't draw if core components are missing
         }
+        long frameStart = System.nanoTime();
+        FlightEvents.FrameRendered frameEvent = new FlightEvents.FrameRendered();
+        frameEvent.begin();
         GL2 gl = drawable.getGL().getGL2();
         gl.glClear(GL2.GL_COLOR_BUFFER_BIT | GL2.GL_DEPTH_BUFFER_BIT);
 
@@ -259,6 +268,19 @@ public class DesignRenderer implements GLEventListener {
         // drawHUD(gl);
 
         gl.glFlush();
+        frameTime.recordSince(frameStart);
+        frameEvent.end();
+        if (frameEvent.shouldCommit()) {
+            List<Furniture> items = designModel.getFurnitureList();
+            frameEvent.itemCount = items != null ? items.size() : 0;
+            if (items != null) {
+                for (Furniture item : items) {
+                    if (item.getTexturePath() != null) frameEvent.texturedCount++;
+                }
+            }
+            frameEvent.commit();
+        }
+        StartupOrchestrator.markFirstFrame();
     }
 
     private void captureMatricesForPicking(GL2 gl) {
@@ -3,7 +3,14 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Floating window to display price information for the current design.
@@ -16,6 +23,7 @@ public class FloatingPricePanel extends JDialog {
 
     // UI Components
     private JLabel totalPriceLabel;
+    private JLabel availabilityLabel;
     private JTextArea breakdownTextArea;
     private JButton closeButton;
     private JButton minimizeButton;
@@ -25,12 +33,85 @@ public class FloatingPricePanel extends JDialog {
     private boolean isPinned = false;
     private Point lastPosition;
 
+    // Formatting runs on one shared background thread, at most once per interval per panel
+    private static final long REFRESH_INTERVAL_MS = 250;
+    private static final ScheduledExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "price-panel-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Last values seen on the EDT, used to skip updates that change nothing
+    private long lastModificationCount = -1;
+    private long lastPriceVersion = -1;
+    private long lastStockVersion = -1;
+    private boolean refreshOnShow = false;
+
+    // Numbers each request on the EDT so results that were overtaken are dropped
+    private long requestSequence = 0;
+
+    private final Object refreshLock = new Object();
+    private PriceSnapshot pendingSnapshot;
+    private boolean refreshScheduled = false;
+    private long lastRefreshTime = 0;
+
+    // Inventory changes arrive on other threads; at most one update is queued on the EDT at a time
+    private final AtomicBoolean inventoryUpdateQueued = new AtomicBoolean();
+    private final InventoryManager.PriceChangeListener priceListener = version -> inventoryChanged();
+    private final InventoryManager.StockChangeListener stockListener = version -> inventoryChanged();
+
+    /**
+     * Copy of the aggregator's totals, taken on the EDT so formatting can run elsewhere
+     */
+    private static class PriceSnapshot {
+        final double total;
+        final String[] types;
+        final double[] subtotals;
+        final int[] counts;
+        final long sequence;
+
+        PriceSnapshot(PriceAggregator prices, long sequence) {
+            this.sequence = sequence;
+            Collection<PriceAggregator.TypeTotal> typeTotals = prices.getTypeTotals();
+            total = prices.getTotal();
+            types = new String[typeTotals.size()];
+            subtotals = new double[types.length];
+            counts = new int[types.length];
+
+            int i = 0;
+            for (PriceAggregator.TypeTotal typeTotal : typeTotals) {
+                types[i] = typeTotal.getType();
+                subtotals[i] = typeTotal.getSubtotal();
+                counts[i] = typeTotal.getCount();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Formatted panel text
+     */
+    private static class PriceText {
+        final String total;
+        final String availability;
+        final Color availabilityColor;
+        final String breakdown;
+
+        PriceText(String total, String availability, Color availabilityColor, String breakdown) {
+            this.total = total;
+            this.availability = availability;
+            this.availabilityColor = availabilityColor;
+            this.breakdown = breakdown;
+        }
+    }
+
     // Color scheme matching existing UI
     private Color textColor = new Color(68, 68, 68);
     private Color backgroundColor = new Color(255, 255, 255);
     private Color accentColor = new Color(213, 204, 189);
     private Color subtleGray = new Color(240, 240, 238);
     private Color priceGreen = new Color(35, 120, 35);
+    private Color shortageRed = new Color(170, 40, 40);
 
     // Fonts
     private Font titleFont = new Font("Segoe UI", Font.BOLD, 16);
@@ -59,6 +140,22 @@ public class FloatingPricePanel extends JDialog {
         // Add dragging functionality
         addDragCapability();
 
+        // Catch up on updates skipped while hidden
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                if (refreshOnShow) {
+                    refreshOnShow = false;
+                    lastModificationCount = -1;
+                    updatePriceData(designModel);
+                }
+            }
+        });
+
+        // Refresh when prices or stock levels change elsewhere
+        InventoryManager.addPriceChangeListener(priceListener);
+        InventoryManager.addStockChangeListener(stockListener);
+
         // Listen for parent window moves to maintain relative position if pinned
         parentFrame.addComponentListener(new ComponentAdapter() {
             @Override
@@ -188,6 +285,12 @@ public class FloatingPricePanel extends JDialog {
         totalPricePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
         panel.add(totalPricePanel);
+
+        // Stock availability of the design's items
+        availabilityLabel = new JLabel(" ");
+        availabilityLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        availabilityLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        panel.add(availabilityLabel);
         panel.add(Box.createVerticalStrut(10));
 
         // Breakdown section
@@ -306,50 +409,172 @@ public class FloatingPricePanel extends JDialog {
     }
 
     /**
-     * Update the UI with data from the design model
+     * Update the UI with data from the design model.
+     * Only a small snapshot of the running totals is taken here; sorting and formatting happen on
+     * a background thread, at most a few times per second, and the result is applied on the EDT.
+     * Calls that change nothing price-related (e.g. a selection change) return immediately.
      */
     public void updatePriceData(DesignModel designModel) {
+        boolean modelChanged = designModel != this.designModel;
         this.designModel = designModel;
 
         if (designModel == null) {
-            totalPriceLabel.setText("Rs.0.00");
-            breakdownTextArea.setText("Add furniture to see price breakdown");
+            lastModificationCount = -1;
+            lastPriceVersion = -1;
+            lastStockVersion = -1;
+            requestSequence++;
+            applyPriceText(new PriceText("Rs.0.00", " ", null, "Add furniture to see price breakdown"));
+            return;
+        }
+
+        // Nothing to lay out while hidden; refreshed when the panel is shown
+        if (!isVisible()) {
+            refreshOnShow = true;
+            return;
+        }
+
+        PriceAggregator prices = designModel.getPriceAggregator();
+        long modificationCount = prices.getModificationCount();
+        long priceVersion = InventoryManager.getPriceVersion();
+        long stockVersion = InventoryManager.getStockVersion();
+        if (!modelChanged && modificationCount == lastModificationCount
+                && priceVersion == lastPriceVersion && stockVersion == lastStockVersion) {
             return;
         }
+        lastModificationCount = modificationCount;
+        lastPriceVersion = priceVersion;
+        lastStockVersion = stockVersion;
+
+        requestRefresh(new PriceSnapshot(prices, ++requestSequence));
+    }
+
+    /**
+     * Called on the thread that changed inventory prices or stock
+     */
+    private void inventoryChanged() {
+        if (!inventoryUpdateQueued.compareAndSet(false, true)) return;
+        SwingUtilities.invokeLater(() -> {
+            inventoryUpdateQueued.set(false);
+            if (designModel != null) updatePriceData(designModel);
+        });
+    }
+
+    /**
+     * Queue a snapshot for formatting. Bursts are coalesced: only the newest snapshot is formatted,
+     * and runs are spaced at least REFRESH_INTERVAL_MS apart.
+     */
+    private void requestRefresh(PriceSnapshot snapshot) {
+        synchronized (refreshLock) {
+            pendingSnapshot = snapshot;
+            if (refreshScheduled) return;
+
+            refreshScheduled = true;
+            long delay = Math.max(0, lastRefreshTime + REFRESH_INTERVAL_MS - System.currentTimeMillis());
+            REFRESH_EXECUTOR.schedule(this::runRefresh, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Format the newest snapshot. Runs on the refresh thread.
+     */
+    private void runRefresh() {
+        PriceSnapshot snapshot;
+        synchronized (refreshLock) {
+            snapshot = pendingSnapshot;
+            pendingSnapshot = null;
+            refreshScheduled = false;
+            lastRefreshTime = System.currentTimeMillis();
+        }
+        if (snapshot == null) return;
+
+        try {
+            PriceText text = formatPriceText(snapshot);
+            SwingUtilities.invokeLater(() -> {
+                if (snapshot.sequence == requestSequence) {
+                    applyPriceText(text);
+                }
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Error updating price panel: " + e.getMessage());
+        }
+    }
 
-        // Calculate total price
-        double totalPrice = designModel.calculateTotalPrice();
+    /**
+     * Build the panel text for a snapshot
+     */
+    private PriceText formatPriceText(PriceSnapshot snapshot) {
         DecimalFormat df = new DecimalFormat("0.00");
-        totalPriceLabel.setText("Rs." + df.format(totalPrice));
+        String total = "Rs." + df.format(snapshot.total);
+
+        if (snapshot.types.length == 0) {
+            return new PriceText(total, " ", null, "Add furniture to see price breakdown");
+        }
+
+        // Sort items by price (highest first)
+        Integer[] order = new Integer[snapshot.types.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(snapshot.subtotals[b], snapshot.subtotals[a]));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i : order) {
+            int count = snapshot.counts[i];
+            sb.append(snapshot.types[i])
+                    .append(" (")
+                    .append(count)
+                    .append(count > 1 ? " items): Rs." : " item): Rs.")
+                    .append(df.format(snapshot.subtotals[i]))
+                    .append("\n");
+        }
 
-        // Get price breakdown
-        Map<String, Double> priceBreakdown = designModel.getPriceBreakdown();
-        Map<String, Integer> furnitureCounts = designModel.getFurnitureCounts();
+        // Stock counters are read lock-free, so this is safe off the EDT
+        Map<String, Integer> itemCounts = new HashMap<>();
+        for (int i = 0; i < snapshot.types.length; i++) {
+            itemCounts.put(snapshot.types[i], snapshot.counts[i]);
+        }
+        Map<String, Integer> shortages = InventoryManager.findStockShortages(itemCounts);
 
-        // Format breakdown text
-        if (priceBreakdown.isEmpty()) {
-            breakdownTextArea.setText("Add furniture to see price breakdown");
+        String availability;
+        Color availabilityColor;
+        if (shortages.isEmpty()) {
+            availability = "Available from stock";
+            availabilityColor = priceGreen;
         } else {
-            StringBuilder sb = new StringBuilder();
-
-            // Sort items by price (highest first)
-            priceBreakdown.entrySet().stream()
-                    .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                    .forEach(entry -> {
-                        String type = entry.getKey();
-                        double price = entry.getValue();
-                        int count = furnitureCounts.getOrDefault(type, 0);
-
-                        sb.append(type)
-                                .append(" (")
-                                .append(count)
-                                .append(count > 1 ? " items): Rs." : " item): Rs.")
-                                .append(df.format(price))
-                                .append("\n");
-                    });
-
-            breakdownTextArea.setText(sb.toString());
+            StringBuilder shortText = new StringBuilder();
+            for (Map.Entry<String, Integer> shortage : shortages.entrySet()) {
+                if (shortText.length() > 0) shortText.append(", ");
+                shortText.append(shortage.getKey()).append(" (").append(shortage.getValue()).append(" short)");
+            }
+            availability = "Short of stock: " + shortText;
+            availabilityColor = shortageRed;
+        }
+
+        return new PriceText(total, availability, availabilityColor, sb.toString());
+    }
+
+    /**
+     * Show formatted text, touching only the components whose text changed
+     */
+    private void applyPriceText(PriceText text) {
+        if (!text.total.equals(totalPriceLabel.getText())) {
+            totalPriceLabel.setText(text.total);
+        }
+        if (!text.availability.equals(availabilityLabel.getText())) {
+            availabilityLabel.setText(text.availability);
+            availabilityLabel.setToolTipText(text.availability.trim().isEmpty() ? null : text.availability);
         }
+        if (text.availabilityColor != null) {
+            availabilityLabel.setForeground(text.availabilityColor);
+        }
+        if (!text.breakdown.equals(breakdownTextArea.getText())) {
+            breakdownTextArea.setText(text.breakdown);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        InventoryManager.removePriceChangeListener(priceListener);
+        InventoryManager.removeStockChangeListener(stockListener);
+        super.dispose();
     }
 
     /**
@@ -0,0 +1,43 @@
+import javax.swing.*;
+
+class FurnishViewApp {
+    public static void main(String[] args) {
+        // Set look and feel (optional, but often improves appearance)
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            System.err.println("Failed to set system look and feel.");
+            // e.printStackTrace(); // Optional: print stack trace for debugging
+        }
+
+        // Initialize project directories
+        ProjectManager.initializeDesignsDirectory();
+
+        // Export render, pick, project I/O and pricing metrics to ./metrics and JMX
+        Metrics.gauge("projects.indexed", ProjectOwnerIndex::getProjectCount);
+        Metrics.gauge("memory.heapUsedMb", () ->
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024.0 * 1024.0));
+        Metrics.start();
+
+        // Load JOGL, users, inventory and the project index in the background while the user logs in
+        StartupOrchestrator.start();
+
+        // Serve quotes and plan previews to a local storefront when a port is configured
+        String quotePort = System.getProperty("furnishview.quoteService.port");
+        if (quotePort != null) {
+            try {
+                new QuoteService(Integer.parseInt(quotePort)).start();
+            } catch (Exception e) {
+                System.err.println("Could not start quote service on port " + quotePort + ": " + e.getMessage());
+            }
+        }
+
+        // Run the application on the Event Dispatch Thread (EDT)
+        SwingUtilities.invokeLater(() -> {
+            // Start with the Login Frame
+            LoginFrame loginFrame = new LoginFrame();
+            loginFrame.setVisible(true);
+            StartupOrchestrator.mark("login-shown");
+        });
+    }
+}
\ No newline at end of file
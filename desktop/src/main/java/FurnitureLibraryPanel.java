@@ -52,6 +52,12 @@ public class FurnitureLibraryPanel {
         // Call the handler method in MainAppFrame
         addFurnitureButton.addActionListener(e -> mainAppFrame.handleAddFurniture());
         mainPanel.add(addFurnitureButton);
+        mainPanel.add(Box.createVerticalStrut(5));
+
+        JButton importModelButton = new JButton("Import Model...");
+        importModelButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+        importModelButton.addActionListener(e -> mainAppFrame.handleImportModel());
+        mainPanel.add(importModelButton);
     }
 
     private JPanel createSectionPanel(String title) {
@@ -2,11 +2,18 @@ import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.util.texture.Texture;
 import java.awt.Color;
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FurnitureRenderer {
 
     private TextureManager textureManager;
 
+    // Model hashes whose meshes were missing from the cache and have been sent for import
+    private final Set<String> requestedMeshes = ConcurrentHashMap.newKeySet();
+    private Runnable meshLoadedListener;
+
     public FurnitureRenderer(TextureManager textureManager) {
         if (textureManager == null) throw new IllegalArgumentException("TextureManager cannot be null");
         this.textureManager = textureManager;
@@ -40,7 +47,13 @@ public class FurnitureRenderer {
         }
         gl.glPolygonMode(GL2.GL_FRONT_AND_BACK, GL2.GL_FILL);
 
-        drawRealisticFurniture(gl, furniture, hasTexture);
+        // Imported models are drawn as their built-in type until their mesh is available
+        Mesh mesh = furniture instanceof ModelFurniture ? findMesh((ModelFurniture) furniture) : null;
+        if (mesh != null) {
+            drawMesh(gl, mesh, furniture, hasTexture);
+        } else {
+            drawRealisticFurniture(gl, furniture, hasTexture);
+        }
 
         if (hasTexture) {
             furnitureTex.disable(gl);
@@ -50,6 +63,76 @@ public class FurnitureRenderer {
         gl.glPopMatrix();
     }
 
+    /**
+     * Set what to call when a mesh that was missing from the cache has been imported, so the
+     * view can redraw. Called on a background thread.
+     */
+    public void setMeshLoadedListener(Runnable listener) {
+        this.meshLoadedListener = listener;
+    }
+
+    /**
+     * Find an imported model's mesh, importing it again from its source file in the background
+     * if this machine's cache doesn't have it
+     * @return The mesh, or null until it is available
+     */
+    private Mesh findMesh(ModelFurniture furniture) {
+        String hash = furniture.getModelHash();
+        if (hash == null) return null;
+
+        // Only the first lookup of a model goes to the cache directory; every frame after that
+        // just checks the meshes already mapped
+        if (!requestedMeshes.add(hash)) return MeshCache.findLoaded(hash);
+        Mesh mesh = MeshCache.find(hash);
+        if (mesh != null) return mesh;
+
+        File source = new File(furniture.getModelPath());
+        if (!source.isFile()) {
+            System.err.println("Model " + furniture.getModelName() + " is not cached and its file is missing: " + source);
+            return null;
+        }
+        MeshCache.importModel(source).whenComplete((imported, error) -> {
+            if (error != null) {
+                System.err.println("Error importing model " + furniture.getModelName() + ": " + error.getMessage());
+            } else if (!imported.getHash().equals(furniture.getModelHash())) {
+                System.err.println("Model file " + source + " no longer matches the imported " + furniture.getModelName());
+                return;
+            }
+            Runnable listener = meshLoadedListener;
+            if (error == null && listener != null) listener.run();
+        });
+        return null;
+    }
+
+    /**
+     * Draw an imported mesh scaled to the item's dimensions, straight from the mapped cache file
+     */
+    private void drawMesh(GL2 gl, Mesh mesh, Furniture furniture, boolean hasTexture) {
+        gl.glPushMatrix();
+        gl.glScalef(furniture.getWidth(), furniture.getHeight(), furniture.getDepth());
+        gl.glEnable(GL2.GL_NORMALIZE); // Normals are scaled with the mesh
+
+        if (hasTexture) {
+            // The mesh has no texture coordinates, so project the texture onto it
+            gl.glTexGeni(GL2.GL_S, GL2.GL_TEXTURE_GEN_MODE, GL2.GL_OBJECT_LINEAR);
+            gl.glTexGeni(GL2.GL_T, GL2.GL_TEXTURE_GEN_MODE, GL2.GL_OBJECT_LINEAR);
+            gl.glTexGenfv(GL2.GL_S, GL2.GL_OBJECT_PLANE, new float[]{1, 0, 0.5f, 0}, 0);
+            gl.glTexGenfv(GL2.GL_T, GL2.GL_OBJECT_PLANE, new float[]{0, 1, 0.5f, 0}, 0);
+            gl.glEnable(GL2.GL_TEXTURE_GEN_S);
+            gl.glEnable(GL2.GL_TEXTURE_GEN_T);
+        }
+
+        gl.glPushClientAttrib(GL2.GL_CLIENT_VERTEX_ARRAY_BIT);
+        gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL2.GL_NORMAL_ARRAY);
+        gl.glVertexPointer(3, GL.GL_FLOAT, 0, mesh.getPositions());
+        gl.glNormalPointer(GL.GL_FLOAT, 0, mesh.getNormals());
+        gl.glDrawElements(GL.GL_TRIANGLES, mesh.getTriangleCount() * 3, GL.GL_UNSIGNED_INT, mesh.getIndices());
+        gl.glPopClientAttrib();
+
+        gl.glPopMatrix();
+    }
+
     private void drawRealisticFurniture(GL2 gl, Furniture furniture, boolean hasTexture) {
         String type = furniture.getType().toLowerCase();
         float w = furniture.getWidth();
@@ -1,11 +1,13 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.File;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Map;
@@ -17,9 +19,11 @@ public class InventoryManagementFrame extends JFrame {
     private JTable inventoryTable;
     private DefaultTableModel tableModel;
     private JButton saveButton;
+    private JButton importButton;
     private JButton cancelButton;
     private JFormattedTextField basePriceField;
     private JFormattedTextField pricePerVolumeField;
+    private JFormattedTextField stockField;
 
     // Updated color palette with natural, desaturated tones (same as ProjectDashboardFrame)
     private Color textColor = new Color(68, 68, 68);      // Dark gray instead of black
@@ -34,6 +38,8 @@ public class InventoryManagementFrame extends JFrame {
     private Font buttonFont = new Font("Segoe UI", Font.BOLD, 14);
 
     private boolean changesMade = false;
+    // Stock level of the selected row when it was shown; edits are applied relative to it
+    private int selectedStockLevel = InventoryManager.UNTRACKED_STOCK;
     private Map<String, FurniturePrice> originalPrices;
 
     public InventoryManagementFrame(JFrame parent) {
@@ -95,7 +101,7 @@ public class InventoryManagementFrame extends JFrame {
         panel.setBackground(backgroundColor);
 
         // Table model
-        String[] columns = {"Furniture Type", "Base Price (Rs.)", "Price per Unit Volume (Rs.)"};
+        String[] columns = {"Furniture Type", "Base Price (Rs.)", "Price per Unit Volume (Rs.)", "In Stock"};
         tableModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -178,6 +184,22 @@ public class InventoryManagementFrame extends JFrame {
         pricePerVolumeField.setFont(mainFont);
         formPanel.add(pricePerVolumeField, gbc);
 
+        // Stock field; leave empty to not track stock for the type
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        JLabel stockLabel = new JLabel("Units in Stock:");
+        stockLabel.setFont(mainFont);
+        formPanel.add(stockLabel, gbc);
+
+        gbc.gridx = 1;
+        NumberFormat unitsFormat = NumberFormat.getIntegerInstance();
+        unitsFormat.setGroupingUsed(false);
+        stockField = new JFormattedTextField(unitsFormat);
+        stockField.setColumns(10);
+        stockField.setFont(mainFont);
+        stockField.setToolTipText("Leave empty if stock is not tracked for this item");
+        formPanel.add(stockField, gbc);
+
         panel.add(formPanel, BorderLayout.CENTER);
 
         // Buttons panel
@@ -190,11 +212,17 @@ public class InventoryManagementFrame extends JFrame {
         applyFlatButtonStyle(saveButton, false);
         saveButton.addActionListener(e -> handleSaveButtonClick());
 
+        importButton = new JButton("Import Price Sheet...");
+        importButton.setFont(buttonFont);
+        applyFlatButtonStyle(importButton, true);
+        importButton.addActionListener(e -> handleImportPriceSheet());
+
         cancelButton = new JButton("Close");
         cancelButton.setFont(buttonFont);
         applyFlatButtonStyle(cancelButton, true);
         cancelButton.addActionListener(e -> handleClose());
 
+        buttonsPanel.add(importButton);
         buttonsPanel.add(saveButton);
         buttonsPanel.add(cancelButton);
 
@@ -219,7 +247,8 @@ public class InventoryManagementFrame extends JFrame {
             Object[] rowData = {
                     price.getFurnitureType(),
                     df.format(price.getBasePrice()),
-                    df.format(price.getPricePerUnitVolume())
+                    df.format(price.getPricePerUnitVolume()),
+                    formatStockLevel(InventoryManager.getStockLevel(price.getFurnitureType()))
             };
             tableModel.addRow(rowData);
         }
@@ -242,6 +271,9 @@ public class InventoryManagementFrame extends JFrame {
                 // Update form fields
                 basePriceField.setValue(priceInfo.getBasePrice());
                 pricePerVolumeField.setValue(priceInfo.getPricePerUnitVolume());
+                int stock = InventoryManager.getStockLevel(furnitureType);
+                selectedStockLevel = stock;
+                stockField.setValue(stock != InventoryManager.UNTRACKED_STOCK ? stock : null);
 
                 // Enable save button
                 saveButton.setEnabled(true);
@@ -250,6 +282,7 @@ public class InventoryManagementFrame extends JFrame {
             // Clear form and disable save button
             basePriceField.setValue(0.0);
             pricePerVolumeField.setValue(0.0);
+            stockField.setValue(null);
             saveButton.setEnabled(false);
         }
     }
@@ -266,6 +299,10 @@ public class InventoryManagementFrame extends JFrame {
                 String furnitureType = (String) tableModel.getValueAt(selectedRow, 0);
                 double basePrice = ((Number) basePriceField.getValue()).doubleValue();
                 double pricePerVolume = ((Number) pricePerVolumeField.getValue()).doubleValue();
+                boolean stockTracked = !stockField.getText().trim().isEmpty() && stockField.getValue() != null;
+                int stock = stockTracked
+                        ? ((Number) stockField.getValue()).intValue()
+                        : InventoryManager.UNTRACKED_STOCK;
 
                 // Validate values
                 if (basePrice < 0 || pricePerVolume < 0) {
@@ -275,29 +312,37 @@ public class InventoryManagementFrame extends JFrame {
                             JOptionPane.ERROR_MESSAGE);
                     return;
                 }
-
-                // Update price in inventory manager
-                boolean success = InventoryManager.updateFurniturePrice(
-                        furnitureType, basePrice, pricePerVolume);
-
-                if (success) {
-                    // Update table
-                    DecimalFormat df = new DecimalFormat("0.00");
-                    tableModel.setValueAt(df.format(basePrice), selectedRow, 1);
-                    tableModel.setValueAt(df.format(pricePerVolume), selectedRow, 2);
-
-                    changesMade = true;
-
-                    JOptionPane.showMessageDialog(this,
-                            "Price updated successfully for " + furnitureType,
-                            "Update Successful",
-                            JOptionPane.INFORMATION_MESSAGE);
-                } else {
+                if (stockTracked && stock < 0) {
                     JOptionPane.showMessageDialog(this,
-                            "Failed to update price. Please try again.",
-                            "Update Failed",
+                            "Stock cannot be negative.",
+                            "Invalid Input",
                             JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+
+                // Update price and stock in the background; listeners may start repricing
+                int expectedStock = selectedStockLevel;
+                saveButton.setEnabled(false);
+                SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
+                    @Override
+                    protected Boolean doInBackground() {
+                        return InventoryManager.updateFurniturePrice(furnitureType, basePrice, pricePerVolume)
+                                && InventoryManager.setStockLevel(furnitureType, expectedStock, stock);
+                    }
+
+                    @Override
+                    protected void done() {
+                        saveButton.setEnabled(inventoryTable.getSelectedRow() != -1);
+                        boolean success;
+                        try {
+                            success = get();
+                        } catch (Exception ex) {
+                            success = false;
+                        }
+                        showSaveResult(success, furnitureType, basePrice, pricePerVolume);
+                    }
+                };
+                worker.execute();
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this,
                         "Invalid input: " + ex.getMessage(),
@@ -307,6 +352,148 @@ public class InventoryManagementFrame extends JFrame {
         }
     }
 
+    /**
+     * Update the table row of a saved furniture type and tell the admin how the save went
+     */
+    private void showSaveResult(boolean success, String furnitureType, double basePrice, double pricePerVolume) {
+        if (success) {
+            // Update table; the row may have moved while saving
+            int row = findRow(furnitureType);
+            if (row != -1) {
+                DecimalFormat df = new DecimalFormat("0.00");
+                int stock = InventoryManager.getStockLevel(furnitureType);
+                tableModel.setValueAt(df.format(basePrice), row, 1);
+                tableModel.setValueAt(df.format(pricePerVolume), row, 2);
+                tableModel.setValueAt(formatStockLevel(stock), row, 3);
+                if (row == inventoryTable.getSelectedRow()) {
+                    selectedStockLevel = stock;
+                    stockField.setValue(stock != InventoryManager.UNTRACKED_STOCK ? stock : null);
+                }
+            }
+
+            changesMade = true;
+
+            JOptionPane.showMessageDialog(this,
+                    "Price updated successfully for " + furnitureType,
+                    "Update Successful",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Failed to update price. Please try again.",
+                    "Update Failed",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private int findRow(String furnitureType) {
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (furnitureType.equals(tableModel.getValueAt(row, 0))) return row;
+        }
+        return -1;
+    }
+
+    /**
+     * Import a supplier CSV/TSV price sheet. The sheet is validated in the background and the
+     * valid rows are applied in one batch after the admin confirms.
+     */
+    private void handleImportPriceSheet() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Supplier Price Sheet");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Price Sheets (*.csv, *.tsv, *.txt)", "csv", "tsv", "txt"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = fileChooser.getSelectedFile();
+        SupplierCatalogImporter importer = new SupplierCatalogImporter("LKR");
+        ProgressMonitor monitor = new ProgressMonitor(this, "Validating " + file.getName(), null, 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        importButton.setEnabled(false);
+
+        SwingWorker<SupplierCatalogImporter.ImportResult, Void> worker =
+                new SwingWorker<SupplierCatalogImporter.ImportResult, Void>() {
+            @Override
+            protected SupplierCatalogImporter.ImportResult doInBackground() throws Exception {
+                return importer.validate(file, percent -> {
+                    setProgress(percent);
+                    if (monitor.isCanceled()) cancel(true);
+                });
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                importButton.setEnabled(true);
+                if (isCancelled()) return;
+
+                try {
+                    confirmImport(importer, get());
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(InventoryManagementFrame.this,
+                            "Could not read the price sheet: " + cause.getMessage(),
+                            "Import Failed",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                monitor.setProgress((Integer) e.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+
+    /**
+     * Show the validation summary and commit the valid rows if the admin agrees
+     */
+    private void confirmImport(SupplierCatalogImporter importer, SupplierCatalogImporter.ImportResult result) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(result.getRowCount()).append(" rows read, ")
+                .append(result.getPriceCount()).append(" furniture prices and ")
+                .append(result.getSkuCount()).append(" SKUs valid, ")
+                .append(result.getErrorCount()).append(" rows with errors.\n");
+        if (result.getErrorCount() > 0) {
+            summary.append("\n");
+            for (SupplierCatalogImporter.RowError error : result.getErrors()) {
+                summary.append(error).append("\n");
+            }
+            if (result.getErrorCount() > result.getErrors().size()) {
+                summary.append("... and ").append(result.getErrorCount() - result.getErrors().size())
+                        .append(" more\n");
+            }
+        }
+
+        JTextArea summaryArea = new JTextArea(summary.toString(), 12, 50);
+        summaryArea.setEditable(false);
+        summaryArea.setFont(mainFont);
+        JScrollPane summaryPane = new JScrollPane(summaryArea);
+
+        int entryCount = result.getPriceCount() + result.getSkuCount();
+        if (entryCount == 0) {
+            JOptionPane.showMessageDialog(this, summaryPane, "Nothing to Import", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int choice = JOptionPane.showConfirmDialog(this, summaryPane,
+                "Import " + entryCount + " Entries?", JOptionPane.OK_CANCEL_OPTION,
+                result.getErrorCount() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.QUESTION_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        if (importer.commit(result)) {
+            changesMade = true;
+            loadInventoryData();
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Failed to import prices. Please try again.",
+                    "Import Failed",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private String formatStockLevel(int units) {
+        return units == InventoryManager.UNTRACKED_STOCK ? "Not tracked" : String.valueOf(units);
+    }
+
     /**
      * Handle close button or window close
      */
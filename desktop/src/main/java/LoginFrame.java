@@ -4,10 +4,15 @@ import java.awt.event.*;
 import java.awt.geom.Rectangle2D;
 import javax.swing.border.*;
 import java.io.File;
+import java.util.concurrent.ExecutionException;
 
 public class LoginFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
+    private JButton loginButton;
+
+    // Password check in progress, or null
+    private SwingWorker<Boolean, Void> loginWorker;
     private Color primaryColor = new Color(64, 64, 64); // Dark gray
     private Color backgroundColor = Color.WHITE;
     private Font mainFont = new Font("Segoe UI", Font.PLAIN, 14);
@@ -171,7 +176,7 @@ public class LoginFrame extends JFrame {
         formPanel.add(Box.createRigidArea(new Dimension(0, 30)));
 
         // Custom painted flat button with dark background, no border
-        JButton loginButton = new JButton("LOGIN") {
+        loginButton = new JButton("LOGIN") {
             @Override
             protected void paintComponent(Graphics g) {
                 Graphics2D g2d = (Graphics2D) g.create();
@@ -316,40 +321,69 @@ public class LoginFrame extends JFrame {
     }
 
     private void handleLogin() {
+        // Ignore Enter presses while a check is already running
+        if (loginWorker != null) return;
+
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword());
 
         // Debug print to check values
         System.out.println("Attempting login with username: " + username);
 
-        try {
-            if (UserManager.authenticateUser(username, password)) {
-                User user = UserManager.getUser(username);
-                this.dispose();
-
-                // Open the dashboard frame
-                SwingUtilities.invokeLater(() -> {
-                    ProjectDashboardFrame dashboardFrame = new ProjectDashboardFrame(username);
-                    dashboardFrame.setVisible(true);
-                });
-            } else {
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Invalid username or password!",
-                        "Login Failed",
-                        JOptionPane.ERROR_MESSAGE
-                );
+        // Password hashing is deliberately slow, so verify off the EDT
+        setLoginInProgress(true);
+        loginWorker = new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return UserManager.authenticateUser(username, password);
             }
-        } catch (Exception e) {
-            System.err.println("Error during login: " + e.getMessage());
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Login error: " + e.getMessage(),
-                    "Login Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+
+            @Override
+            protected void done() {
+                loginWorker = null;
+                setLoginInProgress(false);
+                try {
+                    if (get()) {
+                        StartupOrchestrator.mark("logged-in");
+                        LoginFrame.this.dispose();
+
+                        // Open the dashboard frame
+                        ProjectDashboardFrame dashboardFrame = new ProjectDashboardFrame(username);
+                        dashboardFrame.setVisible(true);
+                        StartupOrchestrator.mark("dashboard-shown");
+                    } else {
+                        JOptionPane.showMessageDialog(
+                                LoginFrame.this,
+                                "Invalid username or password!",
+                                "Login Failed",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Error during login: " + cause.getMessage());
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            LoginFrame.this,
+                            "Login error: " + cause.getMessage(),
+                            "Login Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            }
+        };
+        loginWorker.execute();
+    }
+
+    /**
+     * Lock the form while a password is being checked
+     */
+    private void setLoginInProgress(boolean inProgress) {
+        usernameField.setEnabled(!inProgress);
+        passwordField.setEnabled(!inProgress);
+        loginButton.setEnabled(!inProgress);
+        loginButton.setText(inProgress ? "SIGNING IN..." : "LOGIN");
+        setCursor(inProgress ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 
     public static void main(String[] args) {
@@ -19,8 +19,13 @@ import com.jogamp.opengl.util.FPSAnimator;     // **** ADDED ****
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.HashSet;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
 
 // The rest of the MainAppFrame class remains the same as the previous version...
 public class MainAppFrame extends JFrame {
@@ -61,8 +66,14 @@ public class MainAppFrame extends JFrame {
     private static final float EPSILON = 1e-3f;
 
     private File currentProjectFile = null;
+    // Bundles opened by design loads; each stays mapped only while its design is the one shown
+    private final Set<ProjectBundle> openBundles = ConcurrentHashMap.newKeySet();
     private String currentProjectName = null;
     private String currentUsername = null;
+    // Units taken from stock by the order placed for this design in this window, or null
+    private Map<String, Integer> orderedStock = null;
+    private JMenuItem placeOrderItem;
+    private JMenuItem cancelOrderItem;
 
     private boolean isRotatingWithKeyboard = false;
     private float keyboardRotateStartAngle = 0f;
@@ -70,6 +81,14 @@ public class MainAppFrame extends JFrame {
     private FloatingPricePanel floatingPricePanel;
     private JToggleButton togglePricePanelButton;
 
+    // Collaborative editing: the session this window is in, if any, and a relay hosted by this process
+    private CollaborationClient collaborationClient;
+    private static CollaborationRelay hostedRelay;
+
+    // Design file reads and writes in progress on BackgroundTasks
+    private BackgroundTasks.Task<?> loadTask;
+    private BackgroundTasks.Task<?> saveTask;
+
 
     // --- Furniture Library Data (Make static and add getters) ---
     private static final String[] FURNITURE_TYPES = {
@@ -110,7 +129,7 @@ public class MainAppFrame extends JFrame {
 
         // Continue with your existing constructor code...
         designModel = new DesignModel();
-        undoManager = new UndoManager();
+        undoManager = new SharedUndoManager();
         setupActions();
 
         GLProfile glp = GLProfile.get(GLProfile.GL2);
@@ -119,6 +138,7 @@ public class MainAppFrame extends JFrame {
         caps.setNumSamples(4);
         designCanvas = new GLJPanel(caps);
         renderer = new DesignRenderer(designModel);
+        renderer.setMeshLoadedListener(() -> designCanvas.repaint());
         designCanvas.addGLEventListener(renderer);
 
         designCanvas.setFocusable(true);
@@ -196,7 +216,7 @@ public class MainAppFrame extends JFrame {
         }
 
         // Continue with initialization as in original constructor
-        undoManager = new UndoManager();
+        undoManager = new SharedUndoManager();
         setupActions();
 
         GLProfile glp = GLProfile.get(GLProfile.GL2);
@@ -205,6 +225,7 @@ public class MainAppFrame extends JFrame {
         caps.setNumSamples(4);
         designCanvas = new GLJPanel(caps);
         renderer = new DesignRenderer(designModel);
+        renderer.setMeshLoadedListener(() -> designCanvas.repaint());
         designCanvas.addGLEventListener(renderer);
 
         designCanvas.setFocusable(true);
@@ -388,10 +409,12 @@ public class MainAppFrame extends JFrame {
         newItem.addActionListener(e -> handleNewDesign());
         JMenuItem openItem = new JMenuItem("Open Design..."); openItem.addActionListener(e -> handleLoadDesign());
         JMenuItem saveItem = new JMenuItem("Save Design..."); saveItem.addActionListener(e -> handleSaveDesign());
+        JMenuItem exportBundleItem = new JMenuItem("Export Bundle..."); exportBundleItem.addActionListener(e -> handleExportBundle());
         JMenuItem exitItem = new JMenuItem("Exit"); exitItem.addActionListener(e -> handleExit());
         fileMenu.add(newItem);
         fileMenu.add(openItem);
         fileMenu.add(saveItem);
+        fileMenu.add(exportBundleItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
         fileMenu.add(dashboardItem);
@@ -413,8 +436,19 @@ public class MainAppFrame extends JFrame {
         JMenuItem togglePricePanelMenuItem = new JMenuItem("Toggle Price Panel");
         togglePricePanelMenuItem.addActionListener(e -> togglePricePanel());
         viewMenu.add(togglePricePanelMenuItem);
+        JMenu collaborateMenu = new JMenu("Collaborate");
+        JMenuItem joinSessionItem = new JMenuItem("Join Session..."); joinSessionItem.addActionListener(e -> handleJoinSession());
+        JMenuItem leaveSessionItem = new JMenuItem("Leave Session"); leaveSessionItem.addActionListener(e -> leaveSession());
+        collaborateMenu.add(joinSessionItem); collaborateMenu.add(leaveSessionItem);
+        JMenu orderMenu = new JMenu("Order");
+        placeOrderItem = new JMenuItem("Place Stock Order..."); placeOrderItem.addActionListener(e -> handlePlaceOrder());
+        cancelOrderItem = new JMenuItem("Cancel Stock Order"); cancelOrderItem.addActionListener(e -> handleCancelOrder());
+        cancelOrderItem.setEnabled(false);
+        orderMenu.add(placeOrderItem); orderMenu.add(cancelOrderItem);
         JMenu helpMenu = new JMenu("Help");
-        menuBar.add(fileMenu); menuBar.add(editMenu); menuBar.add(viewMenu); menuBar.add(helpMenu); setJMenuBar(menuBar);
+        menuBar.add(fileMenu); menuBar.add(editMenu); menuBar.add(viewMenu); menuBar.add(collaborateMenu); menuBar.add(orderMenu); menuBar.add(helpMenu);
+        menuBar.add(Box.createHorizontalGlue()); menuBar.add(new BackgroundTasks.ActivityIndicator()); // File work in progress
+        setJMenuBar(menuBar);
     }
 
     // --- Mouse Interaction ---
@@ -445,6 +479,7 @@ public class MainAppFrame extends JFrame {
                         isDraggingFurniture = true;
                         draggedFurniture = pickedFurniture;
                         dragStartPosition = draggedFurniture.getPosition().clone();
+                        if (collaborationClient != null) collaborationClient.beginMove(draggedFurniture);
 
                         Vector3f clickFloorPos = renderer.screenToWorldFloor(e.getX(), e.getY());
                         if (clickFloorPos != null) {
@@ -517,6 +552,7 @@ public class MainAppFrame extends JFrame {
                         } else {
                             draggedFurniture.setPosition(new Vector3f(proposedX, draggedFurniture.getPosition().y, proposedZ));
                         }
+                        if (collaborationClient != null) collaborationClient.itemMoving(draggedFurniture);
                     }
                 }
 
@@ -528,6 +564,9 @@ public class MainAppFrame extends JFrame {
             public void mouseReleased(MouseEvent e) {
                 finalizeKeyboardMove();
 
+                if (collaborationClient != null && draggedFurniture != null) {
+                    collaborationClient.endMove(draggedFurniture);
+                }
                 if (isDraggingFurniture && draggedFurniture != null && dragStartPosition != null) {
                     if (!draggedFurniture.getPosition().equals(dragStartPosition)) {
                         registerUndoableEdit(new MoveFurnitureEdit(draggedFurniture, dragStartPosition, draggedFurniture.getPosition()));
@@ -576,27 +615,49 @@ public class MainAppFrame extends JFrame {
             return; // User cancelled
         }
 
-        // Use project manager to save with new name
-        ProjectManager.ProjectMetadata metadata = ProjectManager.saveNewProject(
-                designModel,
-                newName,
-                (currentUsername != null) ? currentUsername : "designer"
-        );
+        if (!canStartSave()) return;
 
-        if (metadata != null) {
-            // Update current project info
-            currentProjectFile = new File(metadata.filename);
-            currentProjectName = metadata.projectName;
-            setTitle("Furniture Designer - " + currentProjectName);
+        // Write a copy so editing can go on while the file is written
+        String username = (currentUsername != null) ? currentUsername : "designer";
+        designModel.setCreatedBy(username);
+        DesignModel snapshot = designModel.copy();
 
+        // Use project manager to save with new name
+        saveTask = BackgroundTasks.submit("Saving " + newName.trim() + "...", false,
+                progress -> ProjectManager.saveNewProject(snapshot, newName, username),
+                metadata -> {
+                    if (metadata != null) {
+                        // Update current project info
+                        currentProjectFile = new File(metadata.filename);
+                        currentProjectName = metadata.projectName;
+                        setTitle("Furniture Designer - " + currentProjectName);
+
+                        JOptionPane.showMessageDialog(this,
+                                "Design saved successfully as " + metadata.projectName,
+                                "Save Successful", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Error saving design file.",
+                                "Save Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                error -> JOptionPane.showMessageDialog(this,
+                        "Error saving design file:\n" + error.getMessage(),
+                        "Save Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    /**
+     * Only one save runs at a time, so two writes never race for the same file
+     * @return true if no save is in progress
+     */
+    private boolean canStartSave() {
+        if (BackgroundTasks.isRunning(saveTask)) {
             JOptionPane.showMessageDialog(this,
-                    "Design saved successfully as " + metadata.projectName,
-                    "Save Successful", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    "Error saving design file.",
-                    "Save Error", JOptionPane.ERROR_MESSAGE);
+                    "The design is still being saved. Please try again in a moment.",
+                    "Save In Progress", JOptionPane.INFORMATION_MESSAGE);
+            return false;
         }
+        return true;
     }
 
     // --- Keyboard Interaction ---
@@ -624,6 +685,7 @@ public class MainAppFrame extends JFrame {
             if (!isMovingWithKeyboard) {
                 isMovingWithKeyboard = true;
                 keyboardMoveStartPosition = selected.getPosition().clone();
+                if (collaborationClient != null) collaborationClient.beginMove(selected);
             }
 
             float dx = 0, dz = 0;
@@ -643,6 +705,7 @@ public class MainAppFrame extends JFrame {
             } else {
                 selected.setPosition(proposedPos);
             }
+            if (collaborationClient != null) collaborationClient.itemMoving(selected);
             designCanvas.repaint();
 
         } else if (keyCode == KeyEvent.VK_Q || keyCode == KeyEvent.VK_E) {
@@ -729,6 +792,7 @@ public class MainAppFrame extends JFrame {
     private void finalizeKeyboardMove() {
         if (isMovingWithKeyboard && keyboardMoveStartPosition != null) {
             Furniture selected = designModel.getSelectedFurniture();
+            if (selected != null && collaborationClient != null) collaborationClient.endMove(selected);
             if (selected != null && !selected.getPosition().equals(keyboardMoveStartPosition)) {
                 registerUndoableEdit(new MoveFurnitureEdit(selected, keyboardMoveStartPosition, selected.getPosition()));
             }
@@ -747,6 +811,7 @@ public class MainAppFrame extends JFrame {
             Furniture selected = designModel.getSelectedFurniture();
             if (selected != null) {
                 selected.setPosition(keyboardMoveStartPosition);
+                if (collaborationClient != null) collaborationClient.endMove(selected);
             }
             isMovingWithKeyboard = false;
             keyboardMoveStartPosition = null;
@@ -863,6 +928,60 @@ public class MainAppFrame extends JFrame {
         }
     }
 
+    /**
+     * Import an OBJ or glTF model as a new piece of furniture. The model is parsed (or found in the
+     * mesh cache) in the background; the item is added when its mesh is ready. It is priced as the
+     * library type chosen for it and sized to that type's default height in the model's own proportions.
+     */
+    protected void handleImportModel() {
+        finalizeKeyboardMove();
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle("Import Furniture Model");
+        fc.setFileFilter(new FileNameExtensionFilter("3D Models (obj, gltf, glb)", "obj", "gltf", "glb"));
+        fc.setAcceptAllFileFilterUsed(false);
+        if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION || fc.getSelectedFile() == null) return;
+        File modelFile = fc.getSelectedFile();
+
+        int selectedIndex = furnitureLibraryPanel.getFurnitureLibraryList().getSelectedIndex();
+        Object chosen = JOptionPane.showInputDialog(this, "Library type of " + modelFile.getName() + " (sets its price):",
+                "Import Furniture Model", JOptionPane.QUESTION_MESSAGE, null, FURNITURE_TYPES,
+                FURNITURE_TYPES[selectedIndex >= 0 ? selectedIndex : 0]);
+        if (chosen == null) return;
+        int typeIndex = Arrays.asList(FURNITURE_TYPES).indexOf(chosen);
+
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        MeshCache.importModel(modelFile).whenComplete((mesh, error) -> SwingUtilities.invokeLater(() -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                JOptionPane.showMessageDialog(this, "Could not import " + modelFile.getName() + ":\n" + cause.getMessage(),
+                        "Import Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (designModel.getRoom() == null) return;
+
+            float[] dims = FURNITURE_DIMS[typeIndex];
+            float w = dims[0], d = dims[1], h = dims[2];
+            if (mesh.getHeight() > EPSILON && mesh.getWidth() > EPSILON && mesh.getDepth() > EPSILON) {
+                float scale = h / mesh.getHeight();
+                w = mesh.getWidth() * scale;
+                d = mesh.getDepth() * scale;
+            }
+
+            Vector3f initialPos = designModel.getRoom().calculateCenter();
+            if (initialPos == null) initialPos = new Vector3f(2.5f, 0, 2.5f);
+            initialPos.y = 0;
+
+            Furniture newFurniture = new ModelFurniture(FURNITURE_TYPES[typeIndex], initialPos, w, d, h,
+                    mesh.getHash(), modelFile.getAbsolutePath());
+            designModel.addFurniture(newFurniture);
+            registerUndoableEdit(new AddFurnitureEdit(newFurniture));
+            updateUIFromModel();
+            updateUndoRedoState();
+            designCanvas.repaint();
+        }));
+    }
+
     /**
      * Applies a flat button style with dark grey background and white text to all buttons in the application.
      */
@@ -1228,6 +1347,8 @@ public class MainAppFrame extends JFrame {
         }
     }
     private void performClearDesign() { // Now recognized as defined
+        leaveSession();
+        closeBundlesExcept(null);
         designModel.clearDesign();
         undoManager.discardAllEdits();
         renderer.setDesignModel(designModel);
@@ -1241,54 +1362,71 @@ public class MainAppFrame extends JFrame {
         finalizeKeyboardMove();
         JFileChooser fc = new JFileChooser("./designs");
         fc.setDialogTitle("Open Design File");
-        FileNameExtensionFilter filter = new FileNameExtensionFilter("Furniture Design Files (*.furn)", "furn");
+        FileNameExtensionFilter filter = new FileNameExtensionFilter("Furniture Design Files (*.furn, *.fvb)", "furn", "fvb");
         fc.setFileFilter(filter);
         fc.setAcceptAllFileFilterUsed(false);
         int result = fc.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             File file = fc.getSelectedFile();
-            try {
-                // Use ProjectManager to load the design model
-                DesignModel loadedModel = ProjectManager.loadDesignModel(file);
-
-                if (loadedModel != null) {
-                    // Update the current project information
-                    designModel = loadedModel;
-                    currentProjectFile = file;
-                    currentProjectName = file.getName();
-                    if (currentProjectName.toLowerCase().endsWith(".furn")) {
-                        currentProjectName = currentProjectName.substring(0, currentProjectName.length() - 5);
-                    }
-
-                    // Update the application title to reflect the loaded project
-                    setTitle("Furniture Designer - " + currentProjectName);
+            // A newer choice replaces a load still in progress
+            if (loadTask != null) loadTask.cancel();
+            loadTask = BackgroundTasks.submit("Opening " + file.getName() + "...",
+                    progress -> {
+                        // Bundles carry their own textures; plain projects go through ProjectManager
+                        if (file.getName().toLowerCase().endsWith(ProjectBundle.FILE_EXTENSION)) {
+                            ProjectBundle bundle = ProjectBundle.open(file);
+                            openBundles.add(bundle);
+                            return bundle.getModel();
+                        }
+                        return ProjectManager.loadDesignModel(file);
+                    },
+                    loadedModel -> showLoadedDesign(file, loadedModel),
+                    error -> JOptionPane.showMessageDialog(this,
+                            "Error loading design file:\n" + error.getMessage(),
+                            "Load Error", JOptionPane.ERROR_MESSAGE));
+        }
+    }
 
-                    // Update renderer and UI
-                    renderer.setDesignModel(designModel);
-                    undoManager.discardAllEdits();
-                    updateUIFromModel();
-                    updateUndoRedoState();
+    /**
+     * Replace the current design with one read by handleLoadDesign
+     */
+    private void showLoadedDesign(File file, DesignModel loadedModel) {
+        if (loadedModel != null) {
+            leaveSession();
+            closeBundlesExcept(loadedModel);
+
+            // Update the current project information
+            designModel = loadedModel;
+            currentProjectFile = file;
+            currentProjectName = file.getName();
+            int extensionStart = currentProjectName.lastIndexOf('.');
+            if (extensionStart > 0) {
+                currentProjectName = currentProjectName.substring(0, extensionStart);
+            }
 
-                    // Reset camera to fit the new room
-                    if (renderer != null && designModel.getRoom() != null) {
-                        renderer.updateCameraForModel();
-                    }
+            // Update the application title to reflect the loaded project
+            setTitle("Furniture Designer - " + currentProjectName);
 
-                    designCanvas.repaint();
+            // Update renderer and UI
+            renderer.setDesignModel(designModel);
+            undoManager.discardAllEdits();
+            updateUIFromModel();
+            updateUndoRedoState();
 
-                    JOptionPane.showMessageDialog(this,
-                            "Design loaded successfully from " + file.getName(),
-                            "Load Successful", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                            "Error: Could not load design file.",
-                            "Load Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this,
-                        "Error loading design file:\n" + ex.getMessage(),
-                        "Load Error", JOptionPane.ERROR_MESSAGE);
+            // Reset camera to fit the new room
+            if (renderer != null && designModel.getRoom() != null) {
+                renderer.updateCameraForModel();
             }
+
+            designCanvas.repaint();
+
+            JOptionPane.showMessageDialog(this,
+                    "Design loaded successfully from " + file.getName(),
+                    "Load Successful", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Error: Could not load design file.",
+                    "Load Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -1300,23 +1438,79 @@ public class MainAppFrame extends JFrame {
             designModel.setCreatedBy(currentUsername);
         }
 
+        // Designs opened from a bundle are saved back into the bundle
+        if (currentProjectFile != null && currentProjectFile.getName().toLowerCase().endsWith(ProjectBundle.FILE_EXTENSION)) {
+            exportBundle(currentProjectFile);
+            return;
+        }
+
         // If we have a current project, update it
-        if (currentProjectFile != null && currentProjectFile.exists()) {
-            if (ProjectManager.updateProject(designModel, currentProjectFile)) {
-                JOptionPane.showMessageDialog(this,
-                        "Design updated successfully.",
-                        "Save Successful", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this,
-                        "Error updating design file.",
-                        "Save Error", JOptionPane.ERROR_MESSAGE);
-            }
+        if (currentProjectFile != null) {
+            if (!canStartSave()) return;
+            File file = currentProjectFile;
+            DesignModel snapshot = designModel.copy();
+            saveTask = BackgroundTasks.submit("Saving " + file.getName() + "...", false,
+                    progress -> file.exists() ? ProjectManager.updateProject(snapshot, file) : null,
+                    updated -> {
+                        if (updated == null) {
+                            // The file was deleted since it was opened
+                            handleSaveDesignAs();
+                        } else if (updated) {
+                            JOptionPane.showMessageDialog(this,
+                                    "Design updated successfully.",
+                                    "Save Successful", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this,
+                                    "Error updating design file.",
+                                    "Save Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    error -> JOptionPane.showMessageDialog(this,
+                            "Error updating design file:\n" + error.getMessage(),
+                            "Save Error", JOptionPane.ERROR_MESSAGE));
             return;
         }
 
         handleSaveDesignAs();
     }
 
+    private void handleExportBundle() {
+        finalizeKeyboardMove();
+        JFileChooser fc = new JFileChooser("./designs");
+        fc.setDialogTitle("Export Project Bundle");
+        fc.setFileFilter(new FileNameExtensionFilter("FurnishView Bundles (*.fvb)", "fvb"));
+        fc.setAcceptAllFileFilterUsed(false);
+        String suggestedName = (currentProjectName != null) ? currentProjectName : "MyDesign";
+        fc.setSelectedFile(new File(suggestedName + ProjectBundle.FILE_EXTENSION));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File file = fc.getSelectedFile();
+        if (!file.getName().toLowerCase().endsWith(ProjectBundle.FILE_EXTENSION)) {
+            file = new File(file.getParentFile(), file.getName() + ProjectBundle.FILE_EXTENSION);
+        }
+        exportBundle(file);
+    }
+
+    private void exportBundle(File file) {
+        // Ensure the creator is set before saving
+        if (designModel.getCreatedBy() == null && currentUsername != null) {
+            designModel.setCreatedBy(currentUsername);
+        }
+
+        if (!canStartSave()) return;
+        DesignModel snapshot = designModel.copy();
+        saveTask = BackgroundTasks.submit("Writing " + file.getName() + "...", false,
+                progress -> ProjectBundle.write(snapshot, file),
+                textureCount -> JOptionPane.showMessageDialog(this,
+                        "Bundle saved to " + file.getName() + " with " + textureCount + " texture(s).",
+                        "Export Successful", JOptionPane.INFORMATION_MESSAGE),
+                error -> JOptionPane.showMessageDialog(this,
+                        "Error writing bundle:\n" + error.getMessage(),
+                        "Export Error", JOptionPane.ERROR_MESSAGE));
+    }
+
     private String selectTextureFile() { // Now recognized as defined
         File textureDir = new File("./textures");
         if (!textureDir.exists()) {
@@ -1337,18 +1531,91 @@ public class MainAppFrame extends JFrame {
     }
 
     // Add after other methods
+    /**
+     * Take the design's furniture out of stock. Either every tracked item is reserved or, if another
+     * design got the last units first, nothing is and the shortages are shown.
+     */
+    private void handlePlaceOrder() {
+        finalizeKeyboardMove();
+        Map<String, Integer> counts = InventoryManager.countItemsByType(designModel);
+        if (counts.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "The design has no furniture to order.",
+                    "Place Stock Order", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        StringBuilder summary = new StringBuilder("Reserve these items from stock?\n");
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(counts).entrySet()) {
+            summary.append("\n").append(entry.getValue()).append(" x ").append(entry.getKey());
+        }
+        int choice = JOptionPane.showConfirmDialog(this, summary.toString(), "Place Stock Order",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        if (InventoryManager.reserveStock(counts)) {
+            orderedStock = counts;
+            placeOrderItem.setEnabled(false);
+            cancelOrderItem.setEnabled(true);
+            if (floatingPricePanel != null) floatingPricePanel.updatePriceData(designModel);
+            JOptionPane.showMessageDialog(this, "Stock reserved for this design.",
+                    "Place Stock Order", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            StringBuilder shortText = new StringBuilder("Not enough stock; nothing was reserved.\n");
+            for (Map.Entry<String, Integer> shortage : InventoryManager.findStockShortages(counts).entrySet()) {
+                shortText.append("\n").append(shortage.getKey()).append(": ").append(shortage.getValue()).append(" short");
+            }
+            JOptionPane.showMessageDialog(this, shortText.toString(), "Place Stock Order", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    /**
+     * Return the stock taken by the order placed from this window
+     */
+    private void handleCancelOrder() {
+        if (orderedStock == null) return;
+        InventoryManager.releaseStock(orderedStock);
+        orderedStock = null;
+        placeOrderItem.setEnabled(true);
+        cancelOrderItem.setEnabled(false);
+        if (floatingPricePanel != null) floatingPricePanel.updatePriceData(designModel);
+    }
+
+    /**
+     * Release the mappings of loaded bundles other than the one holding the given design. Also picks
+     * up bundles whose load was cancelled after they were opened.
+     * @param shown The design now shown, or null to close every bundle
+     */
+    private void closeBundlesExcept(DesignModel shown) {
+        for (ProjectBundle bundle : openBundles) {
+            if (bundle.getModel() != shown) {
+                openBundles.remove(bundle);
+                bundle.close();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        closeBundlesExcept(null);
+        super.dispose();
+    }
+
     private void returnToDashboard() {
         int choice = JOptionPane.showConfirmDialog(this,
                 "Return to project dashboard? Unsaved changes will be lost.",
                 "Confirm Navigation", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
         if (choice == JOptionPane.YES_OPTION) {
-            animator.stop();
-            dispose();
-
-            // Open the dashboard with the last username (if known)
-            String username = (currentUsername != null) ? currentUsername : "designer";
-            ProjectDashboardFrame dashboard = new ProjectDashboardFrame(username);
-            dashboard.setVisible(true);
+            // The dashboard should list the project as saved, so let a save in progress finish
+            BackgroundTasks.whenWritesFinished(this, () -> {
+                leaveSession();
+                animator.stop();
+                dispose();
+
+                // Open the dashboard with the last username (if known)
+                String username = (currentUsername != null) ? currentUsername : "designer";
+                ProjectDashboardFrame dashboard = new ProjectDashboardFrame(username);
+                dashboard.setVisible(true);
+            });
         }
     }
 
@@ -1367,12 +1634,16 @@ public class MainAppFrame extends JFrame {
         if (choice == 0) { // Return to Dashboard
             returnToDashboard();
         } else if (choice == 1) { // Exit Application
-            if (floatingPricePanel != null) {
-                floatingPricePanel.dispose();
-            }
-            animator.stop();
-            dispose();
-            // System.exit(0); // Optional
+            // Closing the last window ends the JVM, so don't cut off a save in progress
+            BackgroundTasks.whenWritesFinished(this, () -> {
+                if (floatingPricePanel != null) {
+                    floatingPricePanel.dispose();
+                }
+                leaveSession();
+                animator.stop();
+                dispose();
+                // System.exit(0); // Optional
+            });
         }
         // If choice == 2 (Cancel), do nothing
     }
@@ -1382,10 +1653,215 @@ public class MainAppFrame extends JFrame {
     private void registerUndoableEdit(UndoableEdit edit) { // Now recognized as defined
         if (edit != null) {
             undoManager.addEdit(edit);
+            // Moves were already sent while the item was dragged
+            if (!(edit instanceof MoveFurnitureEdit)) {
+                shareEdit(edit, true);
+            }
             updateUndoRedoState();
         }
     }
 
+    /** Send an edit that has just been done, undone or redone to the collaboration session */
+    private void shareEdit(UndoableEdit edit, boolean redo) {
+        if (collaborationClient != null && edit instanceof SharedEdit) {
+            collaborationClient.send(((SharedEdit) edit).toOperation(redo));
+        }
+    }
+
+    /** Undo manager that shares undos and redos with the collaboration session */
+    private class SharedUndoManager extends UndoManager {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized void undo() throws CannotUndoException {
+            UndoableEdit edit = editToBeUndone();
+            FlightEvents.UndoRedo event = new FlightEvents.UndoRedo();
+            event.begin();
+            super.undo();
+            commitUndoRedoEvent(event, "undo", edit);
+            shareEdit(edit, false);
+        }
+
+        @Override
+        public synchronized void redo() throws CannotRedoException {
+            UndoableEdit edit = editToBeRedone();
+            FlightEvents.UndoRedo event = new FlightEvents.UndoRedo();
+            event.begin();
+            super.redo();
+            commitUndoRedoEvent(event, "redo", edit);
+            shareEdit(edit, true);
+        }
+
+        private void commitUndoRedoEvent(FlightEvents.UndoRedo event, String action, UndoableEdit edit) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.action = action;
+                event.edit = edit != null ? edit.getPresentationName() : null;
+                event.commit();
+            }
+        }
+    }
+
+    // --- Collaboration ---
+    private void handleJoinSession() {
+        finalizeKeyboardMove();
+
+        JTextField relayField = new JTextField("localhost:" + CollaborationRelay.DEFAULT_PORT, 20);
+        JTextField sessionField = new JTextField(currentProjectName != null ? currentProjectName : "design", 20);
+        JCheckBox hostCheckBox = new JCheckBox("Host the relay on this computer", hostedRelay != null);
+        JPanel form = new JPanel(new GridLayout(0, 1, 0, 4));
+        form.add(new JLabel("Relay (host:port):"));
+        form.add(relayField);
+        form.add(new JLabel("Session name:"));
+        form.add(sessionField);
+        form.add(hostCheckBox);
+
+        int choice = JOptionPane.showConfirmDialog(this, form, "Join Collaboration Session",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        String relay = relayField.getText().trim();
+        String sessionName = sessionField.getText().trim();
+        int colon = relay.lastIndexOf(':');
+        String host;
+        int port;
+        try {
+            host = colon > 0 ? relay.substring(0, colon) : relay;
+            port = colon > 0 ? Integer.parseInt(relay.substring(colon + 1)) : CollaborationRelay.DEFAULT_PORT;
+            if (host.isEmpty() || sessionName.isEmpty()) throw new NumberFormatException("Missing host or session");
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Enter the relay as host:port and a session name.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (hostCheckBox.isSelected() && hostedRelay == null) {
+            try {
+                hostedRelay = new CollaborationRelay(port);
+                hostedRelay.start();
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "Could not start the relay on port " + port + ":\n" + ex.getMessage(),
+                        "Collaboration Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+
+        leaveSession();
+        byte[] snapshot = CollaborationClient.encodeSnapshot(designModel);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<CollaborationClient, Void>() {
+            @Override
+            protected CollaborationClient doInBackground() throws Exception {
+                return CollaborationClient.connect(host, port, sessionName, currentUsername, snapshot, SwingUtilities::invokeLater);
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    startSession(get());
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(MainAppFrame.this,
+                            "Could not join session at " + relay + ":\n" + cause.getMessage(),
+                            "Collaboration Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void startSession(CollaborationClient client) {
+        DesignModel sessionModel = client.getSessionModel();
+        if (sessionModel != null) {
+            // Joining an existing session: edit its design instead of ours
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "Session \"" + client.getSessionName() + "\" already has a design.\n"
+                            + "Replace your current design with it? Unsaved changes and undo history will be lost,\n"
+                            + "and the session's design will be saved under a new name.",
+                    "Join Existing Session", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (choice != JOptionPane.YES_OPTION) {
+                client.leave();
+                return;
+            }
+
+            // Saving must not overwrite our own project with the session's design
+            currentProjectFile = null;
+            currentProjectName = null;
+            closeBundlesExcept(null);
+            designModel = sessionModel;
+            if (designModel.getCreatedBy() == null && currentUsername != null) {
+                designModel.setCreatedBy(currentUsername);
+            }
+            renderer.setDesignModel(designModel);
+            undoManager.discardAllEdits();
+            if (designModel.getRoom() != null) {
+                renderer.updateCameraForModel();
+            }
+        }
+
+        collaborationClient = client;
+        client.start(designModel, new CollaborationClient.Listener() {
+            @Override
+            public void operationApplied(DesignOperation operation) {
+                updateUIFromModel();
+                designCanvas.repaint();
+            }
+
+            @Override
+            public void participantsChanged(java.util.List<String> usernames) {
+                updateSessionTitle();
+            }
+
+            @Override
+            public void disconnected(String reason) {
+                collaborationClient = null;
+                updateSessionTitle();
+                JOptionPane.showMessageDialog(MainAppFrame.this,
+                        "Disconnected from the collaboration session:\n" + reason + "\nYour copy of the design is kept.",
+                        "Collaboration", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+
+        updateUIFromModel();
+        updateUndoRedoState();
+        updateSessionTitle();
+        designCanvas.repaint();
+    }
+
+    private void leaveSession() {
+        if (collaborationClient != null) {
+            collaborationClient.leave();
+            collaborationClient = null;
+            updateSessionTitle();
+        }
+    }
+
+    private void updateSessionTitle() {
+        String title = "Furniture Designer - " + (currentProjectName != null ? currentProjectName : "New Design");
+        if (collaborationClient != null) {
+            title += " [session " + collaborationClient.getSessionName() + ": "
+                    + String.join(", ", collaborationClient.getParticipants()) + "]";
+        }
+        setTitle(title);
+    }
+
+    /**
+     * The design's copy of an item. In a session a collaborator may have removed and restored it,
+     * leaving an edit holding the old object.
+     */
+    private Furniture live(Furniture furniture) {
+        Furniture current = designModel.findFurniture(furniture.getId());
+        return current != null ? current : furniture;
+    }
+
+    /** Put a removed item back. If a collaborator already restored it, their copy takes our values. */
+    private void restoreFurniture(Furniture furniture) {
+        if (designModel.findFurniture(furniture.getId()) == null) {
+            designModel.addFurniture(furniture);
+        } else {
+            DesignOperation.addFurniture(furniture).apply(designModel);
+        }
+    }
+
     private void updateUndoRedoState() { // Now recognized as defined
         undoAction.setEnabled(undoManager.canUndo()); undoAction.putValue(Action.NAME, undoManager.getUndoPresentationName());
         redoAction.setEnabled(undoManager.canRedo()); redoAction.putValue(Action.NAME, undoManager.getRedoPresentationName());
@@ -1407,25 +1883,38 @@ public class MainAppFrame extends JFrame {
 
 
     // --- Undoable Edit Classes (Inner classes) ---
-    private class AddFurnitureEdit extends AbstractUndoableEdit {
+
+    /** An edit that can be described to collaborators as a DesignOperation */
+    private interface SharedEdit {
+        /**
+         * @param redo true for the operation that does the edit, false for the one that undoes it
+         * @return The operation, built after the edit has been done or undone
+         */
+        DesignOperation toOperation(boolean redo);
+    }
+
+    private class AddFurnitureEdit extends AbstractUndoableEdit implements SharedEdit {
         private final Furniture addedFurniture;
         public AddFurnitureEdit(Furniture f) { this.addedFurniture = f; }
         @Override public String getPresentationName() { return "Add " + addedFurniture.getType(); }
         @Override public void undo() throws CannotUndoException {
             super.undo();
-            designModel.removeFurniture(addedFurniture);
+            designModel.removeFurniture(live(addedFurniture));
             updateUIFromModel(); // This will now update the price panel too
             designCanvas.repaint();
         }
         @Override public void redo() throws CannotRedoException {
             super.redo();
-            designModel.addFurniture(addedFurniture);
+            restoreFurniture(addedFurniture);
             updateUIFromModel(); // This will now update the price panel too
             designCanvas.repaint();
         }
+        @Override public DesignOperation toOperation(boolean redo) {
+            return redo ? DesignOperation.addFurniture(addedFurniture) : DesignOperation.removeFurniture(addedFurniture);
+        }
     }
 
-    private class RemoveFurnitureEdit extends AbstractUndoableEdit {
+    private class RemoveFurnitureEdit extends AbstractUndoableEdit implements SharedEdit {
         private final Furniture removedFurniture;
 
         public RemoveFurnitureEdit(Furniture f) {
@@ -1440,7 +1929,7 @@ public class MainAppFrame extends JFrame {
         @Override
         public void undo() throws CannotUndoException {
             super.undo();
-            designModel.addFurniture(removedFurniture);
+            restoreFurniture(removedFurniture);
             updateUIFromModel(); // This already exists and should update all panels
             designCanvas.repaint();
         }
@@ -1448,20 +1937,35 @@ public class MainAppFrame extends JFrame {
         @Override
         public void redo() throws CannotRedoException {
             super.redo();
-            designModel.removeFurniture(removedFurniture);
+            designModel.removeFurniture(live(removedFurniture));
             updateUIFromModel(); // This already exists and should update all panels
             designCanvas.repaint();
         }
+
+        @Override
+        public DesignOperation toOperation(boolean redo) {
+            return redo ? DesignOperation.removeFurniture(removedFurniture) : DesignOperation.addFurniture(removedFurniture);
+        }
     }
-    private class MoveFurnitureEdit extends AbstractUndoableEdit { // Now recognized
+    private class MoveFurnitureEdit extends AbstractUndoableEdit implements SharedEdit { // Now recognized
         private final Furniture movedFurniture; private final Vector3f oldPos, newPos;
         public MoveFurnitureEdit(Furniture f, Vector3f oldP, Vector3f newP) {
             this.movedFurniture = f; this.oldPos = oldP.clone(); this.newPos = newP.clone(); }
+        // Moves are applied as offsets, so moves made meanwhile by collaborators are kept
+        private void shift(Vector3f from, Vector3f to) {
+            Furniture f = live(movedFurniture); Vector3f p = f.getPosition();
+            f.setPosition(new Vector3f(p.x + to.x - from.x, p.y + to.y - from.y, p.z + to.z - from.z));
+            designModel.setSelectedFurniture(f);
+        }
         @Override public String getPresentationName() { return "Move " + movedFurniture.getType(); }
-        @Override public void undo() throws CannotUndoException { super.undo(); movedFurniture.setPosition(oldPos); designModel.setSelectedFurniture(movedFurniture); updateUIFromModel(); designCanvas.repaint(); }
-        @Override public void redo() throws CannotRedoException { super.redo(); movedFurniture.setPosition(newPos); designModel.setSelectedFurniture(movedFurniture); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public void undo() throws CannotUndoException { super.undo(); shift(newPos, oldPos); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public void redo() throws CannotRedoException { super.redo(); shift(oldPos, newPos); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public DesignOperation toOperation(boolean redo) {
+            Vector3f from = redo ? oldPos : newPos, to = redo ? newPos : oldPos;
+            return DesignOperation.moveFurniture(movedFurniture, to.x - from.x, to.y - from.y, to.z - from.z);
+        }
     }
-    private class ChangeFurnitureDimensionsEdit extends AbstractUndoableEdit {
+    private class ChangeFurnitureDimensionsEdit extends AbstractUndoableEdit implements SharedEdit {
         private final Furniture furniture;
         private final float oldW, oldD, oldH, newW, newD, newH;
 
@@ -1473,7 +1977,12 @@ public class MainAppFrame extends JFrame {
         }
 
         private void apply(float w, float d, float h) {
-            furniture.setWidth(w); furniture.setDepth(d); furniture.setHeight(h);
+            designModel.resizeFurniture(live(furniture), w, d, h);
+        }
+
+        @Override
+        public DesignOperation toOperation(boolean redo) {
+            return DesignOperation.resizeFurniture(live(furniture));
         }
 
         @Override
@@ -1485,7 +1994,7 @@ public class MainAppFrame extends JFrame {
         public void undo() throws CannotUndoException {
             super.undo();
             apply(oldW, oldD, oldH);
-            designModel.setSelectedFurniture(furniture);
+            designModel.setSelectedFurniture(live(furniture));
             updateUIFromModel(); // This will update all panels including price panel
             designCanvas.repaint();
         }
@@ -1494,24 +2003,25 @@ public class MainAppFrame extends JFrame {
         public void redo() throws CannotRedoException {
             super.redo();
             apply(newW, newD, newH);
-            designModel.setSelectedFurniture(furniture);
+            designModel.setSelectedFurniture(live(furniture));
             updateUIFromModel(); // This will update all panels including price panel
             designCanvas.repaint();
         }
     }
 
-    private class ChangeFurnitureRotationEdit extends AbstractUndoableEdit { // Now recognized
+    private class ChangeFurnitureRotationEdit extends AbstractUndoableEdit implements SharedEdit { // Now recognized
         private final Furniture furniture; private final float oldRotY, newRotY;
         public ChangeFurnitureRotationEdit(Furniture f, float newRot) {
             this.furniture = f; this.oldRotY = f.getRotation().y; this.newRotY = newRot;
             apply(newRotY); // Apply immediately
         }
-        private void apply(float rotY) { furniture.getRotation().y = rotY; }
+        private void apply(float rotY) { live(furniture).getRotation().y = rotY; }
         @Override public String getPresentationName() { return "Rotate " + furniture.getType(); }
-        @Override public void undo() throws CannotUndoException { super.undo(); apply(oldRotY); designModel.setSelectedFurniture(furniture); updateUIFromModel(); designCanvas.repaint(); }
-        @Override public void redo() throws CannotRedoException { super.redo(); apply(newRotY); designModel.setSelectedFurniture(furniture); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public void undo() throws CannotUndoException { super.undo(); apply(oldRotY); designModel.setSelectedFurniture(live(furniture)); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public void redo() throws CannotRedoException { super.redo(); apply(newRotY); designModel.setSelectedFurniture(live(furniture)); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public DesignOperation toOperation(boolean redo) { return DesignOperation.rotateFurniture(live(furniture)); }
     }
-    private class ChangeFurnitureAppearanceEdit extends AbstractUndoableEdit { // Now recognized
+    private class ChangeFurnitureAppearanceEdit extends AbstractUndoableEdit implements SharedEdit { // Now recognized
         private final Furniture furniture; private final Color oldColor, newColor; private final String oldTexture, newTexture;
         public ChangeFurnitureAppearanceEdit(Furniture f, Color c, String t) {
             this.furniture = f;
@@ -1521,14 +2031,16 @@ public class MainAppFrame extends JFrame {
             apply(this.newColor, this.newTexture);
         }
         private void apply(Color c, String t) {
-            furniture.setColor(c);
-            if (t != null) furniture.setTexturePath(t.isEmpty() ? null : t);
+            Furniture f = live(furniture);
+            f.setColor(c);
+            if (t != null) f.setTexturePath(t.isEmpty() ? null : t);
         }
         @Override public String getPresentationName() { return "Change " + furniture.getType() + " Appearance"; }
-        @Override public void undo() throws CannotUndoException { super.undo(); apply(oldColor, oldTexture); designModel.setSelectedFurniture(furniture); updateUIFromModel(); designCanvas.repaint(); }
-        @Override public void redo() throws CannotRedoException { super.redo(); apply(newColor, newTexture); designModel.setSelectedFurniture(furniture); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public void undo() throws CannotUndoException { super.undo(); apply(oldColor, oldTexture); designModel.setSelectedFurniture(live(furniture)); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public void redo() throws CannotRedoException { super.redo(); apply(newColor, newTexture); designModel.setSelectedFurniture(live(furniture)); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public DesignOperation toOperation(boolean redo) { return DesignOperation.furnitureAppearance(live(furniture)); }
     }
-    private class ChangeRoomAppearanceEdit extends AbstractUndoableEdit { // Now recognized
+    private class ChangeRoomAppearanceEdit extends AbstractUndoableEdit implements SharedEdit { // Now recognized
         private final Room room; private final boolean isWall;
         private final Color oldColor, newColor; private final String oldTexture, newTexture;
         public ChangeRoomAppearanceEdit(Room r, boolean wall, Color c, String t) {
@@ -1551,8 +2063,9 @@ public class MainAppFrame extends JFrame {
         @Override public String getPresentationName() { return "Change " + (isWall ? "Wall" : "Floor") + " Appearance"; }
         @Override public void undo() throws CannotUndoException { super.undo(); apply(oldColor, oldTexture); updateUIFromModel(); designCanvas.repaint(); }
         @Override public void redo() throws CannotRedoException { super.redo(); apply(newColor, newTexture); updateUIFromModel(); designCanvas.repaint(); }
+        @Override public DesignOperation toOperation(boolean redo) { return DesignOperation.roomAppearance(room, isWall); }
     }
-    private class ChangeRoomPropertiesEdit extends AbstractUndoableEdit { // Now recognized
+    private class ChangeRoomPropertiesEdit extends AbstractUndoableEdit implements SharedEdit { // Now recognized
         private final Room room;
         private final Room.RoomShape oldShape, newShape;
         private final float oldH, newH;
@@ -1586,6 +2099,7 @@ public class MainAppFrame extends JFrame {
             updateUIFromModel();
             if(renderer != null && designModel.getRoom() != null) { renderer.updateCameraForModel(); }
         }
+        @Override public DesignOperation toOperation(boolean redo) { return DesignOperation.roomProperties(room); }
     }
 
 }
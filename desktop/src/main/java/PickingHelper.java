@@ -7,6 +7,8 @@ public class PickingHelper {
     // This class might not need state if matrices/viewport are passed in each time.
     // Or, DesignRenderer could update cached matrices here. Let's pass them in.
 
+    private static final Metrics.Histogram pickTime = Metrics.histogram("pick");
+
     public PickingHelper() {}
 
     /** Unprojects screen coordinates onto a world-space plane (Y = planeY). */
@@ -75,6 +77,24 @@ public class PickingHelper {
     /** Performs picking to find the furniture under the screen coordinates. */
     public Furniture pickFurniture(int screenX, int screenY, DesignModel model,
                                    double[] modelviewMatrix, double[] projectionMatrix, int[] viewport, boolean is3D)
+    {
+        long start = System.nanoTime();
+        FlightEvents.PickPerformed event = new FlightEvents.PickPerformed();
+        event.begin();
+        Furniture picked = findFurnitureAt(screenX, screenY, model, modelviewMatrix, projectionMatrix, viewport, is3D);
+        pickTime.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.candidateCount = (model != null && model.getFurnitureList() != null) ? model.getFurnitureList().size() : 0;
+            event.hit = picked != null;
+            event.pickedType = picked != null ? picked.getType() : null;
+            event.commit();
+        }
+        return picked;
+    }
+
+    private Furniture findFurnitureAt(int screenX, int screenY, DesignModel model,
+                                      double[] modelviewMatrix, double[] projectionMatrix, int[] viewport, boolean is3D)
     {
         if (model == null || model.getFurnitureList() == null) {
             return null;
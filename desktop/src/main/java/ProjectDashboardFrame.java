@@ -11,6 +11,9 @@ import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
 /**
  * Dashboard screen that appears after login and before the main design interface.
@@ -32,11 +35,21 @@ public class ProjectDashboardFrame extends JFrame {
     private JButton logoutButton;
     private JLabel welcomeLabel;
     private JLabel statsLabel;
+    private JProgressBar scanProgressBar;
+    private BackgroundTasks.Task<?> openTask;
+
+    private static final Metrics.Histogram scanTime = Metrics.histogram("dashboard.scan");
 
     // State
     private String currentUser;
     private boolean isAdmin = false;
     private List<ProjectManager.ProjectMetadata> projects;
+    private ProjectScanWorker scanWorker;
+    private DesignsDirectoryWatcher designsWatcher;
+    // Reads of existing project files that failed, by path; only touched on the watcher thread
+    private final Map<String, Integer> readRetries = new HashMap<>();
+    private static final int MAX_READ_RETRIES = 5;
+    private ProjectRepricer.Listener repricerListener;
 
     // Updated color palette with natural, desaturated tones
     private Color textColor = new Color(68, 68, 68);      // Dark gray instead of black
@@ -65,7 +78,17 @@ public class ProjectDashboardFrame extends JFrame {
         setTitle("FurnishView - Project Dashboard");
         setSize(900, 600);
         setLocationRelativeTo(null);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Exit once any duplicate or delete still writing to the designs folder has finished
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                BackgroundTasks.whenWritesFinished(ProjectDashboardFrame.this, () -> {
+                    dispose();
+                    System.exit(0);
+                });
+            }
+        });
         setResizable(true);
 
         // Initialize the UI
@@ -73,6 +96,13 @@ public class ProjectDashboardFrame extends JFrame {
 
         // Load saved projects data for the current user
         loadProjects();
+
+        // Pick up projects saved, changed or deleted by other users without a full rescan
+        startDesignsWatcher();
+
+        // Refresh the price column when inventory price changes reprice the cached projects
+        repricerListener = repriced -> SwingUtilities.invokeLater(() -> applyRepricedProjects(repriced));
+        ProjectRepricer.addListener(repricerListener);
     }
 
     private void initializeUI() {
@@ -177,11 +207,25 @@ public class ProjectDashboardFrame extends JFrame {
         scrollPane.getViewport().setBackground(backgroundColor);
         panel.add(scrollPane, BorderLayout.CENTER);
 
-        // Statistics label
+        // Statistics label and scan progress
+        JPanel statusPanel = new JPanel(new BorderLayout(10, 0));
+        statusPanel.setBackground(backgroundColor);
+
         statsLabel = new JLabel("Total Projects: 0");
         statsLabel.setFont(mainFont);
         statsLabel.setForeground(textColor);
-        panel.add(statsLabel, BorderLayout.SOUTH);
+        statusPanel.add(statsLabel, BorderLayout.WEST);
+
+        // Opening, duplicating and deleting projects run in the background
+        statusPanel.add(new BackgroundTasks.ActivityIndicator(), BorderLayout.CENTER);
+
+        scanProgressBar = new JProgressBar(0, 100);
+        scanProgressBar.setStringPainted(true);
+        scanProgressBar.setPreferredSize(new Dimension(200, 18));
+        scanProgressBar.setVisible(false);
+        statusPanel.add(scanProgressBar, BorderLayout.EAST);
+
+        panel.add(statusPanel, BorderLayout.SOUTH);
 
         return panel;
     }
@@ -253,6 +297,13 @@ public class ProjectDashboardFrame extends JFrame {
             manageInventoryButton.setAlignmentX(Component.LEFT_ALIGNMENT);
             manageInventoryButton.addActionListener(e -> manageInventory());
             panel.add(manageInventoryButton);
+            panel.add(Box.createRigidArea(new Dimension(0, 10)));
+
+            // Password hashing cost button
+            JButton passwordSecurityButton = createCustomButton("Password Security");
+            passwordSecurityButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+            passwordSecurityButton.addActionListener(e -> configurePasswordSecurity());
+            panel.add(passwordSecurityButton);
         }
 
         return panel;
@@ -322,42 +373,179 @@ public class ProjectDashboardFrame extends JFrame {
     }
 
     private void loadProjects() {
+        // Stop a scan that is still running from an earlier refresh
+        cancelProjectScan();
+
         // Clear existing data
         tableModel.setRowCount(0);
         projects = new ArrayList<>();
+        updateProjectStats();
+
+        // Scan the project files in the background; rows stream in as they are read
+        scanWorker = new ProjectScanWorker(currentUser, isAdmin);
+        scanProgressBar.setValue(0);
+        scanProgressBar.setString("Loading projects...");
+        scanProgressBar.setVisible(true);
+        scanWorker.execute();
+    }
+
+    /**
+     * Cancel the background project scan, if one is running
+     */
+    private void cancelProjectScan() {
+        if (scanWorker != null) {
+            scanWorker.cancel(true);
+            scanWorker = null;
+        }
+        if (scanProgressBar != null) {
+            scanProgressBar.setVisible(false);
+        }
+    }
 
-        // Get projects for the current user
-        List<ProjectManager.ProjectMetadata> userProjects = ProjectManager.getProjectsForUser(currentUser);
-        projects.addAll(userProjects);
+    /**
+     * Insert a project row, keeping the list ordered by last modified date (newest first).
+     * An existing row for the same file is replaced.
+     */
+    private void addProjectRow(ProjectManager.ProjectMetadata project) {
+        removeProjectRow(project.filename);
+
+        int index = 0;
+        while (index < projects.size()
+                && projects.get(index).lastModifiedDate.compareTo(project.lastModifiedDate) >= 0) {
+            index++;
+        }
+        projects.add(index, project);
 
-        // Add to table model
         DecimalFormat df = new DecimalFormat("0.00");
-        for (ProjectManager.ProjectMetadata project : projects) {
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm");
+        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm");
+        Object[] rowData = {
+                project.projectName,
+                project.roomType,
+                project.itemCount,
+                df.format(project.estimatedPrice),
+                sdf.format(project.lastModifiedDate),
+                project.createdBy
+        };
+        tableModel.insertRow(index, rowData);
+    }
 
-            // Calculate estimated price for the project
-            double estimatedPrice = 0.0;
-            File file = new File(project.filename);
-            try {
-                DesignModel model = ProjectManager.loadDesignModel(file);
-                if (model != null) {
-                    estimatedPrice = model.calculateTotalPrice();
+    /**
+     * Remove the row for a project file, if present
+     * @return true if a row was removed
+     */
+    private boolean removeProjectRow(String filename) {
+        for (int i = 0; i < projects.size(); i++) {
+            if (projects.get(i).filename.equals(filename)) {
+                projects.remove(i);
+                tableModel.removeRow(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startDesignsWatcher() {
+        designsWatcher = ProjectManager.createDesignsWatcher(new DesignsDirectoryWatcher.Listener() {
+            @Override
+            public void projectsChanged(List<File> files) {
+                // Re-read only the affected files, still on the watcher thread
+                Map<String, ProjectManager.ProjectMetadata> updated = new LinkedHashMap<>();
+                for (File file : files) {
+                    String path = file.getAbsolutePath();
+                    ProjectManager.ProjectMetadata metadata = ProjectManager.readProjectMetadata(file, currentUser, isAdmin);
+                    if (metadata == null && file.isFile() && !ProjectCache.containsMetadata(file)) {
+                        // Still there but unreadable, most likely caught mid-write: keep the row and look again
+                        int attempts = readRetries.merge(path, 1, Integer::sum);
+                        DesignsDirectoryWatcher watcher = designsWatcher;
+                        if (attempts <= MAX_READ_RETRIES && watcher != null) {
+                            watcher.retry(file);
+                        } else {
+                            readRetries.remove(path);
+                        }
+                        continue;
+                    }
+                    // Null here means the project belongs to someone else
+                    readRetries.remove(path);
+                    updated.put(path, metadata);
+                }
+                if (!updated.isEmpty()) {
+                    SwingUtilities.invokeLater(() -> applyProjectChanges(updated));
                 }
-            } catch (Exception e) {
-                System.err.println("Error calculating price for project: " + e.getMessage());
             }
 
-            Object[] rowData = {
-                    project.projectName,
-                    project.roomType,
-                    project.itemCount,
-                    df.format(estimatedPrice),
-                    sdf.format(project.lastModifiedDate),
-                    project.createdBy
-            };
-            tableModel.addRow(rowData);
+            @Override
+            public void projectsRemoved(List<File> files) {
+                Map<String, ProjectManager.ProjectMetadata> removed = new LinkedHashMap<>();
+                for (File file : files) {
+                    readRetries.remove(file.getAbsolutePath());
+                    removed.put(file.getAbsolutePath(), null);
+                }
+                SwingUtilities.invokeLater(() -> applyProjectChanges(removed));
+            }
+        });
+        designsWatcher.start();
+    }
+
+    /**
+     * Patch the table in place. A null metadata value removes the row for that file: it was
+     * deleted, or it now belongs to another user.
+     */
+    private void applyProjectChanges(Map<String, ProjectManager.ProjectMetadata> changes) {
+        if (designsWatcher == null) return; // Frame was disposed
+
+        // Keep the selection on the same project across the patch
+        String selectedFile = null;
+        int selectedRow = projectsTable.getSelectedRow();
+        if (selectedRow != -1) {
+            int modelRow = projectsTable.convertRowIndexToModel(selectedRow);
+            if (modelRow >= 0 && modelRow < projects.size()) {
+                selectedFile = projects.get(modelRow).filename;
+            }
         }
 
+        for (Map.Entry<String, ProjectManager.ProjectMetadata> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                addProjectRow(change.getValue());
+            } else {
+                removeProjectRow(change.getKey());
+            }
+        }
+        updateProjectStats();
+
+        if (selectedFile != null) {
+            for (int i = 0; i < projects.size(); i++) {
+                if (projects.get(i).filename.equals(selectedFile)) {
+                    int viewRow = projectsTable.convertRowIndexToView(i);
+                    projectsTable.getSelectionModel().setSelectionInterval(viewRow, viewRow);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the price cells of repriced projects without rebuilding the table.
+     * The repriced entries replace the shown ones; neither is modified.
+     */
+    private void applyRepricedProjects(List<ProjectManager.ProjectMetadata> repriced) {
+        if (repricerListener == null) return; // Frame was disposed
+
+        Map<String, ProjectManager.ProjectMetadata> byFile = new HashMap<>();
+        for (ProjectManager.ProjectMetadata metadata : repriced) {
+            byFile.put(metadata.filename, metadata);
+        }
+
+        DecimalFormat df = new DecimalFormat("0.00");
+        for (int i = 0; i < projects.size(); i++) {
+            ProjectManager.ProjectMetadata updated = byFile.get(projects.get(i).filename);
+            if (updated != null) {
+                projects.set(i, updated);
+                tableModel.setValueAt(df.format(updated.estimatedPrice), i, 3);
+            }
+        }
+    }
+
+    private void updateProjectStats() {
         // Update statistics
         statsLabel.setText("Total Projects: " + projects.size());
 
@@ -368,7 +556,109 @@ public class ProjectDashboardFrame extends JFrame {
         duplicateButton.setEnabled(hasProjects);
     }
 
+    /**
+     * Reads project metadata on the shared scan pool and publishes each project as soon as it is read.
+     */
+    private class ProjectScanWorker extends SwingWorker<Void, ProjectManager.ProjectMetadata> {
+        private final String username;
+        private final boolean includeAll;
+
+        ProjectScanWorker(String username, boolean includeAll) {
+            this.username = username;
+            this.includeAll = includeAll;
+        }
 
+        @Override
+        protected Void doInBackground() throws Exception {
+            long start = System.nanoTime();
+            try {
+                scan();
+            } finally {
+                scanTime.recordSince(start);
+            }
+            return null;
+        }
+
+        private void scan() throws Exception {
+            // The owner index names the files to read; an admin's scan reads one owner at a time
+            List<List<File>> pages = ProjectManager.getProjectFilePages(username, includeAll);
+            int total = 0;
+            for (List<File> page : pages) total += page.size();
+            if (total == 0) {
+                return;
+            }
+
+            CompletionService<ProjectManager.ProjectMetadata> completionService =
+                    new ExecutorCompletionService<>(ProjectManager.getScanExecutor());
+            int done = 0;
+            for (List<File> page : pages) {
+                if (isCancelled()) break;
+
+                List<Future<ProjectManager.ProjectMetadata>> futures = new ArrayList<>(page.size());
+                for (File file : page) {
+                    futures.add(completionService.submit(() ->
+                            ProjectManager.readProjectMetadata(file, username, includeAll)));
+                }
+
+                try {
+                    for (int i = 0; i < page.size(); i++) {
+                        ProjectManager.ProjectMetadata metadata = completionService.take().get();
+                        if (metadata != null) {
+                            publish(metadata);
+                        }
+                        setProgress(++done * 100 / total);
+                    }
+                } finally {
+                    // Drop queued reads when the scan is cancelled (e.g. on logout)
+                    for (Future<ProjectManager.ProjectMetadata> future : futures) {
+                        future.cancel(true);
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void process(List<ProjectManager.ProjectMetadata> chunk) {
+            if (isCancelled() || scanWorker != this) return;
+
+            for (ProjectManager.ProjectMetadata project : chunk) {
+                addProjectRow(project);
+            }
+            updateProjectStats();
+            scanProgressBar.setValue(getProgress());
+            scanProgressBar.setString("Loading projects... " + getProgress() + "%");
+        }
+
+        @Override
+        protected void done() {
+            if (scanWorker != this) return;
+
+            scanWorker = null;
+            scanProgressBar.setVisible(false);
+            updateProjectStats();
+            if (!isCancelled()) {
+                try {
+                    get();
+                } catch (Exception e) {
+                    System.err.println("Error scanning projects: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        cancelProjectScan();
+        if (repricerListener != null) {
+            ProjectRepricer.removeListener(repricerListener);
+            repricerListener = null;
+        }
+        if (designsWatcher != null) {
+            designsWatcher.stop();
+            designsWatcher = null;
+        }
+        super.dispose();
+    }
 
     private void handleLogout() {
         int choice = JOptionPane.showConfirmDialog(this,
@@ -392,6 +682,7 @@ public class ProjectDashboardFrame extends JFrame {
         this.dispose();
         MainAppFrame mainApp = new MainAppFrame(newModel, null, null, currentUser);
         mainApp.setVisible(true);
+        StartupOrchestrator.mark("editor-shown");
     }
 
     private void openSelectedProject() {
@@ -412,23 +703,28 @@ public class ProjectDashboardFrame extends JFrame {
                     return;
                 }
 
-                try {
-                    File file = new File(selected.filename);
-                    try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                        DesignModel loadedModel = (DesignModel) ois.readObject();
-                        if (loadedModel != null) {
-                            // Open the main app with the loaded model
-                            this.dispose();
-                            MainAppFrame mainApp = new MainAppFrame(loadedModel, file, selected.projectName, currentUser);
-                            mainApp.setVisible(true);
-                            return;
-                        }
-                    }
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this,
-                            "Error loading design file: " + e.getMessage(),
-                            "Load Error", JOptionPane.ERROR_MESSAGE);
-                }
+                // A project still being read is dropped in favour of the new choice
+                if (openTask != null) openTask.cancel();
+
+                File file = new File(selected.filename);
+                openTask = BackgroundTasks.submit("Opening " + selected.projectName + "...",
+                        progress -> ProjectManager.loadDesignModel(file),
+                        loadedModel -> {
+                            if (loadedModel != null) {
+                                // Open the main app with the loaded model
+                                this.dispose();
+                                MainAppFrame mainApp = new MainAppFrame(loadedModel, file, selected.projectName, currentUser);
+                                mainApp.setVisible(true);
+                                StartupOrchestrator.mark("editor-shown");
+                                return;
+                            }
+                            JOptionPane.showMessageDialog(this,
+                                    "Error loading design file: " + file.getName(),
+                                    "Load Error", JOptionPane.ERROR_MESSAGE);
+                        },
+                        e -> JOptionPane.showMessageDialog(this,
+                                "Error loading design file: " + e.getMessage(),
+                                "Load Error", JOptionPane.ERROR_MESSAGE));
             }
         } else {
             JOptionPane.showMessageDialog(this,
@@ -455,34 +751,32 @@ public class ProjectDashboardFrame extends JFrame {
                     return;
                 }
 
-                try {
-                    // Get new name
-                    String newName = JOptionPane.showInputDialog(this,
-                            "Enter name for duplicate project:",
-                            selected.projectName + " (Copy)");
-
-                    if (newName != null && !newName.trim().isEmpty()) {
-                        // Use ProjectManager to duplicate
-                        ProjectManager.ProjectMetadata newMetadata =
-                                ProjectManager.duplicateProject(selected, newName, currentUser);
-
-                        if (newMetadata != null) {
-                            JOptionPane.showMessageDialog(this,
-                                    "Project duplicated successfully",
-                                    "Duplicate Successful", JOptionPane.INFORMATION_MESSAGE);
-
-                            // Reload projects
-                            loadProjects();
-                        } else {
-                            JOptionPane.showMessageDialog(this,
-                                    "Failed to duplicate project",
-                                    "Duplication Error", JOptionPane.ERROR_MESSAGE);
-                        }
-                    }
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this,
-                            "Error duplicating project: " + e.getMessage(),
-                            "Duplication Error", JOptionPane.ERROR_MESSAGE);
+                // Get new name
+                String newName = JOptionPane.showInputDialog(this,
+                        "Enter name for duplicate project:",
+                        selected.projectName + " (Copy)");
+
+                if (newName != null && !newName.trim().isEmpty()) {
+                    // Use ProjectManager to duplicate; not cancellable, as stopping midway could leave a half-written copy
+                    BackgroundTasks.submit("Duplicating " + selected.projectName + "...", false,
+                            progress -> ProjectManager.duplicateProject(selected, newName, currentUser),
+                            newMetadata -> {
+                                if (newMetadata != null) {
+                                    JOptionPane.showMessageDialog(this,
+                                            "Project duplicated successfully",
+                                            "Duplicate Successful", JOptionPane.INFORMATION_MESSAGE);
+
+                                    // Reload projects
+                                    loadProjects();
+                                } else {
+                                    JOptionPane.showMessageDialog(this,
+                                            "Failed to duplicate project",
+                                            "Duplication Error", JOptionPane.ERROR_MESSAGE);
+                                }
+                            },
+                            e -> JOptionPane.showMessageDialog(this,
+                                    "Error duplicating project: " + e.getMessage(),
+                                    "Duplication Error", JOptionPane.ERROR_MESSAGE));
                 }
             }
         } else {
@@ -515,24 +809,25 @@ public class ProjectDashboardFrame extends JFrame {
                         "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
                 if (confirm == JOptionPane.YES_OPTION) {
-                    try {
-                        if (ProjectManager.deleteProject(selected)) {
-                            JOptionPane.showMessageDialog(this,
-                                    "Project deleted successfully",
-                                    "Delete Successful", JOptionPane.INFORMATION_MESSAGE);
-
-                            // Reload projects
-                            loadProjects();
-                        } else {
-                            JOptionPane.showMessageDialog(this,
-                                    "Failed to delete project file",
-                                    "Delete Error", JOptionPane.ERROR_MESSAGE);
-                        }
-                    } catch (Exception e) {
-                        JOptionPane.showMessageDialog(this,
-                                "Error deleting project: " + e.getMessage(),
-                                "Delete Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    BackgroundTasks.submit("Deleting " + selected.projectName + "...", false,
+                            progress -> ProjectManager.deleteProject(selected),
+                            deleted -> {
+                                if (deleted) {
+                                    JOptionPane.showMessageDialog(this,
+                                            "Project deleted successfully",
+                                            "Delete Successful", JOptionPane.INFORMATION_MESSAGE);
+
+                                    // Reload projects
+                                    loadProjects();
+                                } else {
+                                    JOptionPane.showMessageDialog(this,
+                                            "Failed to delete project file",
+                                            "Delete Error", JOptionPane.ERROR_MESSAGE);
+                                }
+                            },
+                            e -> JOptionPane.showMessageDialog(this,
+                                    "Error deleting project: " + e.getMessage(),
+                                    "Delete Error", JOptionPane.ERROR_MESSAGE));
                 }
             }
         } else {
@@ -549,6 +844,39 @@ public class ProjectDashboardFrame extends JFrame {
         inventoryFrame.setVisible(true);
     }
 
+    /**
+     * Let an administrator set the password hashing cost
+     */
+    private void configurePasswordSecurity() {
+        String input = (String) JOptionPane.showInputDialog(this,
+                "PBKDF2 iterations per password hash.\n" +
+                        "Higher values slow down password guessing, and every login by the same factor.\n" +
+                        "Run PasswordHashBenchmark to find a value for a target login time.\n" +
+                        "Allowed range: " + PasswordHasher.MIN_ITERATIONS + " to " + PasswordHasher.MAX_ITERATIONS,
+                "Password Security", JOptionPane.PLAIN_MESSAGE, null, null,
+                String.valueOf(UserManager.getPasswordIterations()));
+        if (input == null) return;
+
+        int iterations;
+        try {
+            iterations = Integer.parseInt(input.trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            iterations = -1;
+        }
+
+        if (UserManager.setPasswordIterations(currentUser, iterations)) {
+            JOptionPane.showMessageDialog(this,
+                    "Passwords will be hashed with " + iterations + " iterations.\n" +
+                            "Existing passwords are updated when their owners next log in.",
+                    "Password Security", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Could not set the iteration count. Enter a whole number from " +
+                            PasswordHasher.MIN_ITERATIONS + " to " + PasswordHasher.MAX_ITERATIONS + ".",
+                    "Password Security", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // Method to set current user (can be used from outside)
     public void setCurrentUser(User user) {
         if (user != null) {
@@ -7,11 +7,13 @@ import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 public class RegistrationFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JPasswordField confirmPasswordField;
+    private JButton registerButton;
     private Color primaryColor = new Color(166, 132, 94); // More wood-toned color
     private Color backgroundColor = Color.WHITE;
     private Font mainFont = new Font("Segoe UI", Font.PLAIN, 14);
@@ -150,7 +152,7 @@ public class RegistrationFrame extends JFrame {
         buttonPanel.setMaximumSize(new Dimension(FORM_ELEMENT_WIDTH, 45));
         buttonPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        JButton registerButton = new JButton("CREATE ACCOUNT") {
+        registerButton = new JButton("CREATE ACCOUNT") {
             @Override
             protected void paintComponent(Graphics g) {
                 Graphics2D g2d = (Graphics2D) g.create();
@@ -343,24 +345,47 @@ public class RegistrationFrame extends JFrame {
             return;
         }
 
-        // Create new user (always as CUSTOMER)
+        // Create new user (always as CUSTOMER); the password is hashed off the EDT
         User newUser = new User(username, password, User.UserType.CUSTOMER);
-        if (UserManager.addUser(newUser)) {
-            JOptionPane.showMessageDialog(this,
-                    "Registration successful! You can now log in.",
-                    "Registration Complete",
-                    JOptionPane.INFORMATION_MESSAGE);
+        registerButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return UserManager.addUser(newUser);
+            }
 
-            // Navigate to login screen
-            this.dispose();
-            LoginFrame loginFrame = new LoginFrame();
-            loginFrame.setVisible(true);
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    "Error creating account. Please try again.",
-                    "Registration Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+            @Override
+            protected void done() {
+                registerButton.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+
+                boolean added;
+                try {
+                    added = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error creating account: " + e.getMessage());
+                    added = false;
+                }
+
+                if (added) {
+                    JOptionPane.showMessageDialog(RegistrationFrame.this,
+                            "Registration successful! You can now log in.",
+                            "Registration Complete",
+                            JOptionPane.INFORMATION_MESSAGE);
+
+                    // Navigate to login screen
+                    RegistrationFrame.this.dispose();
+                    LoginFrame loginFrame = new LoginFrame();
+                    loginFrame.setVisible(true);
+                } else {
+                    JOptionPane.showMessageDialog(RegistrationFrame.this,
+                            "Error creating account. Please try again.",
+                            "Registration Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,139 @@
+import com.jogamp.opengl.GLProfile;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the slow parts of startup in parallel while the login window is shown:
+ * JOGL native loading and GLProfile probing, the user and inventory stores, and the
+ * startup reconcile of the project owner index. Each of these would otherwise block the first
+ * thread that touches it.
+ *
+ * Also records phase timings, measured from JVM launch, so time-to-login and time-to-first-frame
+ * can be read from getPhases(), or from the console with -Dfurnishview.startup.timings=true.
+ */
+public class StartupOrchestrator {
+
+    // Print phase timings to the console; off unless asked for
+    private static final boolean PRINT_TIMINGS = Boolean.getBoolean("furnishview.startup.timings");
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    // Warm-up tasks run on daemon threads so a slow one never keeps the JVM alive
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "startup-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Phase name to milliseconds since launch, in the order reached
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+
+    // Warm-up task name to how long it ran, in milliseconds
+    private static final Map<String, Long> taskDurations = new LinkedHashMap<>();
+
+    private static boolean started = false;
+    private static volatile boolean firstFrameRecorded = false;
+
+    /**
+     * Start the warm-up tasks. Call once from main, before the login window is created.
+     */
+    public static synchronized void start() {
+        if (started) return;
+        started = true;
+        mark("main");
+
+        CompletableFuture<Void> gl = runTask("jogl", () -> {
+            GLProfile.initSingleton();
+            GLProfile.get(GLProfile.GL2);
+        });
+        CompletableFuture<Void> users = runTask("users", UserManager::getUserCount);
+        CompletableFuture<Void> inventory = runTask("inventory", () -> {
+            InventoryManager.getPriceVersion();
+            // Keep cached project prices current when inventory prices change
+            ProjectRepricer.install();
+        });
+        CompletableFuture<Void> projects = runTask("project-index", ProjectOwnerIndex::start);
+
+        CompletableFuture.allOf(gl, users, inventory, projects)
+                .whenComplete((result, error) -> {
+                    mark("warmup-done");
+                    printTimings();
+                });
+    }
+
+    /**
+     * Record that a phase was reached
+     * @param phase The phase name
+     */
+    public static void mark(String phase) {
+        long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        synchronized (phases) {
+            phases.putIfAbsent(phase, millis);
+        }
+    }
+
+    /**
+     * Record the first rendered 3D frame. Cheap enough to call on every frame; only the first call counts.
+     */
+    public static void markFirstFrame() {
+        if (firstFrameRecorded) return;
+        firstFrameRecorded = true;
+
+        mark("first-frame");
+        printTimings();
+    }
+
+    /**
+     * @return A copy of the recorded phases, in milliseconds since launch
+     */
+    public static Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    /**
+     * @return A copy of the warm-up task durations, in milliseconds
+     */
+    public static Map<String, Long> getTaskDurations() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(taskDurations);
+        }
+    }
+
+    private static CompletableFuture<Void> runTask(String name, Runnable task) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                // A failed warm-up only means the work happens later, on first use
+                System.err.println("Startup task " + name + " failed: " + e);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            synchronized (phases) {
+                taskDurations.put(name, millis);
+            }
+        }, executor);
+    }
+
+    private static void printTimings() {
+        if (!PRINT_TIMINGS) return;
+
+        StringBuilder sb = new StringBuilder("Startup phases (ms since launch):");
+        for (Map.Entry<String, Long> entry : getPhases().entrySet()) {
+            sb.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        sb.append("; warm-up tasks (ms):");
+        for (Map.Entry<String, Long> entry : getTaskDurations().entrySet()) {
+            sb.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        System.out.println(sb);
+    }
+}